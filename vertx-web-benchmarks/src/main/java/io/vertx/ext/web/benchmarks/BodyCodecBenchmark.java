@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.codec.impl.BodyCodecImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of response bodies by the {@link BodyCodecImpl} decoders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyCodecBenchmark {
+
+  @Param({"10", "1000"})
+  public int items;
+
+  private Buffer object;
+  private Buffer array;
+
+  @Setup
+  public void setup() {
+    JsonArray list = new JsonArray();
+    for (int i = 0; i < items; i++) {
+      list.add(new JsonObject().put("id", i).put("name", "item " + i).put("active", i % 2 == 0));
+    }
+    object = new JsonObject().put("items", list).toBuffer();
+    array = list.toBuffer();
+  }
+
+  @Benchmark
+  public String string() {
+    return BodyCodecImpl.UTF8_DECODER.apply(object);
+  }
+
+  @Benchmark
+  public JsonObject jsonObject() {
+    return BodyCodecImpl.JSON_OBJECT_DECODER.apply(object);
+  }
+
+  @Benchmark
+  public JsonArray jsonArray() {
+    return BodyCodecImpl.JSON_ARRAY_DECODER.apply(array);
+  }
+}
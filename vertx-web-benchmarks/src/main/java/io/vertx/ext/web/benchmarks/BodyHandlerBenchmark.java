@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulation of a request body by the {@link BodyHandler}, delivered in chunks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyHandlerBenchmark {
+
+  @Param({"1024", "65536", "1048576"})
+  public int size;
+
+  @Param({"1024", "8192"})
+  public int chunkSize;
+
+  private Vertx vertx;
+  private Router router;
+  private InMemoryRequest request;
+  private Buffer[] chunks;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    router = Router.router(vertx);
+    router.post("/body")
+      .handler(BodyHandler.create(false).setBodyLimit(-1))
+      .handler(rc -> rc.response().end());
+
+    request = InMemoryRequest.request(HttpMethod.POST, "/body")
+      .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+      .putHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(size));
+
+    chunks = new Buffer[(size + chunkSize - 1) / chunkSize];
+    for (int i = 0; i < chunks.length; i++) {
+      int length = Math.min(chunkSize, size - i * chunkSize);
+      chunks[i] = Buffer.buffer(new byte[length]);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public boolean body() {
+    request.reset();
+    router.handle(request.request());
+    request.send(chunks);
+    return request.ended();
+  }
+}
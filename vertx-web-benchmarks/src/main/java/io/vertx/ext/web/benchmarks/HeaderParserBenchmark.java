@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.ext.web.impl.HeaderParser;
+import io.vertx.ext.web.impl.ParsableHeaderValue;
+import io.vertx.ext.web.impl.ParsableLanguageValue;
+import io.vertx.ext.web.impl.ParsableMIMEValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the content negotiation headers, as done for each request reading them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderParserBenchmark {
+
+  @Param({
+    "application/json",
+    "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8"
+  })
+  public String accept;
+
+  public String acceptEncoding = "gzip, deflate, br;q=0.9";
+  public String acceptLanguage = "en-US,en;q=0.9,pt;q=0.8,de;q=0.7";
+  public String contentType = "application/json; charset=utf-8";
+
+  @Benchmark
+  public List<ParsableMIMEValue> accept() {
+    return HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(accept, ParsableMIMEValue::new));
+  }
+
+  @Benchmark
+  public List<ParsableHeaderValue> acceptEncoding() {
+    return HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(acceptEncoding, ParsableHeaderValue::new));
+  }
+
+  @Benchmark
+  public List<ParsableLanguageValue> acceptLanguage() {
+    return HeaderParser.sort(HeaderParser.convertToParsedHeaderValues(acceptLanguage, ParsableLanguageValue::new));
+  }
+
+  @Benchmark
+  public ParsableMIMEValue contentType() {
+    return new ParsableMIMEValue(contentType).forceParse();
+  }
+}
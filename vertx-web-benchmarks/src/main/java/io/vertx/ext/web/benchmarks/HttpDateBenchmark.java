@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.ext.web.impl.HttpDate;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of the date header, as done for each static file response and access log line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpDateBenchmark {
+
+  private static final ZoneId ZONE_GMT = ZoneId.of("GMT");
+
+  @Benchmark
+  public String formatter() {
+    // the formatting done before the dates were cached
+    return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(System.currentTimeMillis()).atZone(ZONE_GMT));
+  }
+
+  @Benchmark
+  public CharSequence cached() {
+    return HttpDate.now();
+  }
+
+  @Benchmark
+  public byte[] cachedBytes() {
+    return HttpDate.now().array();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public CharSequence cachedContended() {
+    return HttpDate.now();
+  }
+}
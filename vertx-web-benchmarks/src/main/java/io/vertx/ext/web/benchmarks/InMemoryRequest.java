@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.impl.HttpServerRequestInternal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * An in-memory request/response pair, so the router and handlers can be measured without any network I/O.
+ * <p>
+ * Both sides are dynamic proxies: methods that are not relevant for the benchmarks return {@code this} when fluent,
+ * a succeeded future when asynchronous, or the default value of their type. A request can be dispatched several times,
+ * {@link #reset()} must be called before each dispatch.
+ * <p>
+ * This class is not thread-safe
+ */
+public final class InMemoryRequest {
+
+  private final HttpMethod method;
+  private final String uri;
+  private final String path;
+  private final String query;
+  private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+  private final HttpServerRequest request;
+  private final HttpServerResponse response;
+
+  private Handler<Buffer> dataHandler;
+  private Handler<Void> endHandler;
+  private boolean ended;
+
+  private int statusCode;
+  private boolean responseEnded;
+  private final MultiMap responseHeaders = MultiMap.caseInsensitiveMultiMap();
+
+  private InMemoryRequest(HttpMethod method, String uri) {
+    this.method = method;
+    this.uri = uri;
+    int queryIndex = uri.indexOf('?');
+    this.path = queryIndex == -1 ? uri : uri.substring(0, queryIndex);
+    this.query = queryIndex == -1 ? null : uri.substring(queryIndex + 1);
+    this.request = proxy(HttpServerRequestInternal.class, this::onRequest);
+    this.response = proxy(HttpServerResponse.class, this::onResponse);
+    reset();
+  }
+
+  public static InMemoryRequest request(HttpMethod method, String uri) {
+    return new InMemoryRequest(method, uri);
+  }
+
+  public InMemoryRequest putHeader(CharSequence name, CharSequence value) {
+    headers.set(name, value);
+    return this;
+  }
+
+  public HttpServerRequest request() {
+    return request;
+  }
+
+  public int statusCode() {
+    return statusCode;
+  }
+
+  public boolean ended() {
+    return responseEnded;
+  }
+
+  /**
+   * Prepare the request for a new dispatch.
+   */
+  public void reset() {
+    dataHandler = null;
+    endHandler = null;
+    ended = false;
+    statusCode = 200;
+    responseEnded = false;
+    responseHeaders.clear();
+  }
+
+  /**
+   * Deliver the body to the handlers set on the request, then end it.
+   */
+  public void send(Buffer... chunks) {
+    for (Buffer chunk : chunks) {
+      if (dataHandler != null) {
+        dataHandler.handle(chunk);
+      }
+    }
+    ended = true;
+    if (endHandler != null) {
+      endHandler.handle(null);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object onRequest(Object proxy, Method m, Object[] args) {
+    switch (m.getName()) {
+      case "method":
+        return method;
+      case "uri":
+        return uri;
+      case "path":
+        return path;
+      case "query":
+        return query;
+      case "version":
+        return HttpVersion.HTTP_1_1;
+      case "scheme":
+        return "http";
+      case "host":
+        return "localhost";
+      case "absoluteURI":
+        return "http://localhost" + uri;
+      case "headers":
+        return headers;
+      case "getHeader":
+        return headers.get(args[0].toString());
+      case "response":
+        return response;
+      case "isEnded":
+        return ended;
+      case "handler":
+        dataHandler = (Handler<Buffer>) args[0];
+        return proxy;
+      case "endHandler":
+        endHandler = (Handler<Void>) args[0];
+        return proxy;
+      default:
+        return defaultValue(proxy, m, args);
+    }
+  }
+
+  private Object onResponse(Object proxy, Method m, Object[] args) {
+    switch (m.getName()) {
+      case "setStatusCode":
+        statusCode = (Integer) args[0];
+        return proxy;
+      case "getStatusCode":
+        return statusCode;
+      case "headers":
+        return responseHeaders;
+      case "putHeader":
+        if (args[1] instanceof Iterable) {
+          return proxy;
+        }
+        responseHeaders.set(args[0].toString(), args[1].toString());
+        return proxy;
+      case "end":
+        responseEnded = true;
+        return defaultValue(proxy, m, args);
+      case "ended":
+        return responseEnded;
+      default:
+        return defaultValue(proxy, m, args);
+    }
+  }
+
+  private Object defaultValue(Object proxy, Method m, Object[] args) {
+    switch (m.getName()) {
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+      case "toString":
+        return "InMemoryRequest{" + method + " " + uri + "}";
+    }
+    final Class<?> type = m.getReturnType();
+    if (type == Future.class) {
+      return Future.succeededFuture();
+    }
+    if (type != Object.class && type.isInstance(proxy)) {
+      // fluent
+      return proxy;
+    }
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(InMemoryRequest.class.getClassLoader(), new Class<?>[]{type}, handler);
+  }
+}
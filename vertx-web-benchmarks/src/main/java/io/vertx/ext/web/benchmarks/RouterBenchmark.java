@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.Router;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch of a request by {@link Router#handle(Object)} to the first route, the last route or no route at all.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int routes;
+
+  @Param({"literal", "param", "regex"})
+  public String kind;
+
+  @Param({"0", "1024"})
+  public int routeCacheSize;
+
+  private Vertx vertx;
+  private Router router;
+  private InMemoryRequest first;
+  private InMemoryRequest last;
+  private InMemoryRequest notFound;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    router = Router.router(vertx).routeCacheSize(routeCacheSize);
+    for (int i = 0; i < routes; i++) {
+      route(i).handler(rc -> rc.response().end());
+    }
+    first = InMemoryRequest.request(HttpMethod.GET, path(0));
+    last = InMemoryRequest.request(HttpMethod.GET, path(routes - 1));
+    notFound = InMemoryRequest.request(HttpMethod.GET, "/api/missing/42");
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  private Route route(int i) {
+    switch (kind) {
+      case "literal":
+        return router.get("/api/resource" + i + "/items");
+      case "param":
+        return router.get("/api/resource" + i + "/:id");
+      case "regex":
+        return router.getWithRegex("/api/resource" + i + "/([0-9]+)");
+      default:
+        throw new IllegalArgumentException(kind);
+    }
+  }
+
+  private String path(int i) {
+    return "literal".equals(kind) ? "/api/resource" + i + "/items" : "/api/resource" + i + "/42";
+  }
+
+  private int dispatch(InMemoryRequest request) {
+    request.reset();
+    router.handle(request.request());
+    return request.statusCode();
+  }
+
+  @Benchmark
+  public int firstRoute() {
+    return dispatch(first);
+  }
+
+  @Benchmark
+  public int lastRoute() {
+    return dispatch(last);
+  }
+
+  @Benchmark
+  public int notFound() {
+    return dispatch(notFound);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Router;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of a router with many routes, adding them one by one or with {@link Router#batch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RouterBuildBenchmark {
+
+  @Param({"10000"})
+  public int routes;
+
+  @Param({"false", "true"})
+  public boolean batch;
+
+  private Vertx vertx;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  private void addRoutes(Router router) {
+    for (int i = 0; i < routes; i++) {
+      router.get("/api/resource" + i + "/:id").handler(rc -> rc.response().end());
+    }
+  }
+
+  @Benchmark
+  public Router build() {
+    Router router = Router.router(vertx);
+    if (batch) {
+      router.batch(this::addRoutes);
+    } else {
+      addRoutes(router);
+    }
+    return router;
+  }
+}
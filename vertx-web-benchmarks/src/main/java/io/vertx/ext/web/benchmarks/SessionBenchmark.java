@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.benchmarks;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.VertxContextPRNG;
+import io.vertx.ext.web.sstore.impl.SharedDataSessionImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a session, as done by the session stores on each flush and load.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+  private Vertx vertx;
+  private SharedDataSessionImpl session;
+  private Buffer serialized;
+
+  @Setup
+  public void setup() {
+    vertx = Vertx.vertx();
+    session = new SharedDataSessionImpl(VertxContextPRNG.current(vertx), 30_000, 32);
+    session.put("user", "vert.x");
+    session.put("visits", 42);
+    session.put("lastVisit", System.currentTimeMillis());
+    session.put("admin", false);
+    session.put("profile", new JsonObject()
+      .put("name", "Vert.x")
+      .put("email", "vertx@example.com")
+      .put("roles", new JsonArray().add("user").add("developer")));
+    session.put("token", new byte[64]);
+
+    serialized = Buffer.buffer();
+    session.writeToBuffer(serialized);
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public Buffer write() {
+    Buffer buffer = Buffer.buffer();
+    session.writeToBuffer(buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public SharedDataSessionImpl read() {
+    SharedDataSessionImpl read = new SharedDataSessionImpl();
+    read.readFromBuffer(0, serialized);
+    return read;
+  }
+}
@@ -250,6 +250,17 @@ public class OpenAPI3RouterBuilderImpl implements RouterBuilder {
     }
     globalHandlers.forEach(globalRoute::handler);
 
+    router.batch(this::mountOperations);
+
+    if (this.options.getContractEndpoint() != null) {
+      router.get(this.options.getContractEndpoint())
+        .handler(ContractEndpointHandler.create(this.openapi));
+    }
+
+    return router;
+  }
+
+  private void mountOperations(Router router) {
     for (OperationImpl operation : operations.values()) {
       // If user don't want 501 handlers and the operation is not configured, skip it
       if (!options.isMountNotImplementedHandler() && !operation.isConfigured())
@@ -361,13 +372,6 @@ public class OpenAPI3RouterBuilderImpl implements RouterBuilder {
       for (Handler<RoutingContext> failureHandler : failureHandlersToLoad)
         route.failureHandler(failureHandler);
     }
-
-    if (this.options.getContractEndpoint() != null) {
-      router.get(this.options.getContractEndpoint())
-        .handler(ContractEndpointHandler.create(this.openapi));
-    }
-
-    return router;
   }
 
 }
@@ -38,6 +38,8 @@ import io.vertx.ext.web.sstore.SessionStore;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 /**
@@ -565,6 +567,21 @@ public class WebExamples {
     });
   }
 
+  public void example20_3(Router router, SomeLegacyService service) {
+    // on JDK 21, Executors.newVirtualThreadPerTaskExecutor()
+    Executor executor = Executors.newCachedThreadPool();
+
+    router.route().blockingHandler(ctx -> {
+
+      // Do something that might take some time synchronously
+      service.doSomethingThatBlocks();
+
+      // Now call the next handler
+      ctx.next();
+
+    }, executor);
+  }
+
   interface SomeLegacyService {
 
     void doSomethingThatBlocks();
@@ -16,7 +16,9 @@
 
 package io.vertx.ext.web;
 
+import io.vertx.codegen.annotations.Nullable;
 import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.buffer.Buffer;
 
 /**
  * Represents a file-upload from an HTTP multipart form submission.
@@ -33,10 +35,17 @@ public interface FileUpload {
   String name();
 
   /**
-   * @return the actual temporary file name on the server where the file was uploaded to.
+   * @return the actual temporary file name on the server where the file was uploaded to, or {@code null} when the
+   * upload was small enough to be kept in memory, see {@link #content()}.
    */
   String uploadedFileName();
 
+  /**
+   * @return the content of the upload when it was small enough to be kept in memory, otherwise {@code null} and
+   * the content is in the {@link #uploadedFileName()} file.
+   */
+  @Nullable Buffer content();
+
   /**
    * @return the file name of the upload as provided in the form submission
    */
@@ -17,6 +17,7 @@
 package io.vertx.ext.web;
 
 import io.vertx.codegen.annotations.Fluent;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.Nullable;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.Future;
@@ -28,6 +29,7 @@ import io.vertx.ext.web.handler.HttpException;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 /**
@@ -165,6 +167,27 @@ public interface Route {
   @Fluent
   Route blockingHandler(Handler<RoutingContext> requestHandler, boolean ordered);
 
+  /**
+   * Specify a blocking request handler for the route, run with the given executor rather than the worker pool.
+   * <p>
+   * This is meant for executors that are not bounded by a pool of threads, such as the executor creating a virtual
+   * thread per task on JDK 21 ({@code Executors.newVirtualThreadPerTaskExecutor()}), so that many blocking handlers can
+   * run concurrently. As with {@link #blockingHandler(Handler, boolean)}, it's safe to call {@link RoutingContext#next()}
+   * or {@link RoutingContext#fail(Throwable)} from the handler, they are executed on the event loop of the request.
+   * The writes to the {@link RoutingContext#response()}, the changes of its status, headers and cookies and the
+   * handlers set on the request or the response are executed on the event loop too, in the order they are called, a
+   * failure of such a call fails the routing context. The {@link io.vertx.core.http.HttpServerResponse#headers()} of the
+   * response are then a copy, they must be changed with
+   * {@link io.vertx.core.http.HttpServerResponse#putHeader(String, String)}. Handlers are not ordered. If the executor rejects the handler, the request fails with a {@code 503} status.
+   *
+   * @param requestHandler the blocking request handler
+   * @param executor       the executor running the handler
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  @Fluent
+  Route blockingHandler(Handler<RoutingContext> requestHandler, Executor executor);
+
   /**
    * Append a failure handler to the route failure handlers list. The router routes failures to failurehandlers depending on whether the various
    * criteria such as method, path, etc match. When method, path, etc are the same for different routes, You should add multiple
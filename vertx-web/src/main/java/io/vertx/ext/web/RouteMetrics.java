@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web;
+
+import io.vertx.codegen.annotations.Nullable;
+import io.vertx.codegen.annotations.VertxGen;
+
+/**
+ * Receives the metrics of the requests handled by a {@link Router}, see {@link Router#metrics(RouteMetrics)}.
+ * <p>
+ * Implementations are called from the event loop when a response ends and must not block, they can aggregate the
+ * values in process, as {@link io.vertx.ext.web.metrics.RouteMetricsRecorder} does, or forward them to a monitoring
+ * system.
+ */
+@VertxGen
+@FunctionalInterface
+public interface RouteMetrics {
+
+  /**
+   * Called when the response of a request has been fully written.
+   *
+   * @param route the name of the last route whose handlers were called before the response ended, as given by
+   *              {@link Route#setName(String)}, otherwise its path or pattern prefixed with the mount point of its
+   *              sub router. {@code null} when the response was sent by the router because no route matched
+   * @param statusCode the status code of the response
+   * @param handlerTime the nanoseconds between the router receiving the request and the response end
+   * @param timeToFirstByte the nanoseconds between the router receiving the request and the response headers being
+   *                        written
+   */
+  void requestEnd(@Nullable String route, int statusCode, long handlerTime, long timeToFirstByte);
+}
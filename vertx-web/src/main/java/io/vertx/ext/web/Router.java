@@ -17,6 +17,7 @@
 package io.vertx.ext.web;
 
 import io.vertx.codegen.annotations.Fluent;
+import io.vertx.codegen.annotations.Nullable;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -330,6 +331,24 @@ public interface Router extends Handler<HttpServerRequest> {
   @Fluent
   Router clear();
 
+  /**
+   * Apply several route additions and removals at once. The mutations performed by the handler are not visible to
+   * requests until the handler returns, at that moment the new routes are published atomically and the
+   * {@link #modifiedHandler(Handler)} is notified once. When the handler throws, none of its mutations are published
+   * and the exception is rethrown, when it doesn't change the routes nothing is notified.
+   * <p>
+   * This is useful when building routers with a large number of routes, as each route no longer copies the whole
+   * router state.
+   * <p>
+   * The router is not locked while the handler runs: only the mutations made by the calling thread are part of the
+   * batch, the other threads can still change the routes.
+   *
+   * @param mutations a handler that receives this router and performs the mutations
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router batch(Handler<Router> mutations);
+
   /**
    * Mount a sub router on this router
    *
@@ -377,6 +396,65 @@ public interface Router extends Handler<HttpServerRequest> {
   Router modifiedHandler(Handler<Router> handler);
 
 
+  /**
+   * Set the maximum number of route lookups to cache. Requests sharing the same method and normalized path reuse the
+   * routes and the path params that were resolved for the first of them, the routes are not evaluated again. Routes
+   * whose match depends on request headers (consumes, produces or virtual host) are always evaluated.
+   * <p>
+   * The cache is cleared on any change to the router or its routes. When full, the least recently used lookups are
+   * evicted. The default is {@code 0}, the cache is disabled.
+   *
+   * @param size the maximum number of cached lookups, {@code 0} to disable the cache
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router routeCacheSize(int size);
+
+  /**
+   * @return the number of requests whose routes were resolved from the route cache
+   * @see #routeCacheSize(int)
+   */
+  long routeCacheHits();
+
+  /**
+   * @return the number of requests whose routes were not in the route cache
+   * @see #routeCacheSize(int)
+   */
+  long routeCacheMisses();
+
+  /**
+   * Set whether the routes of mounted sub routers are inlined in this router. When enabled, requests handled by this
+   * router no longer traverse the mounted routers: their routes, prefixed with the mount point, are evaluated in place
+   * of the route mounting them, keeping the same order, mount points and error handlers. Changes to the routes of the
+   * sub routers, made after they are mounted, are picked up automatically: the {@link #modifiedHandler(Handler)} of
+   * the sub routers plays no part in it, it's neither replaced nor notified of more changes than before.
+   * <p>
+   * Only sub routers mounted by path alone are inlined, mounts with other criteria (methods, content types, virtual
+   * hosts or path params) are still routed through the sub router. Inlining only applies when this router handles
+   * the request directly, not when it is itself mounted as a sub router.
+   *
+   * @param inline {@code true} to inline the sub routers
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router inlineSubRouters(boolean inline);
+
+  /**
+   * Set the metrics receiving, for each request handled by this router, the route that handled it, the response
+   * status code, the handler time and the time to first byte. Requests are reported under the
+   * {@link Route#setName(String) name} of the last route that handled them, or its path prefixed with the mount point
+   * of its sub router when it has no name.
+   * <p>
+   * Metrics are disabled by default, {@link io.vertx.ext.web.metrics.RouteMetricsRecorder} records them in histograms
+   * that can be queried in process. Only the router receiving the requests reports them, the metrics of its sub
+   * routers are ignored.
+   *
+   * @param metrics the metrics, {@code null} to disable them
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Router metrics(@Nullable RouteMetrics metrics);
+
   /**
    * Set whether the router should parse "forwarded"-type headers
    *
@@ -18,10 +18,16 @@ package io.vertx.ext.web.handler;
 
 import io.vertx.codegen.annotations.Fluent;
 import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.impl.BodyHandlerImpl;
 
+import java.util.function.Function;
+
 /**
  * A handler which gathers the entire request body and sets it on the {@link RoutingContext}.
  * <p>
@@ -57,6 +63,22 @@ public interface BodyHandler extends Handler<RoutingContext> {
    */
   boolean DEFAULT_PREALLOCATE_BODY_BUFFER = false;
 
+  /**
+   * Default value of whether JSON bodies should be parsed as they are received
+   */
+  boolean DEFAULT_INCREMENTAL_JSON_PARSING = false;
+
+  /**
+   * Default value of whether the received chunks should be kept in a composite buffer instead of being copied
+   */
+  boolean DEFAULT_COMPOSITE_BODY_BUFFER = false;
+
+  /**
+   * Default size in bytes up to which uploads are kept in memory = {@code -1} means uploads are always written to disk
+   * and bodies are always kept in memory
+   */
+  long DEFAULT_MEMORY_THRESHOLD = -1;
+
   /**
    * Create a body handler with defaults
    *
@@ -142,4 +164,59 @@ public interface BodyHandler extends Handler<RoutingContext> {
   @Fluent
   BodyHandler setPreallocateBodyBuffer(boolean isPreallocateBodyBuffer);
 
+  /**
+   * Parse the JSON bodies as they are received rather than after the whole body is buffered. The chunks of a request
+   * with a JSON content type are fed to a {@link io.vertx.core.parsetools.JsonParser}, so parsing overlaps with the
+   * network and the raw body is not kept in memory. {@link RoutingContext#getBodyAsJson()} and
+   * {@link RoutingContext#getBodyAsJsonArray()} then return the parsed value, and {@link RoutingContext#getBody()}
+   * returns the value encoded again. A malformed body fails the request with a {@code 400} status.
+   *
+   * @param incrementalJsonParsing {@code true} to parse JSON bodies as they are received
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setIncrementalJsonParsing(boolean incrementalJsonParsing);
+
+  /**
+   * Keep the received chunks in a composite buffer rather than copying each of them into a growing body buffer.
+   * Large bodies are then never copied while they are received, the bytes are only copied when a contiguous
+   * array is requested from the body. When enabled, {@link #setPreallocateBodyBuffer(boolean)} has no effect.
+   *
+   * @param compositeBodyBuffer {@code true} to keep the received chunks in a composite buffer
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setCompositeBodyBuffer(boolean compositeBodyBuffer);
+
+  /**
+   * Set the size in bytes up to which uploads are kept in memory. A file upload that stays below the threshold is not
+   * written to the uploads directory, its content is available from {@link io.vertx.ext.web.FileUpload#content()}.
+   * A larger upload is written to a file once it exceeds the threshold.
+   * <p>
+   * When file uploads are handled, a request body that exceeds the threshold is also written to a file of the uploads
+   * directory instead of being kept in memory. {@link io.vertx.ext.web.RoutingContext#getBody()} then returns
+   * {@code null} and the body is available from a {@link io.vertx.ext.web.FileUpload} with an empty name in
+   * {@link io.vertx.ext.web.RoutingContext#fileUploads()}. When file uploads are not handled, see
+   * {@link #setHandleFileUploads(boolean)}, nothing is written to the uploads directory and the request body is always
+   * kept in memory, up to the {@link #setBodyLimit(long) body limit}.
+   *
+   * @param memoryThreshold the threshold in bytes, or {@code -1} to disable it
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setMemoryThreshold(long memoryThreshold);
+
+  /**
+   * Set a factory creating the stream each file upload is written to, instead of a file of the uploads directory.
+   * The upload is paused until the future returned by the factory completes, it is then piped to the stream with back
+   * pressure and the stream is ended once the whole upload is written. The stream is not ended when the upload fails.
+   * <p>
+   * The uploads are still available from {@link RoutingContext#fileUploads()}, without an uploaded file name.
+   *
+   * @param uploadStreamFactory the factory, or {@code null} to write the uploads to the uploads directory
+   * @return reference to this for fluency
+   */
+  @Fluent
+  BodyHandler setUploadStreamFactory(Function<HttpServerFileUpload, Future<WriteStream<Buffer>>> uploadStreamFactory);
+
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler;
+
+import io.vertx.codegen.annotations.VertxGen;
+
+/**
+ * The fields written by the structured {@link LoggerFormat#JSON} and {@link LoggerFormat#BINARY} formats.
+ * <p>
+ * In the binary records, the numeric fields are written as 64-bit integers, the other fields as strings.
+ */
+@VertxGen
+public enum LoggerField {
+
+  /**
+   * The time the request was received, in milliseconds since the epoch (number), {@code "timestamp"} in JSON
+   */
+  TIMESTAMP,
+
+  /**
+   * The address of the remote client, {@code "client"} in JSON
+   */
+  CLIENT_ADDRESS,
+
+  /**
+   * The HTTP method, {@code "method"} in JSON
+   */
+  METHOD,
+
+  /**
+   * The request URI, {@code "uri"} in JSON
+   */
+  URI,
+
+  /**
+   * The HTTP version, {@code "version"} in JSON
+   */
+  VERSION,
+
+  /**
+   * The name of the route that handled the request, {@code "route"} in JSON
+   */
+  ROUTE_NAME,
+
+  /**
+   * The path of the route that handled the request including the mount point, e.g. {@code /users/:id},
+   * {@code "path"} in JSON
+   */
+  PATH_TEMPLATE,
+
+  /**
+   * The status code of the response (number), {@code "status"} in JSON
+   */
+  STATUS,
+
+  /**
+   * The number of bytes written for the response body, or the request content length for the immediate loggers
+   * (number), {@code "bytes"} in JSON
+   */
+  BYTES,
+
+  /**
+   * The time taken to handle the request, in milliseconds (number), {@code "duration"} in JSON
+   */
+  DURATION,
+
+  /**
+   * The identifier of the authenticated user, {@code "user"} in JSON
+   */
+  USER_ID,
+
+  /**
+   * The {@code user-agent} header, {@code "userAgent"} in JSON
+   */
+  USER_AGENT,
+
+  /**
+   * The {@code referer} header, {@code "referrer"} in JSON
+   */
+  REFERRER
+}
@@ -43,5 +43,22 @@ public enum LoggerFormat {
   /**
    * Will use user defined formatter function.
    */
-  CUSTOM
+  CUSTOM,
+
+  /**
+   * A compact JSON object per line with the selected {@link LoggerField}s, e.g.
+   * {@code {"timestamp":1625097600000,"method":"GET","uri":"/","status":200}}. Missing values are {@code null}.
+   */
+  JSON,
+
+  /**
+   * A length-prefixed binary record per request with the selected {@link LoggerField}s. A record starts with its length
+   * in bytes as a 32-bit integer, excluding the prefix, followed by each field as its ordinal on one byte and its value.
+   * The numeric values are 64-bit integers, the other values a 32-bit length ({@code -1} when missing) followed by
+   * the UTF-8 bytes. All the integers are big-endian.
+   * <p>
+   * The binary records are only written to an access log file, see {@link LoggerHandler#accessLog(String)}, the Vert.x
+   * logger receives the {@link #JSON} lines instead.
+   */
+  BINARY
 }
@@ -22,6 +22,7 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.ext.web.handler.impl.LoggerHandlerImpl;
 import io.vertx.ext.web.RoutingContext;
 
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -36,6 +37,16 @@ public interface LoggerHandler extends Handler<RoutingContext> {
 
   LoggerFormat DEFAULT_FORMAT = LoggerFormat.DEFAULT;
 
+  /**
+   * Default number of lines the access log can buffer before lines are dropped
+   */
+  int DEFAULT_ACCESS_LOG_BUFFER_SIZE = 8192;
+
+  /**
+   * Default size in bytes of the access log file before it is rotated = 100MB
+   */
+  long DEFAULT_ACCESS_LOG_ROTATION_SIZE = 100 * 1024 * 1024;
+
   /**
    * Create a handler with default format
    *
@@ -87,4 +98,46 @@ public interface LoggerHandler extends Handler<RoutingContext> {
    */
   @Fluent
   LoggerHandler customFormatter(LoggerFormatter formatter);
+
+  /**
+   * Set the fields written by the structured formats, in order. By default all the {@link LoggerField}s are written.
+   *
+   * @param fields the fields
+   * @return reference to this for fluency
+   * @throws IllegalStateException if current format is not {@link LoggerFormat#JSON} or {@link LoggerFormat#BINARY}
+   */
+  @Fluent
+  LoggerHandler fields(List<LoggerField> fields);
+
+  /**
+   * Write the log lines to an access log file instead of the Vert.x logger, with the default buffer and rotation sizes.
+   *
+   * @param file the path of the access log file
+   * @return reference to this for fluency
+   * @see #accessLog(String, int, long)
+   */
+  @Fluent
+  LoggerHandler accessLog(String file);
+
+  /**
+   * Write the log lines to an access log file instead of the Vert.x logger.
+   * <p>
+   * The lines are rendered without intermediate strings and handed over to a background thread that writes them in
+   * batches, so the event loop never waits for the disk. When the file would exceed the rotation size, it is renamed
+   * with the current time in milliseconds as a suffix and a new file is started. When the writer cannot keep up and
+   * {@code bufferSize} lines are pending, the next lines are dropped rather than blocking the request, see
+   * {@link #droppedLines()}.
+   *
+   * @param file the path of the access log file
+   * @param bufferSize the maximum number of pending lines
+   * @param rotationSize the size in bytes after which the file is rotated
+   * @return reference to this for fluency
+   */
+  @Fluent
+  LoggerHandler accessLog(String file, int bufferSize, long rotationSize);
+
+  /**
+   * @return the number of lines dropped because the access log writer could not keep up
+   */
+  long droppedLines();
 }
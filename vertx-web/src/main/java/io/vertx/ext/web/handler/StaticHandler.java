@@ -65,6 +65,11 @@ public interface StaticHandler extends Handler<RoutingContext> {
    */
   String DEFAULT_DIRECTORY_TEMPLATE = "META-INF/vertx/web/vertx-web-directory.html";
 
+  /**
+   * Default max number of entries of a directory listing response, {@code 0} means that listings are not paginated
+   */
+  int DEFAULT_DIRECTORY_LISTING_PAGE_SIZE = 0;
+
   /**
    * Default of whether hidden files can be served
    */
@@ -85,6 +90,41 @@ public interface StaticHandler extends Handler<RoutingContext> {
    */
   int DEFAULT_MAX_CACHE_SIZE = 10000;
 
+  /**
+   * Default of whether precompressed files should be served
+   */
+  boolean DEFAULT_SERVE_PRECOMPRESSED_FILES = false;
+
+  /**
+   * Default of whether the resources of the pages should be learned to push or preload them
+   */
+  boolean DEFAULT_LEARN_PUSH_HINTS = false;
+
+  /**
+   * Default max size, in bytes, of the learned resources pushed on a connection
+   */
+  long DEFAULT_MAX_PUSHED_BYTES_PER_CONNECTION = 1024 * 1024; // 1MB
+
+  /**
+   * Default of whether the web root should be watched for changes
+   */
+  boolean DEFAULT_WATCH_WEB_ROOT = false;
+
+  /**
+   * Default of whether strong entity tags should be computed from the file contents
+   */
+  boolean DEFAULT_CONTENT_ETAGS = false;
+
+  /**
+   * Default max size, in bytes, of the file contents kept in memory, {@code 0} means that contents are not cached
+   */
+  long DEFAULT_MAX_CONTENT_CACHE_SIZE = 0;
+
+  /**
+   * Default max size, in bytes, of a file whose content can be kept in memory
+   */
+  long DEFAULT_MAX_CONTENT_CACHE_FILE_SIZE = 65536; // 64KB
+
   /**
    * Default of whether async filesystem access should always be used
    */
@@ -189,6 +229,17 @@ public interface StaticHandler extends Handler<RoutingContext> {
   @Fluent
   StaticHandler setDirectoryListing(boolean directoryListing);
 
+  /**
+   * Set the max number of entries of a directory listing response. A listing is paginated with the {@code offset} and
+   * {@code limit} query parameters, the {@code limit} cannot exceed the page size. When more entries follow, the
+   * response carries a {@code Link} header with the {@code next} relation to the next page.
+   *
+   * @param directoryListingPageSize the max number of entries, {@code 0} for no limit
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setDirectoryListingPageSize(int directoryListingPageSize);
+
   /**
    * Set whether hidden files should be served
    *
@@ -207,6 +258,22 @@ public interface StaticHandler extends Handler<RoutingContext> {
   @Fluent
   StaticHandler setCacheEntryTimeout(long timeout);
 
+  /**
+   * Set whether the web root should be watched for changes when caching is enabled. The web root directory tree is
+   * then registered with a {@link java.nio.file.WatchService}, the cache entries of the changed files are invalidated
+   * as soon as the change is reported and the other entries never expire, so the file system is almost never
+   * accessed to check the file properties.
+   * <p>
+   * This is meant for files that are not {@link #setFilesReadOnly(boolean) read-only}. When the web root is not a
+   * directory of the file system, e.g. it is only on the classpath, or cannot be watched, the cache entries expire
+   * after the {@link #setCacheEntryTimeout(long) cache entry timeout} as usual.
+   *
+   * @param watchWebRoot true to watch the web root
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setWatchWebRoot(boolean watchWebRoot);
+
   /**
    * Set the index page
    *
@@ -234,6 +301,30 @@ public interface StaticHandler extends Handler<RoutingContext> {
   @Fluent
   StaticHandler setHttp2PushMapping(List<Http2PushMapping> http2PushMappings);
 
+  /**
+   * Set whether the resources of the HTML pages should be learned rather than configured with
+   * {@link #setHttp2PushMapping(List)}. The handler observes the resources requested with the {@code Referer} of a
+   * page it served, and once a resource is requested with at least half of the page views, the page is sent with a
+   * push of the resource on HTTP/2, or a {@code Link: rel=preload} header otherwise.
+   * <p>
+   * The memory used is bounded, only the most recently served pages and their most requested resources are tracked.
+   *
+   * @param learnPushHints true to learn the resources to push or preload
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setLearnPushHints(boolean learnPushHints);
+
+  /**
+   * Set the max size, in bytes, of the learned resources pushed on a HTTP/2 connection. The resources that would
+   * exceed it are hinted with a {@code Link: rel=preload} header instead, as the client may already have them cached.
+   *
+   * @param maxPushedBytesPerConnection the max size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setMaxPushedBytesPerConnection(long maxPushedBytesPerConnection);
+
   /**
    * Skip compression if the media type of the file to send is in the provided {@code mediaTypes} set.
    * {@code Content-Encoding} header set to {@code identity} for the types present in the {@code mediaTypes} set
@@ -254,6 +345,58 @@ public interface StaticHandler extends Handler<RoutingContext> {
   @Fluent
   StaticHandler skipCompressionForSuffixes(Set<String> fileSuffixes);
 
+  /**
+   * Set whether precompressed files should be served. When enabled, a request for {@code file.js} accepting the
+   * {@code br} or {@code gzip} encodings is answered with {@code file.js.br} or {@code file.js.gz} respectively, when
+   * such file exists next to the original, with the matching {@code Content-Encoding} header. The encoding preferred by
+   * the client is chosen, {@code br} is preferred over {@code gzip} when they are equally accepted.
+   * <p>
+   * The responses then carry a {@code Vary: accept-encoding} header. The lookups of the precompressed files are cached
+   * like the lookups of the requested files.
+   *
+   * @param servePrecompressedFiles true to serve the precompressed files
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setServePrecompressedFiles(boolean servePrecompressedFiles);
+
+  /**
+   * Set whether strong entity tags should be computed from the file contents. The responses then carry an
+   * {@code ETag} header and conditional requests with an {@code If-None-Match} header are answered with
+   * {@code 304 Not Modified} when the content is unchanged, even when the file was redeployed with a new last modified
+   * time.
+   * <p>
+   * The content digest is computed once on a worker thread and kept with the file properties in the cache, so caching
+   * must be enabled. It is computed again only when the file size or last modified time changes.
+   *
+   * @param contentETags true to send content entity tags
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setContentETags(boolean contentETags);
+
+  /**
+   * Set the max size, in bytes, of the file contents kept in memory. Small files that are frequently requested are
+   * then sent from memory rather than read from the file system on each request, which matters most when the
+   * connection is encrypted and the file cannot be sent with zero-copy. The least recently used contents are evicted
+   * first, a content is discarded as soon as the file size or last modified time changes.
+   *
+   * @param maxContentCacheSize the max size in bytes, {@code 0} to disable the content cache
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setMaxContentCacheSize(long maxContentCacheSize);
+
+  /**
+   * Set the max size, in bytes, of a file whose content can be kept in memory, larger files are always sent from the
+   * file system.
+   *
+   * @param maxContentCacheFileSize the max file size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  StaticHandler setMaxContentCacheFileSize(long maxContentCacheFileSize);
+
   /**
    * Set whether async filesystem access should always be used
    *
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes access log lines to a file from a dedicated daemon thread.
+ * <p>
+ * The lines are handed over through a bounded lock-free ring buffer, so the event loop never blocks on the disk. The
+ * writer thread drains the ring in batches to a {@link FileChannel}, the file is rotated when it would exceed the
+ * rotation size. When the ring is full the lines are dropped and counted, the count is periodically reported.
+ */
+final class AccessLogWriter implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AccessLogWriter.class);
+
+  private static final int BATCH_SIZE = 64 * 1024;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long DROPPED_REPORT_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+  // set on the tail once the writer stops, no slot can be claimed anymore
+  private static final long SEALED = Long.MIN_VALUE;
+
+  private final Path file;
+  private final long rotationSize;
+  private final AtomicReferenceArray<byte[]> slots;
+  private final int mask;
+  // next slot claimed by the producers
+  private final AtomicLong tail = new AtomicLong();
+  // next slot read by the writer thread, only written by that thread
+  private volatile long head;
+  private final LongAdder dropped = new LongAdder();
+  private final Thread thread;
+  private volatile boolean closed;
+
+  // only used by the writer thread
+  private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE);
+  private FileChannel channel;
+  private long size;
+  private long reportedDropped;
+  private long lastReport;
+
+  AccessLogWriter(String file, int capacity, long rotationSize) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    if (rotationSize <= 0) {
+      throw new IllegalArgumentException("rotationSize must be > 0");
+    }
+    this.file = Paths.get(file).toAbsolutePath();
+    this.rotationSize = rotationSize;
+    // a power of two, so the slot index is a mask of the sequence
+    final int slotCount = Integer.highestOneBit(Math.min(capacity, 1 << 30) * 2 - 1);
+    this.slots = new AtomicReferenceArray<>(slotCount);
+    this.mask = slotCount - 1;
+    this.thread = new Thread(this, "vert.x-web-access-log-writer");
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  /**
+   * Hand a line over to the writer thread, this never blocks.
+   *
+   * @param line the encoded line, including the line separator
+   * @return {@code false} when the line was dropped because the writer cannot keep up or is closed
+   */
+  boolean offer(byte[] line) {
+    if (closed) {
+      dropped.increment();
+      return false;
+    }
+    long t;
+    do {
+      t = tail.get();
+      if ((t & SEALED) != 0) {
+        // closed since the check above
+        dropped.increment();
+        return false;
+      }
+      if (t - head > mask) {
+        dropped.increment();
+        return false;
+      }
+    } while (!tail.compareAndSet(t, t + 1));
+    slots.lazySet((int) t & mask, line);
+    return true;
+  }
+
+  /**
+   * @return the number of lines dropped so far
+   */
+  long droppedLines() {
+    return dropped.sum();
+  }
+
+  /**
+   * Stop the writer once the pending lines are written.
+   */
+  void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+  }
+
+  @Override
+  public void run() {
+    try {
+      channel = open();
+      size = channel.size();
+      while (!closed) {
+        if (drain() == 0) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        reportDropped();
+      }
+      // the lines claimed before the tail is sealed are written, the later ones are dropped by the producers
+      final long last = seal();
+      while (head != last) {
+        if (drain() == 0) {
+          // a producer claimed a slot but didn't fill it yet
+          Thread.yield();
+        }
+      }
+      reportDropped();
+    } catch (IOException e) {
+      closed = true;
+      // the lines claimed but not written are dropped too
+      dropped.add(seal() - head);
+      LOG.error("Cannot write the access log " + file + ", the next lines are dropped", e);
+    } finally {
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          LOG.warn("Cannot close the access log " + file, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the tail before it was sealed
+   */
+  private long seal() {
+    return tail.getAndUpdate(t -> t | SEALED) & ~SEALED;
+  }
+
+  private int drain() throws IOException {
+    int count = 0;
+    long h = head;
+    byte[] line;
+    while ((line = slots.get((int) h & mask)) != null) {
+      // release the slot before making it available to the producers
+      slots.lazySet((int) h & mask, null);
+      head = ++h;
+      append(line);
+      count++;
+    }
+    flush();
+    return count;
+  }
+
+  private void append(byte[] line) throws IOException {
+    if (line.length > batch.remaining()) {
+      flush();
+      if (line.length > batch.capacity()) {
+        write(ByteBuffer.wrap(line));
+        return;
+      }
+    }
+    batch.put(line);
+  }
+
+  private void flush() throws IOException {
+    if (batch.position() > 0) {
+      batch.flip();
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(ByteBuffer buffer) throws IOException {
+    // the batches only contain whole lines, so a line is never split across files
+    if (size > 0 && size + buffer.remaining() > rotationSize) {
+      rotate();
+    }
+    while (buffer.hasRemaining()) {
+      size += channel.write(buffer);
+    }
+  }
+
+  private void rotate() throws IOException {
+    channel.close();
+    final String prefix = file.getFileName() + "." + System.currentTimeMillis();
+    Path rotated = file.resolveSibling(prefix);
+    for (int i = 1; Files.exists(rotated); i++) {
+      // rotated more than once in the same millisecond
+      rotated = file.resolveSibling(prefix + "-" + i);
+    }
+    Files.move(file, rotated);
+    channel = open();
+    size = 0;
+  }
+
+  private FileChannel open() throws IOException {
+    final Path parent = file.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private void reportDropped() {
+    final long total = dropped.sum();
+    if (total != reportedDropped) {
+      final long now = System.currentTimeMillis();
+      if (now - lastReport >= DROPPED_REPORT_INTERVAL) {
+        LOG.warn((total - reportedDropped) + " access log lines dropped, the writer of " + file + " cannot keep up");
+        reportedDropped = total;
+        lastReport = now;
+      }
+    }
+  }
+}
@@ -21,17 +21,30 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.http.HttpHeaderValues;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerFileUpload;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
+import io.vertx.core.parsetools.JsonEventType;
+import io.vertx.core.parsetools.JsonParser;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.web.FileUpload;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
@@ -51,6 +64,12 @@ public class BodyHandlerImpl implements BodyHandler {
   private boolean mergeFormAttributes = DEFAULT_MERGE_FORM_ATTRIBUTES;
   private boolean deleteUploadedFilesOnEnd = DEFAULT_DELETE_UPLOADED_FILES_ON_END;
   private boolean isPreallocateBodyBuffer = DEFAULT_PREALLOCATE_BODY_BUFFER;
+  private boolean incrementalJsonParsing = DEFAULT_INCREMENTAL_JSON_PARSING;
+  private boolean compositeBodyBuffer = DEFAULT_COMPOSITE_BODY_BUFFER;
+  private long memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+  private Function<HttpServerFileUpload, Future<WriteStream<Buffer>>> uploadStreamFactory;
+  // the creation of the uploads directory, done once
+  private volatile Future<Void> uploadsDirReady;
   private static final int DEFAULT_INITIAL_BODY_BUFFER_SIZE = 1024; //bytes
 
 
@@ -80,7 +99,7 @@ public class BodyHandlerImpl implements BodyHandler {
     }
     // we need to keep state since we can be called again on reroute
     if (!((RoutingContextInternal) context).seenHandler(RoutingContextInternal.BODY_HANDLER)) {
-      long contentLength = isPreallocateBodyBuffer ? parseContentLengthHeader(request) : -1;
+      long contentLength = isPreallocateBodyBuffer || compositeBodyBuffer ? parseContentLengthHeader(request) : -1;
       BHandler handler = new BHandler(context, contentLength);
       request.handler(handler);
       request.endHandler(v -> handler.end());
@@ -110,6 +129,7 @@ public class BodyHandlerImpl implements BodyHandler {
   @Override
   public BodyHandler setUploadsDirectory(String uploadsDirectory) {
     this.uploadsDir = uploadsDirectory;
+    this.uploadsDirReady = null;
     return this;
   }
 
@@ -131,6 +151,67 @@ public class BodyHandlerImpl implements BodyHandler {
     return this;
   }
 
+  @Override
+  public BodyHandler setIncrementalJsonParsing(boolean incrementalJsonParsing) {
+    this.incrementalJsonParsing = incrementalJsonParsing;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setCompositeBodyBuffer(boolean compositeBodyBuffer) {
+    this.compositeBodyBuffer = compositeBodyBuffer;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setMemoryThreshold(long memoryThreshold) {
+    this.memoryThreshold = memoryThreshold;
+    return this;
+  }
+
+  @Override
+  public BodyHandler setUploadStreamFactory(Function<HttpServerFileUpload, Future<WriteStream<Buffer>>> uploadStreamFactory) {
+    this.uploadStreamFactory = uploadStreamFactory;
+    return this;
+  }
+
+  /**
+   * Create the uploads directory if needed. The directory is only created once, the result is cached until it fails
+   * or the directory changes. The returned future is completed on the context of the caller.
+   */
+  Future<Void> uploadsDirectory(Vertx vertx) {
+    Future<Void> fut = uploadsDirReady;
+    if (fut == null || fut.failed()) {
+      synchronized (this) {
+        fut = uploadsDirReady;
+        if (fut == null || fut.failed()) {
+          // mkdirs succeeds when the directory already exists
+          fut = vertx.fileSystem().mkdirs(uploadsDir);
+          uploadsDirReady = fut;
+        }
+      }
+    }
+    if (fut.succeeded()) {
+      return Future.succeededFuture();
+    }
+    final Context ctx = Vertx.currentContext();
+    final Promise<Void> promise = Promise.promise();
+    fut.onComplete(ar -> {
+      if (ctx == null || Vertx.currentContext() == ctx) {
+        promise.handle(ar);
+      } else {
+        ctx.runOnContext(v -> promise.handle(ar));
+      }
+    });
+    return promise.future();
+  }
+
+  private static boolean isJson(String lowerCaseContentType) {
+    int idx = lowerCaseContentType.indexOf(';');
+    String mime = (idx == -1 ? lowerCaseContentType : lowerCaseContentType.substring(0, idx)).trim();
+    return "application/json".equals(mime) || mime.endsWith("+json");
+  }
+
   private long parseContentLengthHeader(HttpServerRequest request) {
     String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
     if (contentLength == null || contentLength.isEmpty()) {
@@ -150,6 +231,8 @@ public class BodyHandlerImpl implements BodyHandler {
     final RoutingContext context;
     final long contentLength;
     Buffer body;
+    // the received chunks, when they are not copied to the body buffer
+    CompositeByteBuf compositeBody;
     boolean failed;
     AtomicInteger uploadCount = new AtomicInteger();
     AtomicBoolean cleanup = new AtomicBoolean(false);
@@ -157,16 +240,17 @@ public class BodyHandlerImpl implements BodyHandler {
     long uploadSize = 0L;
     final boolean isMultipart;
     final boolean isUrlEncoded;
+    // when parsing incrementally the body is never buffered
+    JsonParser jsonParser;
+    boolean hasJsonValue;
+    Object jsonValue;
+    // when the body exceeds the memory threshold it is written to this file
+    BodyFileUpload bodyUpload;
+    AsyncFile bodyFile;
 
     public BHandler(RoutingContext context, long contentLength) {
       this.context = context;
       this.contentLength = contentLength;
-      // the request clearly states that there should
-      // be a body, so we respect the client and ensure
-      // that the body will not be null
-      if (contentLength != -1) {
-        initBodyBuffer();
-      }
 
       Set<FileUpload> fileUploads = context.fileUploads();
 
@@ -178,13 +262,21 @@ public class BodyHandlerImpl implements BodyHandler {
         final String lowerCaseContentType = contentType.toLowerCase();
         isMultipart = lowerCaseContentType.startsWith(HttpHeaderValues.MULTIPART_FORM_DATA.toString());
         isUrlEncoded = lowerCaseContentType.startsWith(HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.toString());
+        if (incrementalJsonParsing && isJson(lowerCaseContentType)) {
+          initJsonParser();
+        }
+      }
+
+      // the request clearly states that there should
+      // be a body, so we respect the client and ensure
+      // that the body will not be null, unless it's parsed
+      // incrementally and never buffered
+      if (contentLength != -1 && jsonParser == null) {
+        initBodyBuffer();
       }
 
       if (isMultipart || isUrlEncoded) {
         context.request().setExpectMultipart(true);
-        if (handleFileUploads) {
-          makeUploadDir(context.vertx().fileSystem());
-        }
         context.request().uploadHandler(upload -> {
           if (bodyLimit != -1 && upload.isSizeAvailable()) {
             // we can try to abort even before the upload starts
@@ -197,18 +289,47 @@ public class BodyHandlerImpl implements BodyHandler {
             }
           }
           if (handleFileUploads) {
-            // we actually upload to a file with a generated filename
             uploadCount.incrementAndGet();
-            String uploadedFileName = new File(uploadsDir, UUID.randomUUID().toString()).getPath();
-            FileUploadImpl fileUpload = new FileUploadImpl(uploadedFileName, upload);
-            fileUploads.add(fileUpload);
-            Future<Void> fut = upload.streamToFileSystem(uploadedFileName);
+            final Future<Void> fut;
+            if (uploadStreamFactory != null) {
+              // the upload is written to the stream of the application
+              WriteStreamFileUpload fileUpload = new WriteStreamFileUpload(upload);
+              fileUploads.add(fileUpload);
+              fut = fileUpload.stream(uploadStreamFactory);
+            } else if (memoryThreshold != -1) {
+              // small uploads are kept in memory, larger ones are written to a file once they exceed the threshold
+              MemoryThresholdFileUpload fileUpload =
+                new MemoryThresholdFileUpload(upload, context.vertx().fileSystem(), uploadsDir, memoryThreshold,
+                  () -> uploadsDirectory(context.vertx()));
+              fileUploads.add(fileUpload);
+              fut = fileUpload.stream();
+            } else {
+              // we actually upload to a file with a generated filename
+              String uploadedFileName = new File(uploadsDir, UUID.randomUUID().toString()).getPath();
+              // the upload waits for the uploads directory
+              upload.pause();
+              fut = uploadsDirectory(context.vertx()).compose(v -> {
+                if (cleanup.get()) {
+                  // the request failed meanwhile
+                  discard(upload);
+                  return Future.failedFuture(new VertxException("Upload cancelled", true));
+                }
+                fileUploads.add(new FileUploadImpl(uploadedFileName, upload));
+                return upload.streamToFileSystem(uploadedFileName);
+              }, err -> {
+                discard(upload);
+                return Future.failedFuture(err);
+              });
+            }
             fut.onComplete(ar -> {
               if (fut.succeeded()) {
                 uploadEnded();
               } else {
                 cancelAndCleanupFileUploads();
-                context.fail(ar.cause());
+                if (!failed) {
+                  failed = true;
+                  context.fail(ar.cause());
+                }
               }
             });
           }
@@ -226,7 +347,40 @@ public class BodyHandlerImpl implements BodyHandler {
       });
     }
 
+    private void initJsonParser() {
+      // objects and arrays are emitted as a single value once they are complete
+      jsonParser = JsonParser.newParser()
+        .objectValueMode()
+        .arrayValueMode();
+
+      jsonParser.handler(event -> {
+        if (failed || event.type() != JsonEventType.VALUE) {
+          return;
+        }
+        if (hasJsonValue) {
+          failed = true;
+          context.fail(400, new IllegalStateException("Unexpected content after the JSON value"));
+          return;
+        }
+        hasJsonValue = true;
+        jsonValue = event.value();
+      });
+
+      jsonParser.exceptionHandler(t -> {
+        if (!failed) {
+          failed = true;
+          context.fail(400, t);
+        }
+      });
+    }
+
     private void initBodyBuffer() {
+      if (compositeBodyBuffer) {
+        // the components are only referenced, there is nothing to preallocate and consolidating
+        // a bounded number of components would copy the whole body again
+        compositeBody = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        return;
+      }
       int initialBodyBufferSize;
       if (contentLength < 0) {
         initialBodyBufferSize = DEFAULT_INITIAL_BODY_BUFFER_SIZE;
@@ -243,12 +397,6 @@ public class BodyHandlerImpl implements BodyHandler {
       this.body = Buffer.buffer(initialBodyBufferSize);
     }
 
-    private void makeUploadDir(FileSystem fileSystem) {
-      if (!fileSystem.existsBlocking(uploadsDir)) {
-        fileSystem.mkdirsBlocking(uploadsDir);
-      }
-    }
-
     @Override
     public void handle(Buffer buff) {
       if (failed) {
@@ -263,15 +411,81 @@ public class BodyHandlerImpl implements BodyHandler {
         // multipart requests will not end up in the request body
         // url encoded should also not, however jQuery by default
         // post in urlencoded even if the payload is something else
-        if (!isMultipart /* && !isUrlEncoded */) {
-          if (body == null) {
+        if (jsonParser != null) {
+          jsonParser.handle(buff);
+        } else if (bodyFile != null) {
+          writeBodyFile(buff);
+        } else if (!isMultipart /* && !isUrlEncoded */) {
+          if (body == null && compositeBody == null) {
             initBodyBuffer();
           }
-          body.appendBuffer(buff);
+          if (compositeBody != null) {
+            compositeBody.addComponent(true, buff.getByteBuf());
+          } else {
+            body.appendBuffer(buff);
+          }
+          if (memoryThreshold != -1 && handleFileUploads && bodyUpload == null && uploadSize > memoryThreshold) {
+            spillBody();
+          }
         }
       }
     }
 
+    private void discard(HttpServerFileUpload upload) {
+      upload.handler(null);
+      upload.resume();
+    }
+
+    private void spillBody() {
+      HttpServerRequest request = context.request();
+      FileSystem fileSystem = context.vertx().fileSystem();
+      // the chunks received while the file is opened are still buffered
+      request.pause();
+      String uploadedFileName = new File(uploadsDir, UUID.randomUUID().toString()).getPath();
+      bodyUpload = new BodyFileUpload(uploadedFileName, request.getHeader(HttpHeaders.CONTENT_TYPE));
+      context.fileUploads().add(bodyUpload);
+      uploadsDirectory(context.vertx())
+        .compose(v -> fileSystem.open(uploadedFileName, new OpenOptions()))
+        .onComplete(ar -> {
+          if (ar.failed()) {
+            if (!failed) {
+              failed = true;
+              cancelAndCleanupFileUploads();
+              context.fail(ar.cause());
+            }
+            request.resume();
+            return;
+          }
+          if (failed) {
+            // the request failed meanwhile, the cleanup may have run before the file was created
+            ar.result().close(close -> fileSystem.delete(uploadedFileName, delete -> {}));
+            request.resume();
+            return;
+          }
+          bodyFile = ar.result();
+          Buffer pending = compositeBody != null ? Buffer.buffer(compositeBody) : body;
+          // release body as it may take lots of memory
+          body = null;
+          compositeBody = null;
+          // the buffered chunks are written before the next ones are received
+          bodyFile.write(pending);
+          if (bodyFile.writeQueueFull()) {
+            bodyFile.drainHandler(v -> request.resume());
+          } else {
+            request.resume();
+          }
+        });
+    }
+
+    private void writeBodyFile(Buffer buff) {
+      bodyFile.write(buff);
+      if (bodyFile.writeQueueFull()) {
+        HttpServerRequest request = context.request();
+        request.pause();
+        bodyFile.drainHandler(v -> request.resume());
+      }
+    }
+
     void uploadEnded() {
       int count = uploadCount.decrementAndGet();
       // only if parsing is done and count is 0 then all files have been processed
@@ -293,11 +507,36 @@ public class BodyHandlerImpl implements BodyHandler {
 
     void doEnd() {
 
+      if (jsonParser != null && !failed) {
+        jsonParser.end();
+      }
+
       if (failed) {
+        if (bodyFile != null) {
+          bodyFile.close();
+          bodyFile = null;
+        }
         cancelAndCleanupFileUploads();
         return;
       }
 
+      if (bodyFile != null) {
+        // wait until the body is fully written to the file
+        AsyncFile file = bodyFile;
+        bodyFile = null;
+        file.close(ar -> {
+          if (ar.failed()) {
+            failed = true;
+          }
+          bodyUpload.size = uploadSize;
+          doEnd();
+          if (ar.failed()) {
+            context.fail(ar.cause());
+          }
+        });
+        return;
+      }
+
       if (deleteUploadedFilesOnEnd) {
         context.addBodyEndHandler(x -> cancelAndCleanupFileUploads());
       }
@@ -306,7 +545,21 @@ public class BodyHandlerImpl implements BodyHandler {
       if (mergeFormAttributes && req.isExpectMultipart()) {
         req.params().addAll(req.formAttributes());
       }
-      context.setBody(body);
+      if (hasJsonValue) {
+        ((RoutingContextInternal) context).setBodyAsJsonValue(jsonValue, uploadSize);
+        jsonValue = null;
+      } else if (jsonParser != null) {
+        // an empty body, nothing was parsed
+        context.setBody(Buffer.buffer());
+      } else if (bodyUpload != null) {
+        // the body is only available from the file upload
+        context.setBody(null);
+      } else if (compositeBody != null) {
+        context.setBody(Buffer.buffer(compositeBody));
+        compositeBody = null;
+      } else {
+        context.setBody(body);
+      }
       // release body as it may take lots of memory
       body = null;
 
@@ -322,6 +575,10 @@ public class BodyHandlerImpl implements BodyHandler {
           FileSystem fileSystem = context.vertx().fileSystem();
           if (!fileUpload.cancel()) {
             String uploadedFileName = fileUpload.uploadedFileName();
+            if (uploadedFileName == null) {
+              // kept in memory
+              continue;
+            }
             fileSystem.delete(uploadedFileName, deleteResult -> {
               if (deleteResult.failed()) {
                 LOG.warn("Delete of uploaded file failed: " + uploadedFileName, deleteResult.cause());
@@ -333,4 +590,76 @@ public class BodyHandlerImpl implements BodyHandler {
     }
   }
 
+  /**
+   * A request body written to a file because it exceeded the memory threshold.
+   */
+  private static class BodyFileUpload implements FileUpload {
+
+    private final String uploadedFileName;
+    private final String contentType;
+    long size;
+
+    BodyFileUpload(String uploadedFileName, String contentType) {
+      this.uploadedFileName = uploadedFileName;
+      this.contentType = contentType;
+    }
+
+    @Override
+    public String name() {
+      return "";
+    }
+
+    @Override
+    public String uploadedFileName() {
+      return uploadedFileName;
+    }
+
+    @Override
+    public Buffer content() {
+      return null;
+    }
+
+    @Override
+    public String fileName() {
+      return "";
+    }
+
+    @Override
+    public long size() {
+      return size;
+    }
+
+    @Override
+    public String contentType() {
+      if (contentType == null) {
+        return "application/octet-stream";
+      }
+      int idx = contentType.indexOf(';');
+      return (idx == -1 ? contentType : contentType.substring(0, idx)).trim();
+    }
+
+    @Override
+    public String contentTransferEncoding() {
+      return "binary";
+    }
+
+    @Override
+    public String charSet() {
+      if (contentType != null) {
+        for (String param : contentType.split(";")) {
+          param = param.trim();
+          if (param.regionMatches(true, 0, "charset=", 0, 8)) {
+            return param.substring(8).replace("\"", "");
+          }
+        }
+      }
+      return "UTF-8";
+    }
+
+    @Override
+    public boolean cancel() {
+      // the file is written by the body handler, there is no upload in progress to cancel
+      return false;
+    }
+  }
 }
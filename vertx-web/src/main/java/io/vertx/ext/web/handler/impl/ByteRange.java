@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A byte range of a {@code Range} request header, as defined by RFC 7233.
+ */
+final class ByteRange {
+
+  // more ranges than this are not worth a multipart response, the whole representation is sent instead
+  private static final int MAX_RANGES = 64;
+
+  final long start;
+  // inclusive
+  final long end;
+
+  ByteRange(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  long length() {
+    return end + 1 - start;
+  }
+
+  /**
+   * Parse the value of a {@code Range} header.
+   *
+   * @param header the header value
+   * @param size   the size of the representation
+   * @return the satisfiable ranges, an empty list when none is satisfiable, or {@code null} when the header must be
+   *         ignored because it is invalid or not worth honoring
+   */
+  static List<ByteRange> parse(String header, long size) {
+    if (!header.regionMatches(true, 0, "bytes=", 0, 6)) {
+      return null;
+    }
+    final String[] specs = header.substring(6).split(",");
+    if (specs.length > MAX_RANGES * 4) {
+      // don't spend time on the coalescing of abusive headers
+      return null;
+    }
+    final List<ByteRange> ranges = new ArrayList<>();
+    boolean specified = false;
+    boolean overlapping = false;
+    for (String spec : specs) {
+      spec = spec.trim();
+      if (spec.isEmpty()) {
+        // empty list elements are allowed
+        continue;
+      }
+      specified = true;
+      final int dash = spec.indexOf('-');
+      if (dash == -1) {
+        return null;
+      }
+      final long first;
+      final long last;
+      try {
+        first = parseNumber(spec.substring(0, dash).trim());
+        last = parseNumber(spec.substring(dash + 1).trim());
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      final ByteRange range;
+      if (first == -1) {
+        // suffix range, the last bytes of the representation
+        if (last == -1) {
+          return null;
+        }
+        if (last == 0 || size == 0) {
+          continue;
+        }
+        range = new ByteRange(Math.max(0, size - last), size - 1);
+      } else {
+        if (last != -1 && last < first) {
+          return null;
+        }
+        if (first >= size) {
+          continue;
+        }
+        range = new ByteRange(first, last == -1 ? size - 1 : Math.min(last, size - 1));
+      }
+      for (ByteRange other : ranges) {
+        overlapping |= range.start <= other.end + 1 && other.start <= range.end + 1;
+      }
+      ranges.add(range);
+    }
+    if (!specified) {
+      return null;
+    }
+    if (ranges.isEmpty()) {
+      return ranges;
+    }
+    final List<ByteRange> result = overlapping ? coalesce(ranges) : ranges;
+    return result.size() > MAX_RANGES ? null : result;
+  }
+
+  /**
+   * Merge the overlapping and adjacent ranges, this is allowed as it doesn't change the bytes received by the client.
+   */
+  private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+    ranges.sort(Comparator.comparingLong(range -> range.start));
+    final List<ByteRange> coalesced = new ArrayList<>(ranges.size());
+    ByteRange current = ranges.get(0);
+    for (int i = 1; i < ranges.size(); i++) {
+      final ByteRange next = ranges.get(i);
+      if (next.start <= current.end + 1) {
+        current = new ByteRange(current.start, Math.max(current.end, next.end));
+      } else {
+        coalesced.add(current);
+        current = next;
+      }
+    }
+    coalesced.add(current);
+    return coalesced;
+  }
+
+  /**
+   * @return the number, {@code -1} when empty
+   * @throws NumberFormatException when not a non negative number
+   */
+  private static long parseNumber(String value) {
+    if (value.isEmpty()) {
+      return -1;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new NumberFormatException(value);
+      }
+    }
+    return Long.parseLong(value);
+  }
+}
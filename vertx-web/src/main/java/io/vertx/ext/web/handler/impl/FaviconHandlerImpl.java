@@ -26,6 +26,7 @@ import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.ext.web.handler.FaviconHandler;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.impl.HttpDate;
 
 import static io.vertx.core.http.HttpHeaders.*;
 
@@ -195,7 +196,9 @@ public class FaviconHandlerImpl implements FaviconHandler {
       if (icon == NULL_ICON) {
         resp.setStatusCode(404).end();
       } else {
-        resp.headers().addAll(icon.headers);
+        resp.headers()
+          .addAll(icon.headers)
+          .set(DATE, HttpDate.now());
         resp.end(icon.body);
       }
     } else {
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A reusable UTF-8 byte buffer the log lines are rendered to, without intermediate strings. Instances are not thread
+ * safe, use {@link #get()} to obtain the buffer of the current thread.
+ */
+final class LogLineBuffer {
+
+  private static final int INITIAL_SIZE = 256;
+  // buffers grown past this size by a huge line are not kept
+  private static final int MAX_RETAINED_SIZE = 8192;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static final ThreadLocal<LogLineBuffer> BUFFERS = ThreadLocal.withInitial(LogLineBuffer::new);
+
+  private byte[] bytes = new byte[INITIAL_SIZE];
+  private int length;
+
+  /**
+   * @return the empty buffer of the current thread
+   */
+  static LogLineBuffer get() {
+    return BUFFERS.get().reset();
+  }
+
+  LogLineBuffer reset() {
+    if (bytes.length > MAX_RETAINED_SIZE) {
+      bytes = new byte[INITIAL_SIZE];
+    }
+    length = 0;
+    return this;
+  }
+
+  int length() {
+    return length;
+  }
+
+  LogLineBuffer append(char c) {
+    if (c < 0x80) {
+      ensure(1);
+      bytes[length++] = (byte) c;
+      return this;
+    }
+    return appendUtf8(String.valueOf(c));
+  }
+
+  LogLineBuffer append(CharSequence s) {
+    final int len = s.length();
+    ensure(len);
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x80) {
+        // rare, encode the rest of the sequence at once to keep the surrogate pairs together
+        return appendUtf8(s.subSequence(i, len).toString());
+      }
+      bytes[length++] = (byte) c;
+    }
+    return this;
+  }
+
+  LogLineBuffer append(long value) {
+    if (value == Long.MIN_VALUE) {
+      return append(Long.toString(value));
+    }
+    if (value < 0) {
+      append('-');
+      value = -value;
+    }
+    // at most 19 digits
+    ensure(19);
+    final int start = length;
+    do {
+      bytes[length++] = (byte) ('0' + (value % 10));
+      value /= 10;
+    } while (value != 0);
+    // the digits were written in reverse order
+    for (int i = start, j = length - 1; i < j; i++, j--) {
+      byte tmp = bytes[i];
+      bytes[i] = bytes[j];
+      bytes[j] = tmp;
+    }
+    return this;
+  }
+
+  /**
+   * Append a quoted JSON string, {@code null} is appended as the JSON null literal.
+   */
+  LogLineBuffer appendJsonString(CharSequence s) {
+    if (s == null) {
+      return append("null");
+    }
+    append('"');
+    final int len = s.length();
+    ensure(len);
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          append("\\\"");
+          break;
+        case '\\':
+          append("\\\\");
+          break;
+        case '\n':
+          append("\\n");
+          break;
+        case '\r':
+          append("\\r");
+          break;
+        case '\t':
+          append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+          } else if (c < 0x80) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+          } else {
+            // keep the surrogate pairs together
+            int end = i + 1;
+            if (Character.isHighSurrogate(c) && end < len && Character.isLowSurrogate(s.charAt(end))) {
+              end++;
+            }
+            appendUtf8(s.subSequence(i, end).toString());
+            i = end - 1;
+          }
+      }
+    }
+    return append('"');
+  }
+
+  LogLineBuffer writeByte(int value) {
+    ensure(1);
+    bytes[length++] = (byte) value;
+    return this;
+  }
+
+  LogLineBuffer writeInt(int value) {
+    ensure(4);
+    setInt(length, value);
+    length += 4;
+    return this;
+  }
+
+  LogLineBuffer writeLong(long value) {
+    return writeInt((int) (value >>> 32)).writeInt((int) value);
+  }
+
+  /**
+   * Write a string as its length on 32 bits, {@code -1} for {@code null}, followed by its UTF-8 bytes.
+   */
+  LogLineBuffer writeString(CharSequence s) {
+    if (s == null) {
+      return writeInt(-1);
+    }
+    final int pos = length;
+    writeInt(0);
+    append(s);
+    setInt(pos, length - pos - 4);
+    return this;
+  }
+
+  /**
+   * Overwrite 4 bytes already written, e.g. to set a length prefix.
+   */
+  LogLineBuffer setInt(int pos, int value) {
+    bytes[pos] = (byte) (value >>> 24);
+    bytes[pos + 1] = (byte) (value >>> 16);
+    bytes[pos + 2] = (byte) (value >>> 8);
+    bytes[pos + 3] = (byte) value;
+    return this;
+  }
+
+  LogLineBuffer append(byte[] data) {
+    ensure(data.length);
+    System.arraycopy(data, 0, bytes, length, data.length);
+    length += data.length;
+    return this;
+  }
+
+  /**
+   * @return a copy of the rendered bytes
+   */
+  byte[] toByteArray() {
+    return Arrays.copyOf(bytes, length);
+  }
+
+  @Override
+  public String toString() {
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  private LogLineBuffer appendUtf8(String s) {
+    return append(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void ensure(int extra) {
+    if (length + extra > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+    }
+  }
+}
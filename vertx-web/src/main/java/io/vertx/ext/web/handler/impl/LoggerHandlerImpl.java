@@ -17,18 +17,26 @@
 package io.vertx.ext.web.handler.impl;
 
 import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpVersion;
+import io.vertx.core.impl.VertxInternal;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.auth.User;
+import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.LoggerField;
 import io.vertx.ext.web.handler.LoggerFormat;
 import io.vertx.ext.web.handler.LoggerFormatter;
 import io.vertx.ext.web.handler.LoggerHandler;
+import io.vertx.ext.web.impl.HttpDate;
 import io.vertx.ext.web.impl.Utils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.function.Function;
 
 /** # Logger
@@ -60,6 +68,28 @@ public class LoggerHandlerImpl implements LoggerHandler {
   private Function<HttpServerRequest, String> customFormatter;
   private LoggerFormatter logFormatter;
 
+  /** the access log file writer, when the lines are not written to the Vert.x logger
+   */
+  private volatile AccessLogWriter accessLog;
+  private volatile boolean accessLogStarted;
+
+  /** the fields of the structured formats
+   */
+  private LoggerField[] fields = LoggerField.values();
+
+  // the JSON keys of the fields, indexed by ordinal
+  private static final byte[][] JSON_KEYS = new byte[LoggerField.values().length][];
+
+  static {
+    final String[] keys = {
+      "timestamp", "client", "method", "uri", "version", "route", "path", "status", "bytes", "duration", "user",
+      "userAgent", "referrer"
+    };
+    for (LoggerField field : LoggerField.values()) {
+      JSON_KEYS[field.ordinal()] = ("\"" + keys[field.ordinal()] + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
   public LoggerHandlerImpl(boolean immediate, LoggerFormat format) {
     this.immediate = immediate;
     this.format = format;
@@ -108,6 +138,29 @@ public class LoggerHandlerImpl implements LoggerHandler {
     int status = request.response().getStatusCode();
     String message = null;
 
+    final AccessLogWriter accessLog = this.accessLog;
+    if (format == LoggerFormat.JSON || format == LoggerFormat.BINARY) {
+      final LogLineBuffer line = LogLineBuffer.get();
+      if (format == LoggerFormat.BINARY && accessLog != null) {
+        renderRecord(line, context, timestamp, remoteClient, method, uri, versionFormatted, status, contentLength);
+        accessLog.offer(line.toByteArray());
+      } else {
+        renderJson(line, context, timestamp, remoteClient, method, uri, versionFormatted, status, contentLength);
+        if (accessLog != null) {
+          accessLog.offer(line.append('\n').toByteArray());
+        } else {
+          doLog(status, line.toString());
+        }
+      }
+      return;
+    }
+    if (accessLog != null && format != LoggerFormat.CUSTOM) {
+      final LogLineBuffer line = LogLineBuffer.get();
+      renderLine(line, headers, timestamp, remoteClient, method, uri, versionFormatted, status, contentLength);
+      accessLog.offer(line.append('\n').toByteArray());
+      return;
+    }
+
     switch (format) {
       case DEFAULT:
         // as per RFC1945 the header is referer but it is not mandatory some implementations use referrer
@@ -158,7 +211,179 @@ public class LoggerHandlerImpl implements LoggerHandler {
           message = e.getMessage();
         }
     }
-    doLog(status, message);
+    if (accessLog != null) {
+      accessLog.offer(LogLineBuffer.get().append(String.valueOf(message)).append('\n').toByteArray());
+    } else {
+      doLog(status, message);
+    }
+  }
+
+  /**
+   * Render a line of the access log, with the same layout as the messages of the Vert.x logger.
+   */
+  private void renderLine(LogLineBuffer line, MultiMap headers, long timestamp, String remoteClient, HttpMethod method,
+                          String uri, String versionFormatted, int status, long contentLength) {
+    switch (format) {
+      case DEFAULT:
+        String referrer = headers.contains("referrer") ? headers.get("referrer") : headers.get("referer");
+        String userAgent = headers.get("user-agent");
+        line
+          .append(remoteClient == null ? "-" : remoteClient)
+          .append(" - - [")
+          .append(HttpDate.format(timestamp).array())
+          .append("] \"")
+          .append(method.name())
+          .append(' ')
+          .append(uri)
+          .append(' ')
+          .append(versionFormatted)
+          .append("\" ")
+          .append(status)
+          .append(' ')
+          .append(contentLength)
+          .append(" \"")
+          .append(referrer == null ? "-" : referrer)
+          .append("\" \"")
+          .append(userAgent == null ? "-" : userAgent)
+          .append('"');
+        break;
+      case SHORT:
+        line
+          .append(remoteClient == null ? "-" : remoteClient)
+          .append(" - ")
+          .append(method.name())
+          .append(' ')
+          .append(uri)
+          .append(' ')
+          .append(versionFormatted)
+          .append(' ')
+          .append(status)
+          .append(' ')
+          .append(contentLength)
+          .append(" - ")
+          .append(System.currentTimeMillis() - timestamp)
+          .append(" ms");
+        break;
+      case TINY:
+        line
+          .append(method.name())
+          .append(' ')
+          .append(uri)
+          .append(' ')
+          .append(status)
+          .append(' ')
+          .append(contentLength)
+          .append(" - ")
+          .append(System.currentTimeMillis() - timestamp)
+          .append(" ms");
+        break;
+    }
+  }
+
+  private void renderJson(LogLineBuffer line, RoutingContext context, long timestamp, String remoteClient,
+                          HttpMethod method, String uri, String versionFormatted, int status, long contentLength) {
+    line.append('{');
+    final LoggerField[] fields = this.fields;
+    for (int i = 0; i < fields.length; i++) {
+      final LoggerField field = fields[i];
+      if (i > 0) {
+        line.append(',');
+      }
+      line.append(JSON_KEYS[field.ordinal()]);
+      if (isNumeric(field)) {
+        line.append(numericValue(field, timestamp, status, contentLength));
+      } else {
+        line.appendJsonString(stringValue(field, context, remoteClient, method, uri, versionFormatted));
+      }
+    }
+    line.append('}');
+  }
+
+  private void renderRecord(LogLineBuffer line, RoutingContext context, long timestamp, String remoteClient,
+                            HttpMethod method, String uri, String versionFormatted, int status, long contentLength) {
+    // the length prefix is set once the record is written
+    line.writeInt(0);
+    for (LoggerField field : fields) {
+      line.writeByte(field.ordinal());
+      if (isNumeric(field)) {
+        line.writeLong(numericValue(field, timestamp, status, contentLength));
+      } else {
+        line.writeString(stringValue(field, context, remoteClient, method, uri, versionFormatted));
+      }
+    }
+    line.setInt(0, line.length() - 4);
+  }
+
+  private static boolean isNumeric(LoggerField field) {
+    switch (field) {
+      case TIMESTAMP:
+      case STATUS:
+      case BYTES:
+      case DURATION:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static long numericValue(LoggerField field, long timestamp, int status, long contentLength) {
+    switch (field) {
+      case TIMESTAMP:
+        return timestamp;
+      case STATUS:
+        return status;
+      case BYTES:
+        return contentLength;
+      case DURATION:
+        return System.currentTimeMillis() - timestamp;
+      default:
+        throw new IllegalArgumentException(field.name());
+    }
+  }
+
+  private static String stringValue(LoggerField field, RoutingContext context, String remoteClient, HttpMethod method,
+                                    String uri, String versionFormatted) {
+    switch (field) {
+      case CLIENT_ADDRESS:
+        return remoteClient;
+      case METHOD:
+        return method.name();
+      case URI:
+        return uri;
+      case VERSION:
+        return versionFormatted;
+      case ROUTE_NAME: {
+        final Route route = context.currentRoute();
+        return route == null ? null : route.getName();
+      }
+      case PATH_TEMPLATE: {
+        final Route route = context.currentRoute();
+        if (route == null || route.getPath() == null) {
+          return null;
+        }
+        final String mountPoint = context.mountPoint();
+        return mountPoint == null ? route.getPath() : mountPoint + route.getPath();
+      }
+      case USER_ID: {
+        final User user = context.user();
+        if (user == null) {
+          return null;
+        }
+        Object id = user.principal().getValue("username");
+        if (id == null) {
+          id = user.principal().getValue("sub");
+        }
+        return id == null ? null : id.toString();
+      }
+      case USER_AGENT:
+        return context.request().headers().get("user-agent");
+      case REFERRER: {
+        final MultiMap headers = context.request().headers();
+        return headers.contains("referrer") ? headers.get("referrer") : headers.get("referer");
+      }
+      default:
+        throw new IllegalArgumentException(field.name());
+    }
   }
 
   protected void doLog(int status, String message) {
@@ -180,6 +405,10 @@ public class LoggerHandlerImpl implements LoggerHandler {
     String uri = context.request().uri();
     HttpVersion version = context.request().version();
 
+    if (accessLog != null && !accessLogStarted) {
+      startAccessLog(context.vertx());
+    }
+
     if (immediate) {
       log(context, timestamp, remoteClient, version, method, uri);
     } else {
@@ -190,6 +419,19 @@ public class LoggerHandlerImpl implements LoggerHandler {
 
   }
 
+  private synchronized void startAccessLog(Vertx vertx) {
+    if (accessLogStarted) {
+      return;
+    }
+    final AccessLogWriter writer = accessLog;
+    writer.start();
+    ((VertxInternal) vertx).addCloseHook(completion -> {
+      writer.close();
+      completion.complete();
+    });
+    accessLogStarted = true;
+  }
+
   @Override
   public LoggerHandler customFormatter(Function<HttpServerRequest, String> formatter) {
     if (format != LoggerFormat.CUSTOM) {
@@ -211,4 +453,37 @@ public class LoggerHandlerImpl implements LoggerHandler {
 
     return this;
   }
+
+  @Override
+  public LoggerHandler fields(List<LoggerField> fields) {
+    if (format != LoggerFormat.JSON && format != LoggerFormat.BINARY) {
+      throw new IllegalStateException("Setting the fields requires the handler to be set to JSON or BINARY format");
+    }
+
+    this.fields = fields.toArray(new LoggerField[0]);
+
+    return this;
+  }
+
+  @Override
+  public synchronized LoggerHandler accessLog(String file) {
+    return accessLog(file, DEFAULT_ACCESS_LOG_BUFFER_SIZE, DEFAULT_ACCESS_LOG_ROTATION_SIZE);
+  }
+
+  @Override
+  public synchronized LoggerHandler accessLog(String file, int bufferSize, long rotationSize) {
+    final AccessLogWriter writer = new AccessLogWriter(file, bufferSize, rotationSize);
+    if (accessLog != null) {
+      accessLog.close();
+    }
+    accessLog = writer;
+    accessLogStarted = false;
+    return this;
+  }
+
+  @Override
+  public long droppedLines() {
+    final AccessLogWriter writer = accessLog;
+    return writer == null ? 0 : writer.droppedLines();
+  }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.VertxException;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.streams.Pipe;
+import io.vertx.ext.web.FileUpload;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * A file upload kept in memory until it exceeds a threshold, it is then written to a file in the uploads directory.
+ * <p>
+ * All the methods are expected to be called from the context of the request.
+ */
+final class MemoryThresholdFileUpload implements FileUpload {
+
+  private final HttpServerFileUpload upload;
+  private final FileSystem fileSystem;
+  private final String uploadsDir;
+  private final long threshold;
+  private final Supplier<Future<Void>> uploadsDirReady;
+  private final Promise<Void> promise = Promise.promise();
+
+  private Buffer content = Buffer.buffer();
+  private String uploadedFileName;
+  private AsyncFile file;
+  private Pipe<Buffer> pipe;
+  private boolean cancelled;
+
+  MemoryThresholdFileUpload(HttpServerFileUpload upload, FileSystem fileSystem, String uploadsDir, long threshold,
+                            Supplier<Future<Void>> uploadsDirReady) {
+    this.upload = upload;
+    this.fileSystem = fileSystem;
+    this.uploadsDir = uploadsDir;
+    this.threshold = threshold;
+    this.uploadsDirReady = uploadsDirReady;
+  }
+
+  /**
+   * Start receiving the upload.
+   *
+   * @return a future completed once the upload is in memory or fully written to the file
+   */
+  Future<Void> stream() {
+    upload.exceptionHandler(promise::tryFail);
+    upload.endHandler(v -> promise.tryComplete());
+    upload.handler(buff -> {
+      content.appendBuffer(buff);
+      if (content.length() > threshold) {
+        spill();
+      }
+    });
+    return promise.future();
+  }
+
+  private void spill() {
+    // stop receiving until the file is ready, the data is then piped to the file
+    upload.pause();
+    final Buffer pending = content;
+    content = null;
+    uploadedFileName = new File(uploadsDir, UUID.randomUUID().toString()).getPath();
+    // the uploads directory is only created once an upload needs it
+    uploadsDirReady.get()
+      .compose(v -> fileSystem.open(uploadedFileName, new OpenOptions()))
+      .onComplete(open -> {
+        if (open.failed()) {
+          uploadedFileName = null;
+          discard();
+          promise.tryFail(open.cause());
+          return;
+        }
+        file = open.result();
+        if (cancelled) {
+          discard();
+          deleteFile();
+          return;
+        }
+        file.write(pending);
+        pipe = upload.pipe();
+        pipe.to(file, ar -> {
+          if (ar.succeeded()) {
+            promise.tryComplete();
+          } else {
+            promise.tryFail(ar.cause());
+          }
+        });
+      });
+  }
+
+  private void discard() {
+    upload.handler(null);
+    upload.endHandler(null);
+    upload.resume();
+  }
+
+  private void deleteFile() {
+    file.close(close -> fileSystem.delete(uploadedFileName, delete -> {}));
+  }
+
+  @Override
+  public String name() {
+    return upload.name();
+  }
+
+  @Override
+  public String uploadedFileName() {
+    return uploadedFileName;
+  }
+
+  @Override
+  public Buffer content() {
+    return content;
+  }
+
+  @Override
+  public String fileName() {
+    return upload.filename();
+  }
+
+  @Override
+  public long size() {
+    return upload.size();
+  }
+
+  @Override
+  public String contentType() {
+    return upload.contentType();
+  }
+
+  @Override
+  public String contentTransferEncoding() {
+    return upload.contentTransferEncoding();
+  }
+
+  @Override
+  public String charSet() {
+    return upload.charset();
+  }
+
+  @Override
+  public boolean cancel() {
+    if (cancelled) {
+      return true;
+    }
+    if (promise.future().isComplete()) {
+      return false;
+    }
+    cancelled = true;
+    content = null;
+    if (pipe != null) {
+      // closing the pipe resumes the upload and drops the remaining data
+      pipe.close();
+      deleteFile();
+    } else if (uploadedFileName == null) {
+      discard();
+    }
+    // otherwise the file is still being opened and is deleted once it is
+    promise.tryFail(new VertxException("Upload cancelled", true));
+    return true;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.ext.web.impl.LRUCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Learns the resources that browsers request after an HTML page, from the {@code Referer} header of the resource
+ * requests, so the handler can push them or hint them to be preloaded with the page.
+ * <p>
+ * The memory is bounded: the least recently served pages are forgotten, and so are the least requested resources of a
+ * page. The counts are halved periodically so the hints follow the changes of the pages.
+ * <p>
+ * This class is thread-safe
+ */
+final class PushHintLearner {
+
+  // the pages and resources per page that are tracked
+  private static final int MAX_PAGES = 256;
+  private static final int MAX_RESOURCES = 32;
+  // the hints emitted for a page
+  private static final int MAX_HINTS = 8;
+  // a page must be served that many times before it gets hints
+  private static final int MIN_VIEWS = 3;
+  // a resource must be requested with at least that ratio of the page views
+  private static final double MIN_RATIO = 0.5;
+  // the counts are halved when a page reaches that many views
+  private static final int DECAY_VIEWS = 1024;
+
+  // access ordered, the least recently served pages are evicted first
+  private final Map<String, Page> pages = new LRUCache<>(16, 0.75f, true, MAX_PAGES);
+
+  /**
+   * A resource learned for a page.
+   */
+  static final class Resource {
+    // the request path
+    final String path;
+    final String file;
+    final long size;
+    private int count;
+
+    private Resource(String path, String file, long size) {
+      this.path = path;
+      this.file = file;
+      this.size = size;
+    }
+  }
+
+  private static final class Page {
+    private final Map<String, Resource> resources = new HashMap<>();
+    private int views;
+    // the hints computed from the counts, reset when they change
+    private List<Resource> hints;
+  }
+
+  /**
+   * Record that a page was served.
+   *
+   * @param page the request path of the page
+   * @return the resources to push or preload with the page, the most requested first
+   */
+  synchronized List<Resource> pageServed(String page) {
+    Page state = pages.get(page);
+    if (state == null) {
+      state = new Page();
+      pages.put(page, state);
+    }
+    if (++state.views == DECAY_VIEWS) {
+      decay(state);
+    }
+    if (state.hints == null || state.views % MIN_VIEWS == 0) {
+      // the threshold moves with the views
+      state.hints = hints(state);
+    }
+    return state.hints;
+  }
+
+  /**
+   * Record that a resource was requested from a page, pages that were not served by the handler are ignored.
+   *
+   * @param page the request path of the page
+   * @param path the request path of the resource
+   * @param file the file of the resource
+   * @param size the size of the file
+   */
+  synchronized void resourceRequested(String page, String path, String file, long size) {
+    final Page state = pages.get(page);
+    if (state == null || path.equals(page)) {
+      return;
+    }
+    Resource resource = state.resources.get(path);
+    if (resource == null || resource.size != size || !resource.file.equals(file)) {
+      if (resource == null && state.resources.size() == MAX_RESOURCES) {
+        evictLeastRequested(state);
+      }
+      final Resource replaced = resource;
+      resource = new Resource(path, file, size);
+      if (replaced != null) {
+        resource.count = replaced.count;
+      }
+      state.resources.put(path, resource);
+      state.hints = null;
+    }
+    // a page is loaded once, its resources shouldn't be counted more than the page
+    if (resource.count < state.views) {
+      resource.count++;
+    }
+  }
+
+  private static void evictLeastRequested(Page state) {
+    Resource least = null;
+    for (Resource resource : state.resources.values()) {
+      if (least == null || resource.count < least.count) {
+        least = resource;
+      }
+    }
+    if (least != null) {
+      state.resources.remove(least.path);
+    }
+  }
+
+  private static void decay(Page state) {
+    state.views /= 2;
+    final Iterator<Resource> it = state.resources.values().iterator();
+    while (it.hasNext()) {
+      final Resource resource = it.next();
+      resource.count /= 2;
+      if (resource.count == 0) {
+        it.remove();
+      }
+    }
+    state.hints = null;
+  }
+
+  private static List<Resource> hints(Page state) {
+    if (state.views < MIN_VIEWS) {
+      return Collections.emptyList();
+    }
+    final List<Resource> hints = new ArrayList<>();
+    for (Resource resource : state.resources.values()) {
+      if (resource.count >= state.views * MIN_RATIO) {
+        hints.add(resource);
+      }
+    }
+    hints.sort((a, b) -> Integer.compare(b.count, a.count));
+    return hints.size() > MAX_HINTS ? new ArrayList<>(hints.subList(0, MAX_HINTS)) : hints;
+  }
+}
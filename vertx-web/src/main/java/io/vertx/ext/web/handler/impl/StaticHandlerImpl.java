@@ -16,30 +16,43 @@
 
 package io.vertx.ext.web.handler.impl;
 
+import io.netty.buffer.Unpooled;
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
 import io.vertx.core.file.FileProps;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.http.*;
 import io.vertx.core.http.impl.HttpUtils;
 import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.impl.VertxInternal;
 import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
-import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.Json;
 import io.vertx.core.net.impl.URIDecoder;
 import io.vertx.ext.web.Http2PushMapping;
 import io.vertx.ext.web.MIMEHeader;
+import io.vertx.ext.web.ParsedHeaderValue;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.StaticHandler;
+import io.vertx.ext.web.impl.HttpDate;
 import io.vertx.ext.web.impl.LRUCache;
 import io.vertx.ext.web.impl.ParsableMIMEValue;
 import io.vertx.ext.web.impl.Utils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 
@@ -58,7 +71,9 @@ public class StaticHandlerImpl implements StaticHandler {
   private long maxAgeSeconds = DEFAULT_MAX_AGE_SECONDS; // One day
   private boolean directoryListing = DEFAULT_DIRECTORY_LISTING;
   private String directoryTemplateResource = DEFAULT_DIRECTORY_TEMPLATE;
-  private String directoryTemplate;
+  // the template split around the files, loaded by the first listing
+  private volatile String[] directoryTemplate;
+  private int directoryListingPageSize = DEFAULT_DIRECTORY_LISTING_PAGE_SIZE;
   private boolean includeHidden = DEFAULT_INCLUDE_HIDDEN;
   private boolean filesReadOnly = DEFAULT_FILES_READ_ONLY;
   private String indexPage = DEFAULT_INDEX_PAGE;
@@ -66,6 +81,12 @@ public class StaticHandlerImpl implements StaticHandler {
   private boolean rangeSupport = DEFAULT_RANGE_SUPPORT;
   private boolean allowRootFileSystemAccess = DEFAULT_ROOT_FILESYSTEM_ACCESS;
   private boolean sendVaryHeader = DEFAULT_SEND_VARY_HEADER;
+  private boolean servePrecompressedFiles = DEFAULT_SERVE_PRECOMPRESSED_FILES;
+  private boolean contentETags = DEFAULT_CONTENT_ETAGS;
+  private boolean watchWebRoot = DEFAULT_WATCH_WEB_ROOT;
+  private long maxPushedBytesPerConnection = DEFAULT_MAX_PUSHED_BYTES_PER_CONNECTION;
+  // null when the push hints are not learned
+  private PushHintLearner pushHintLearner;
   private String defaultContentEncoding = Charset.defaultCharset().name();
 
   private Set<String> compressedMediaTypes = Collections.emptySet();
@@ -73,14 +94,35 @@ public class StaticHandlerImpl implements StaticHandler {
 
   private final FSTune tune = new FSTune();
   private final FSPropsCache cache = new FSPropsCache();
+  private final FileContentCache contentCache = new FileContentCache();
+  private final DirectoryListingCache directoryListings = new DirectoryListingCache();
 
-  private String directoryTemplate(FileSystem fileSystem) {
-    if (directoryTemplate == null) {
-      directoryTemplate = fileSystem
-        .readFileBlocking(directoryTemplateResource)
-        .toString(StandardCharsets.UTF_8);
+  // the watcher of the web root, started by the first request
+  private volatile WebRootWatcher watcher;
+  private volatile boolean watcherStarted;
+
+  private void directoryTemplate(FileSystem fileSystem, Handler<AsyncResult<String[]>> handler) {
+    final String[] template = directoryTemplate;
+    if (template != null) {
+      handler.handle(Future.succeededFuture(template));
+      return;
     }
-    return directoryTemplate;
+    final String resource = directoryTemplateResource;
+    fileSystem.readFile(resource, read -> {
+      if (read.failed()) {
+        handler.handle(Future.failedFuture(read.cause()));
+        return;
+      }
+      final String content = read.result().toString(StandardCharsets.UTF_8);
+      final int idx = content.indexOf("{files}");
+      final String[] parts = idx == -1 ?
+        new String[] { content, null } :
+        new String[] { content.substring(0, idx), content.substring(idx + "{files}".length()) };
+      if (resource.equals(directoryTemplateResource)) {
+        directoryTemplate = parts;
+      }
+      handler.handle(Future.succeededFuture(parts));
+    });
   }
 
   /**
@@ -88,16 +130,18 @@ public class StaticHandlerImpl implements StaticHandler {
    *
    * @param request base HttpServerRequest
    * @param props   file properties
+   * @param content the cached content of the file, can be null
    */
-  private void writeCacheHeaders(HttpServerRequest request, FileProps props) {
+  private void writeCacheHeaders(HttpServerRequest request, FileProps props, FileContent content) {
 
     MultiMap headers = request.response().headers();
 
     if (cache.enabled()) {
       // We use cache-control and last-modified
-      // We *do not use* etags and expires (since they do the same thing - redundant)
+      // We *do not use* expires (since it does the same thing - redundant), etags are only sent when content etags are
+      // enabled as they are then computed from the content and survive redeployments
       Utils.addToMapIfAbsent(headers, HttpHeaders.CACHE_CONTROL, "public, immutable, max-age=" + maxAgeSeconds);
-      Utils.addToMapIfAbsent(headers, HttpHeaders.LAST_MODIFIED, Utils.formatRFC1123DateTime(props.lastModifiedTime()));
+      Utils.addToMapIfAbsent(headers, HttpHeaders.LAST_MODIFIED, content != null ? content.lastModified : Utils.formatRFC1123DateTime(props.lastModifiedTime()));
       // We send the vary header (for intermediate caches)
       // (assumes that most will turn on compression when using static handler)
       if (sendVaryHeader && request.headers().contains(HttpHeaders.ACCEPT_ENCODING)) {
@@ -105,7 +149,7 @@ public class StaticHandlerImpl implements StaticHandler {
       }
     }
     // date header is mandatory
-    headers.set("date", Utils.formatRFC1123DateTime(System.currentTimeMillis()));
+    headers.set(HttpHeaders.DATE, HttpDate.now());
   }
 
   @Override
@@ -159,9 +203,11 @@ public class StaticHandlerImpl implements StaticHandler {
 
     // Look in cache
     final CacheEntry entry = cache.get(path);
+    // the entries of a watched web root are valid until the file changes
+    final boolean watching = watching(context.vertx());
 
     if (entry != null) {
-      if ((filesReadOnly || !entry.isOutOfDate())) {
+      if ((filesReadOnly || watching || !entry.isOutOfDate())) {
         // a cache entry can mean 2 things:
         // 1. a miss
         // 2. a hit
@@ -175,17 +221,48 @@ public class StaticHandlerImpl implements StaticHandler {
         // a hit needs to be verified for freshness
         final long lastModified = Utils.secondsFactor(entry.props.lastModifiedTime());
 
+        if (contentETags) {
+          final String sfile = file == null ? getFile(path, context) : file;
+          // the digest of the content is computed once for the cache entry
+          etag(context, entry, sfile, etag -> {
+            // the entity tag of a precompressed file is only known once the encoding is negotiated
+            if (!servePrecompressedFiles && Utils.fresh(context, lastModified)) {
+              context.response()
+                .setStatusCode(NOT_MODIFIED.code())
+                .end();
+            } else if (watching) {
+              sendFile(context, fileSystem, path, sfile, entry.props);
+            } else {
+              sendStatic(context, fileSystem, path, sfile, entry, sibling);
+            }
+          });
+          return;
+        }
+
         if (Utils.fresh(context, lastModified)) {
           context.response()
             .setStatusCode(NOT_MODIFIED.code())
             .end();
           return;
         }
+
+        if (watching) {
+          // no need to read the props again
+          sendFile(context, fileSystem, path, file == null ? getFile(path, context) : file, entry.props);
+          return;
+        }
       }
     }
 
+    sendStatic(context, fileSystem, path, file == null ? getFile(path, context) : file, entry, sibling);
+  }
+
+  /**
+   * Send the file after reading its props from the file system.
+   */
+  private void sendStatic(RoutingContext context, FileSystem fileSystem, String path, String sfile, CacheEntry entry, boolean sibling) {
     final boolean dirty = cache.enabled() && entry != null;
-    final String sfile = file == null ? getFile(path, context) : file;
+    final long generation = cache.generation();
 
     // verify if the file exists
     fileSystem
@@ -198,7 +275,7 @@ public class StaticHandlerImpl implements StaticHandler {
         // file does not exist, continue...
         if (!exists.result()) {
           if (cache.enabled()) {
-            cache.put(path, null);
+            cache.put(path, null, generation);
           }
           context.next();
           return;
@@ -221,14 +298,25 @@ public class StaticHandlerImpl implements StaticHandler {
               sendDirectory(context, fileSystem, path, sfile, sibling);
             } else {
               if (cache.enabled()) {
-                cache.put(path, fprops);
+                final CacheEntry updated = cache.put(path, fprops, generation);
+
+                if (contentETags) {
+                  etag(context, updated, sfile, etag -> {
+                    if (!servePrecompressedFiles && Utils.fresh(context, Utils.secondsFactor(fprops.lastModifiedTime()))) {
+                      context.response().setStatusCode(NOT_MODIFIED.code()).end();
+                    } else {
+                      sendFile(context, fileSystem, path, sfile, fprops);
+                    }
+                  });
+                  return;
+                }
 
                 if (Utils.fresh(context, Utils.secondsFactor(fprops.lastModifiedTime()))) {
                   context.response().setStatusCode(NOT_MODIFIED.code()).end();
                   return;
                 }
               }
-              sendFile(context, fileSystem, sfile, fprops);
+              sendFile(context, fileSystem, path, sfile, fprops);
             }
           } else {
             context.fail(res.cause());
@@ -269,6 +357,83 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
+  /**
+   * @return whether the web root is watched, the watcher is started on the first call
+   */
+  private boolean watching(Vertx vertx) {
+    if (!watchWebRoot || !cache.enabled()) {
+      return false;
+    }
+    if (!watcherStarted) {
+      startWatcher(vertx);
+    }
+    return watcher != null;
+  }
+
+  private synchronized void startWatcher(Vertx vertx) {
+    if (watcherStarted) {
+      return;
+    }
+    final WebRootWatcher started = WebRootWatcher.start(webRoot, cache::invalidate, cache::clear);
+    if (started != null) {
+      ((VertxInternal) vertx).addCloseHook(completion -> {
+        started.close();
+        completion.complete();
+      });
+      // the entries cached before the watch started may be out of date
+      cache.clear();
+    }
+    watcher = started;
+    watcherStarted = true;
+  }
+
+  private synchronized void stopWatcher() {
+    if (watcher != null) {
+      watcher.close();
+      watcher = null;
+    }
+    watcherStarted = false;
+  }
+
+  /**
+   * Set the {@code ETag} header of the response to the entity tag of the cached file, the entity tag is computed on a
+   * worker thread when the entry doesn't have it yet. The handler is called on the context of the request.
+   */
+  private void etag(RoutingContext context, CacheEntry entry, String file, Handler<String> handler) {
+    final Vertx vertx = context.vertx();
+    final Context ctx = vertx.getOrCreateContext();
+    entry.etag(() -> computeETag(vertx, file)).onComplete(res -> {
+      final String etag = res.succeeded() ? res.result() : null;
+      if (etag != null) {
+        context.response().putHeader(HttpHeaders.ETAG, etag);
+      } else {
+        LOG.warn("Could not compute the entity tag of " + file, res.cause());
+      }
+      // the future may have been completed by a request of another context
+      if (Vertx.currentContext() == ctx) {
+        handler.handle(etag);
+      } else {
+        ctx.runOnContext(v -> handler.handle(etag));
+      }
+    });
+  }
+
+  private static Future<String> computeETag(Vertx vertx, String file) {
+    return vertx.executeBlocking(promise -> {
+      try (InputStream in = new FileInputStream(((VertxInternal) vertx).resolveFile(file))) {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          digest.update(buffer, 0, read);
+        }
+        promise.complete("\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + "\"");
+      } catch (IOException | NoSuchAlgorithmException e) {
+        promise.fail(e);
+      }
+    }, false);
+  }
+
   private void getFileProps(FileSystem fileSystem, String file, Handler<AsyncResult<FileProps>> resultHandler) {
     if (tune.useAsyncFS()) {
       fileSystem.props(file, resultHandler);
@@ -288,12 +453,111 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
-  private static final Pattern RANGE = Pattern.compile("^bytes=(\\d+)-(\\d*)$");
+  // content codings of the precompressed files, by order of preference
+  private static final String[] PRECOMPRESSED_ENCODINGS = { "br", "gzip" };
+  private static final String[] PRECOMPRESSED_SUFFIXES = { ".br", ".gz" };
+
+  private void sendFile(RoutingContext context, FileSystem fileSystem, String path, String file, FileProps fileProps) {
+    if (pushHintLearner != null && context.request().method() == HttpMethod.GET) {
+      learnPushHints(context, file, fileProps);
+    }
+    if (servePrecompressedFiles) {
+      // the response depends on the accepted encodings even when there are no precompressed files
+      Utils.addToMapIfAbsent(context.response().headers(), HttpHeaders.VARY, "accept-encoding");
+      final List<Integer> encodings = acceptedPrecompressedEncodings(context);
+      if (!encodings.isEmpty()) {
+        sendPrecompressedFile(context, fileSystem, path, file, fileProps, encodings, 0);
+        return;
+      }
+    }
+    sendFile(context, fileSystem, file, fileProps, null);
+  }
+
+  /**
+   * @return the indexes of the precompressed encodings accepted by the client, the preferred first
+   */
+  private List<Integer> acceptedPrecompressedEncodings(RoutingContext context) {
+    final List<ParsedHeaderValue> acceptEncoding = context.parsedHeaders().acceptEncoding();
+    if (acceptEncoding.isEmpty()) {
+      return Collections.emptyList();
+    }
+    // an encoding not listed gets the weight of the wildcard, if any
+    final float[] weights = new float[PRECOMPRESSED_ENCODINGS.length];
+    final boolean[] listed = new boolean[PRECOMPRESSED_ENCODINGS.length];
+    for (ParsedHeaderValue value : acceptEncoding) {
+      final boolean wildcard = "*".equals(value.value());
+      for (int i = 0; i < PRECOMPRESSED_ENCODINGS.length; i++) {
+        if (PRECOMPRESSED_ENCODINGS[i].equalsIgnoreCase(value.value())) {
+          weights[i] = value.weight();
+          listed[i] = true;
+        } else if (wildcard && !listed[i]) {
+          weights[i] = value.weight();
+        }
+      }
+    }
+    final List<Integer> accepted = new ArrayList<>(PRECOMPRESSED_ENCODINGS.length);
+    for (int i = 0; i < PRECOMPRESSED_ENCODINGS.length; i++) {
+      if (weights[i] > 0) {
+        accepted.add(i);
+      }
+    }
+    // stable sort, equally accepted encodings keep the order of preference
+    accepted.sort((a, b) -> Float.compare(weights[b], weights[a]));
+    return accepted;
+  }
+
+  private void sendPrecompressedFile(RoutingContext context, FileSystem fileSystem, String path, String file, FileProps fileProps, List<Integer> encodings, int idx) {
+    if (idx == encodings.size()) {
+      // no precompressed file, send the original
+      sendFile(context, fileSystem, file, fileProps, null);
+      return;
+    }
+    final int encoding = encodings.get(idx);
+    final String suffix = PRECOMPRESSED_SUFFIXES[encoding];
+    getPrecompressedFileProps(fileSystem, path + suffix, file + suffix, props -> {
+      if (props == null) {
+        sendPrecompressedFile(context, fileSystem, path, file, fileProps, encodings, idx + 1);
+      } else {
+        sendFile(context, fileSystem, file, fileProps, new Precompressed(PRECOMPRESSED_ENCODINGS[encoding], file + suffix, props));
+      }
+    });
+  }
+
+  /**
+   * Get the props of a precompressed file, the lookups are kept in the props cache just like the requested files.
+   */
+  private void getPrecompressedFileProps(FileSystem fileSystem, String path, String file, Handler<FileProps> handler) {
+    final CacheEntry entry = cache.get(path);
+    if (entry != null && (filesReadOnly || watcher != null || !entry.isOutOfDate())) {
+      handler.handle(entry.props);
+      return;
+    }
+    final long generation = cache.generation();
+    fileSystem.exists(file, exists -> {
+      if (exists.failed() || !exists.result()) {
+        cache.put(path, null, generation);
+        handler.handle(null);
+        return;
+      }
+      getFileProps(fileSystem, file, res -> {
+        final FileProps props = res.succeeded() && res.result() != null && res.result().isRegularFile() ? res.result() : null;
+        cache.put(path, props, generation);
+        handler.handle(props);
+      });
+    });
+  }
 
-  private void sendFile(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps) {
+  /**
+   * @param precompressed the precompressed file to send in place of the file, can be null
+   */
+  private void sendFile(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, Precompressed precompressed) {
     final HttpServerRequest request = context.request();
     final HttpServerResponse response = context.response();
+    // the bytes to send, the content type and cache headers remain the ones of the file
+    final String source = precompressed != null ? precompressed.file : file;
+    final FileProps sourceProps = precompressed != null ? precompressed.props : fileProps;
 
+    List<ByteRange> ranges = null;
     Long offset = null;
     Long end = null;
     MultiMap headers = null;
@@ -301,38 +565,42 @@ public class StaticHandlerImpl implements StaticHandler {
     if (response.closed())
       return;
 
+    final FileContent content = contentCache.get(source, sourceProps);
+
+    final String etag = response.headers().get(HttpHeaders.ETAG);
+    if (etag != null && precompressed != null) {
+      // a strong entity tag identifies the encoded bytes
+      response.putHeader(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + "-" + precompressed.encoding + "\"");
+    }
+    if (etag != null && servePrecompressedFiles && Utils.fresh(context, Utils.secondsFactor(fileProps.lastModifiedTime()))) {
+      // the freshness is checked against the entity tag of the negotiated encoding
+      response.setStatusCode(NOT_MODIFIED.code()).end();
+      return;
+    }
+
     if (rangeSupport) {
       // check if the client is making a range request
       String range = request.getHeader("Range");
       // end byte is length - 1
-      end = fileProps.size() - 1;
-
-      if (range != null) {
-        Matcher m = RANGE.matcher(range);
-        if (m.matches()) {
-          try {
-            String part = m.group(1);
-            // offset cannot be empty
-            offset = Long.parseLong(part);
-            // offset must fall inside the limits of the file
-            if (offset < 0 || offset >= fileProps.size()) {
-              throw new IndexOutOfBoundsException();
-            }
-            // length can be empty
-            part = m.group(2);
-            if (part != null && part.length() > 0) {
-              // ranges are inclusive
-              end = Math.min(end, Long.parseLong(part));
-              // end offset must not be smaller than start offset
-              if (end < offset) {
-                throw new IndexOutOfBoundsException();
-              }
-            }
-          } catch (NumberFormatException | IndexOutOfBoundsException e) {
-            context.response().putHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileProps.size());
+      end = sourceProps.size() - 1;
+
+      // a range request of an outdated representation is answered with the whole representation
+      if (range != null && ifRangeMatches(request, fileProps, response.headers().get(HttpHeaders.ETAG))) {
+        ranges = ByteRange.parse(range, sourceProps.size());
+        if (ranges != null && ranges.size() > 1 && precompressed != null) {
+          // the content encoding can't apply to the parts of a multipart response
+          ranges = null;
+        }
+        if (ranges != null) {
+          if (ranges.isEmpty()) {
+            context.response().putHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + sourceProps.size());
             context.fail(REQUESTED_RANGE_NOT_SATISFIABLE.code());
             return;
           }
+          if (ranges.size() == 1) {
+            offset = ranges.get(0).start;
+            end = ranges.get(0).end;
+          }
         }
       }
 
@@ -343,14 +611,20 @@ public class StaticHandlerImpl implements StaticHandler {
       headers.set(HttpHeaders.CONTENT_LENGTH, Long.toString(end + 1 - (offset == null ? 0 : offset)));
     }
 
-    writeCacheHeaders(request, fileProps);
+    // the last modified date of a cached precompressed content is the one of the precompressed file
+    writeCacheHeaders(request, fileProps, precompressed == null ? content : null);
+    if (precompressed != null) {
+      response.putHeader(HttpHeaders.CONTENT_ENCODING, precompressed.encoding);
+    }
 
     if (request.method() == HttpMethod.HEAD) {
       response.end();
     } else {
-      if (rangeSupport && offset != null) {
+      if (ranges != null && ranges.size() > 1) {
+        sendRanges(context, fileSystem, source, sourceProps, content, ranges, contentType(file));
+      } else if (rangeSupport && offset != null) {
         // must return content range
-        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + end + "/" + fileProps.size());
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + end + "/" + sourceProps.size());
         // return a partial response
         response.setStatusCode(PARTIAL_CONTENT.code());
 
@@ -366,16 +640,12 @@ public class StaticHandlerImpl implements StaticHandler {
           }
         }
 
-        response.sendFile(file, finalOffset, finalLength, res2 -> {
-          if (res2.failed()) {
-            context.fail(res2.cause());
-          }
-        });
+        sendContent(context, fileSystem, source, sourceProps, content, finalOffset, finalLength);
       } else {
         // guess content type
         String extension = getFileExtension(file);
         String contentType = MimeMapping.getMimeTypeForExtension(extension);
-        if (compressedMediaTypes.contains(contentType) || compressedFileSuffixes.contains(extension)) {
+        if (precompressed == null && (compressedMediaTypes.contains(contentType) || compressedFileSuffixes.contains(extension))) {
           response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
         }
         if (contentType != null) {
@@ -395,7 +665,7 @@ public class StaticHandlerImpl implements StaticHandler {
               getFileProps(fileSystem, dep, filePropsAsyncResult -> {
                 if (filePropsAsyncResult.succeeded()) {
                   // push
-                  writeCacheHeaders(request, filePropsAsyncResult.result());
+                  writeCacheHeaders(request, filePropsAsyncResult.result(), null);
                   response.push(HttpMethod.GET, "/" + dependency.getFilePath(), pushAsyncResult -> {
                     if (pushAsyncResult.succeeded()) {
                       HttpServerResponse res = pushAsyncResult.result();
@@ -424,7 +694,7 @@ public class StaticHandlerImpl implements StaticHandler {
             getFileProps(fileSystem, dep, filePropsAsyncResult -> {
               if (filePropsAsyncResult.succeeded()) {
                 // push
-                writeCacheHeaders(request, filePropsAsyncResult.result());
+                writeCacheHeaders(request, filePropsAsyncResult.result(), null);
                 links.add("<" + dependency.getFilePath() + ">; rel=preload; as="
                   + dependency.getExtensionTarget() + (dependency.isNoPush() ? "; nopush" : ""));
               }
@@ -433,13 +703,300 @@ public class StaticHandlerImpl implements StaticHandler {
           response.putHeader("Link", links);
         }
 
-        response.sendFile(file, res2 -> {
-          if (res2.failed()) {
-            context.fail(res2.cause());
+        sendContent(context, fileSystem, source, sourceProps, content, 0, Long.MAX_VALUE);
+      }
+    }
+  }
+
+  // the learned resources pushed on the HTTP/2 connections
+  private final Map<HttpConnection, PushedResources> pushedResources = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Learn the resources of the pages from the referer of the resource requests, and hint the learned resources of a
+   * page when it is served.
+   */
+  private void learnPushHints(RoutingContext context, String file, FileProps fileProps) {
+    final HttpServerRequest request = context.request();
+    // the paths requested by the browsers, e.g. not the index page a directory is upgraded to
+    final String path = context.normalizedPath();
+    if ("text/html".equals(MimeMapping.getMimeTypeForFilename(file))) {
+      final List<PushHintLearner.Resource> hints = pushHintLearner.pageServed(path);
+      if (!hints.isEmpty()) {
+        sendPushHints(context, hints);
+      }
+    } else {
+      final String page = refererPath(request);
+      if (page != null) {
+        pushHintLearner.resourceRequested(page, path, file, fileProps.size());
+      }
+    }
+  }
+
+  private void sendPushHints(RoutingContext context, List<PushHintLearner.Resource> hints) {
+    final HttpServerRequest request = context.request();
+    final HttpServerResponse response = context.response();
+    final PushedResources pushed = request.version() == HttpVersion.HTTP_2 ?
+      pushedResources.computeIfAbsent(request.connection(), connection -> new PushedResources()) :
+      null;
+
+    final List<String> links = new ArrayList<>();
+    for (PushHintLearner.Resource hint : hints) {
+      if (pushed != null && pushed.contains(hint.path)) {
+        // the client already has it
+        continue;
+      }
+      if (pushed != null && pushed.add(hint.path, hint.size, maxPushedBytesPerConnection)) {
+        response.push(HttpMethod.GET, hint.path, push -> {
+          if (push.succeeded()) {
+            final HttpServerResponse res = push.result();
+            final String contentType = contentType(hint.file);
+            if (contentType != null) {
+              res.putHeader(HttpHeaders.CONTENT_TYPE, contentType);
+            }
+            res.sendFile(hint.file, sent -> {
+              if (sent.failed()) {
+                res.reset();
+              }
+            });
           }
         });
+      } else {
+        final String destination = preloadDestination(hint.file);
+        if (destination != null) {
+          links.add("<" + hint.path + ">; rel=preload; as=" + destination);
+        }
       }
     }
+    if (!links.isEmpty()) {
+      response.headers().add("Link", links);
+    }
+  }
+
+  /**
+   * @return the path of the referer of the request when it is a page of the same host, null otherwise
+   */
+  private static String refererPath(HttpServerRequest request) {
+    final String referer = request.getHeader(HttpHeaders.REFERER);
+    if (referer == null) {
+      return null;
+    }
+    final int scheme = referer.indexOf("://");
+    if (scheme == -1) {
+      return null;
+    }
+    final int start = referer.indexOf('/', scheme + 3);
+    final String authority = referer.substring(scheme + 3, start == -1 ? referer.length() : start);
+    if (!authority.equalsIgnoreCase(request.host())) {
+      return null;
+    }
+    if (start == -1) {
+      return "/";
+    }
+    int end = start;
+    while (end < referer.length() && referer.charAt(end) != '?' && referer.charAt(end) != '#') {
+      end++;
+    }
+    return HttpUtils.normalizePath(referer.substring(start, end));
+  }
+
+  /**
+   * @return the destination of a preload link to the file, null when a preload doesn't apply
+   */
+  private static String preloadDestination(String file) {
+    final String contentType = MimeMapping.getMimeTypeForFilename(file);
+    if (contentType == null) {
+      return null;
+    }
+    if (contentType.equals("text/css")) {
+      return "style";
+    }
+    if (contentType.endsWith("javascript")) {
+      return "script";
+    }
+    if (contentType.startsWith("image/")) {
+      return "image";
+    }
+    return null;
+  }
+
+  /**
+   * The learned resources pushed on a connection.
+   */
+  private static final class PushedResources {
+    private final Set<String> paths = new HashSet<>();
+    private long bytes;
+
+    synchronized boolean contains(String path) {
+      return paths.contains(path);
+    }
+
+    synchronized boolean add(String path, long size, long maxBytes) {
+      if (bytes + size > maxBytes) {
+        return false;
+      }
+      bytes += size;
+      paths.add(path);
+      return true;
+    }
+  }
+
+  /**
+   * @return the content type of the file, with the default charset for text
+   */
+  private String contentType(String file) {
+    String contentType = MimeMapping.getMimeTypeForFilename(file);
+    if (contentType != null && contentType.startsWith("text")) {
+      return contentType + ";charset=" + defaultContentEncoding;
+    }
+    return contentType;
+  }
+
+  /**
+   * Check the {@code If-Range} precondition, the ranges must only be honored when the validator matches the file.
+   */
+  private static boolean ifRangeMatches(HttpServerRequest request, FileProps props, String etag) {
+    final String ifRange = request.getHeader("If-Range");
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      // only a strong entity tag can match
+      return ifRange.equals(etag);
+    }
+    final long date = Utils.parseRFC1123DateTime(ifRange);
+    // the date must be an exact match of the last modified date
+    return date != -1 && date == Utils.secondsFactor(props.lastModifiedTime());
+  }
+
+  private static final int RANGE_CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * Send several ranges of the file as a {@code multipart/byteranges} response. The parts are streamed one after the
+   * other from the file, or from memory when the content is cached.
+   */
+  private void sendRanges(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, FileContent content, List<ByteRange> ranges, String contentType) {
+    final HttpServerResponse response = context.response();
+    final String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime());
+
+    // the length is known upfront, so the response doesn't need to be chunked
+    final List<Buffer> partHeaders = new ArrayList<>(ranges.size());
+    long length = 0;
+    for (ByteRange range : ranges) {
+      final Buffer partHeader = Buffer.buffer(
+        "\r\n--" + boundary + "\r\n" +
+          (contentType != null ? "Content-Type: " + contentType + "\r\n" : "") +
+          "Content-Range: bytes " + range.start + "-" + range.end + "/" + fileProps.size() + "\r\n\r\n");
+      partHeaders.add(partHeader);
+      length += partHeader.length() + range.length();
+    }
+    final Buffer trailer = Buffer.buffer("\r\n--" + boundary + "--\r\n");
+    length += trailer.length();
+
+    response
+      .setStatusCode(PARTIAL_CONTENT.code())
+      .putHeader(HttpHeaders.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary)
+      .putHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(length));
+
+    if (content != null) {
+      for (int i = 0; i < ranges.size(); i++) {
+        response.write(partHeaders.get(i));
+        response.write(content.slice(ranges.get(i).start, ranges.get(i).length()));
+      }
+      response.end(trailer);
+      return;
+    }
+
+    fileSystem.open(file, new OpenOptions().setRead(true).setWrite(false).setCreate(false), open -> {
+      if (open.failed()) {
+        context.fail(open.cause());
+        return;
+      }
+      final AsyncFile asyncFile = open.result();
+      // closed once the response is ended, failed or its connection closed, even while waiting for a drain
+      context.addEndHandler(v -> asyncFile.close());
+      sendRange(context, asyncFile, ranges, partHeaders, trailer, 0);
+    });
+  }
+
+  private void sendRange(RoutingContext context, AsyncFile file, List<ByteRange> ranges, List<Buffer> partHeaders, Buffer trailer, int index) {
+    final HttpServerResponse response = context.response();
+    if (index == ranges.size()) {
+      response.end(trailer);
+      return;
+    }
+    final ByteRange range = ranges.get(index);
+    response.write(partHeaders.get(index));
+    sendChunk(context, file, range.start, range.length(), v -> sendRange(context, file, ranges, partHeaders, trailer, index + 1));
+  }
+
+  /**
+   * Read the bytes of the file chunk by chunk, respecting the back pressure of the response.
+   */
+  private void sendChunk(RoutingContext context, AsyncFile file, long position, long remaining, Handler<Void> done) {
+    final HttpServerResponse response = context.response();
+    if (remaining == 0) {
+      done.handle(null);
+      return;
+    }
+    if (response.closed()) {
+      return;
+    }
+    final int length = (int) Math.min(RANGE_CHUNK_SIZE, remaining);
+    file.read(Buffer.buffer(length), 0, position, length, read -> {
+      if (read.failed() || read.result().length() == 0) {
+        // the file was truncated after its props were read, the head is already sent so the response can't be failed
+        LOG.error("Could not send the ranges of the file", read.failed() ? read.cause() : new IllegalStateException("Unexpected end of file"));
+        response.reset();
+        return;
+      }
+      final Buffer chunk = read.result();
+      response.write(chunk);
+      final long next = position + chunk.length();
+      final long left = remaining - chunk.length();
+      if (response.writeQueueFull()) {
+        response.drainHandler(v -> sendChunk(context, file, next, left, done));
+      } else {
+        sendChunk(context, file, next, left, done);
+      }
+    });
+  }
+
+  /**
+   * Send the file content, from memory when it is cached or small enough to be cached.
+   */
+  private void sendContent(RoutingContext context, FileSystem fileSystem, String file, FileProps fileProps, FileContent content, long offset, long length) {
+    final HttpServerResponse response = context.response();
+
+    if (content != null) {
+      response.end(content.slice(offset, length));
+      return;
+    }
+
+    if (contentCache.accepts(fileProps)) {
+      fileSystem.readFile(file, read -> {
+        if (read.failed()) {
+          context.fail(read.cause());
+          return;
+        }
+        if (read.result().length() != fileProps.size()) {
+          // the file was modified after its props were read, don't cache it
+          sendFromFileSystem(context, file, offset, length);
+          return;
+        }
+        response.end(contentCache.put(file, fileProps, read.result()).slice(offset, length));
+      });
+      return;
+    }
+
+    sendFromFileSystem(context, file, offset, length);
+  }
+
+  private void sendFromFileSystem(RoutingContext context, String file, long offset, long length) {
+    context.response().sendFile(file, offset, length, res2 -> {
+      if (res2.failed()) {
+        context.fail(res2.cause());
+      }
+    });
   }
 
   @Override
@@ -451,6 +1008,8 @@ public class StaticHandlerImpl implements StaticHandler {
   @Override
   public StaticHandler setWebRoot(String webRoot) {
     setRoot(webRoot);
+    // the new web root is watched by the next request
+    stopWatcher();
     return this;
   }
 
@@ -475,6 +1034,39 @@ public class StaticHandlerImpl implements StaticHandler {
     return this;
   }
 
+  @Override
+  public StaticHandler setServePrecompressedFiles(boolean servePrecompressedFiles) {
+    this.servePrecompressedFiles = servePrecompressedFiles;
+    return this;
+  }
+
+  @Override
+  public StaticHandler setWatchWebRoot(boolean watchWebRoot) {
+    this.watchWebRoot = watchWebRoot;
+    if (!watchWebRoot) {
+      stopWatcher();
+    }
+    return this;
+  }
+
+  @Override
+  public StaticHandler setContentETags(boolean contentETags) {
+    this.contentETags = contentETags;
+    return this;
+  }
+
+  @Override
+  public StaticHandler setMaxContentCacheSize(long maxContentCacheSize) {
+    contentCache.setMaxSize(maxContentCacheSize);
+    return this;
+  }
+
+  @Override
+  public StaticHandler setMaxContentCacheFileSize(long maxContentCacheFileSize) {
+    contentCache.setMaxFileSize(maxContentCacheFileSize);
+    return this;
+  }
+
   @Override
   public StaticHandler setCachingEnabled(boolean enabled) {
     cache.setEnabled(enabled);
@@ -487,6 +1079,15 @@ public class StaticHandlerImpl implements StaticHandler {
     return this;
   }
 
+  @Override
+  public StaticHandler setDirectoryListingPageSize(int directoryListingPageSize) {
+    if (directoryListingPageSize < 0) {
+      throw new IllegalArgumentException("directoryListingPageSize must be >= 0");
+    }
+    this.directoryListingPageSize = directoryListingPageSize;
+    return this;
+  }
+
   @Override
   public StaticHandler setDirectoryTemplate(String directoryTemplate) {
     this.directoryTemplateResource = directoryTemplate;
@@ -503,6 +1104,8 @@ public class StaticHandlerImpl implements StaticHandler {
   @Override
   public StaticHandler setIncludeHidden(boolean includeHidden) {
     this.includeHidden = includeHidden;
+    // the cached listings are filtered
+    directoryListings.clear();
     return this;
   }
 
@@ -536,6 +1139,25 @@ public class StaticHandlerImpl implements StaticHandler {
     return this;
   }
 
+  @Override
+  public StaticHandler setLearnPushHints(boolean learnPushHints) {
+    if (!learnPushHints) {
+      this.pushHintLearner = null;
+    } else if (this.pushHintLearner == null) {
+      this.pushHintLearner = new PushHintLearner();
+    }
+    return this;
+  }
+
+  @Override
+  public StaticHandler setMaxPushedBytesPerConnection(long maxPushedBytesPerConnection) {
+    if (maxPushedBytesPerConnection < 0) {
+      throw new IllegalArgumentException("maxPushedBytesPerConnection must be >= 0");
+    }
+    this.maxPushedBytesPerConnection = maxPushedBytesPerConnection;
+    return this;
+  }
+
   @Override
   public StaticHandler skipCompressionForMediaTypes(Set<String> mediaTypes) {
     if (mediaTypes != null) {
@@ -603,108 +1225,218 @@ public class StaticHandlerImpl implements StaticHandler {
   );
 
   private void sendDirectoryListing(FileSystem fileSystem, String dir, RoutingContext context) {
-    final HttpServerResponse response = context.response();
+    final int offset;
+    final int limit;
+    try {
+      offset = queryParam(context, "offset", 0);
+      final int pageSize = directoryListingPageSize == 0 ? Integer.MAX_VALUE : directoryListingPageSize;
+      limit = Math.min(pageSize, queryParam(context, "limit", pageSize));
+    } catch (NumberFormatException e) {
+      context.fail(BAD_REQUEST.code());
+      return;
+    }
 
-    fileSystem.readDir(dir, asyncResult -> {
-      if (asyncResult.failed()) {
-        context.fail(asyncResult.cause());
-      } else {
+    // the listing of a directory is cached until its last modified time changes
+    fileSystem.props(dir, props -> {
+      if (props.failed()) {
+        context.fail(props.cause());
+        return;
+      }
+      final long lastModified = props.result().lastModifiedTime();
+      final List<String> cached = directoryListings.get(dir, lastModified);
+      if (cached != null) {
+        sendDirectoryListing(fileSystem, context, cached, offset, limit);
+        return;
+      }
+      fileSystem.readDir(dir, asyncResult -> {
+        if (asyncResult.failed()) {
+          context.fail(asyncResult.cause());
+          return;
+        }
+        final List<String> names = new ArrayList<>(asyncResult.result().size());
+        for (String s : asyncResult.result()) {
+          final String file = s.substring(s.lastIndexOf(File.separatorChar) + 1);
+          // skip dot files
+          if (!includeHidden && file.charAt(0) == '.') {
+            continue;
+          }
+          names.add(file);
+        }
+        Collections.sort(names);
+        directoryListings.put(dir, lastModified, names);
+        sendDirectoryListing(fileSystem, context, names, offset, limit);
+      });
+    });
+  }
 
-        final List<MIMEHeader> accepts = context.parsedHeaders().accept();
-        String accept = "text/plain";
-        String file;
+  private static int queryParam(RoutingContext context, String name, int defaultValue) {
+    final String value = context.queryParams().get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    final int parsed = Integer.parseInt(value);
+    if (parsed < 0) {
+      throw new NumberFormatException(value);
+    }
+    return parsed;
+  }
 
-        if (accepts != null) {
-          MIMEHeader header = context.parsedHeaders()
-            .findBestUserAcceptedIn(context.parsedHeaders().accept(), DIRECTORY_LISTING_ACCEPT);
+  private void sendDirectoryListing(FileSystem fileSystem, RoutingContext context, List<String> names, int offset, int limit) {
+    final HttpServerResponse response = context.response();
+    final List<MIMEHeader> accepts = context.parsedHeaders().accept();
+    String accept = "text/plain";
 
-          if (header != null) {
-            accept = header.component() + "/" + header.subComponent();
-          }
-        }
+    if (accepts != null) {
+      MIMEHeader header = context.parsedHeaders()
+        .findBestUserAcceptedIn(context.parsedHeaders().accept(), DIRECTORY_LISTING_ACCEPT);
 
-        switch (accept) {
-          case "text/html":
-            String normalizedDir = context.normalizedPath();
-            if (!normalizedDir.endsWith("/")) {
-              normalizedDir += "/";
-            }
+      if (header != null) {
+        accept = header.component() + "/" + header.subComponent();
+      }
+    }
 
-            StringBuilder files = new StringBuilder("<ul id=\"files\">");
+    String normalizedDir = context.normalizedPath();
+    if (!normalizedDir.endsWith("/")) {
+      normalizedDir += "/";
+    }
+    final String dir = normalizedDir;
+
+    final int from = Math.min(offset, names.size());
+    final int to = (int) Math.min(names.size(), (long) from + limit);
+    String next = null;
+    if (to < names.size()) {
+      next = dir + "?offset=" + to + "&limit=" + limit;
+      response.putHeader("Link", "<" + next + ">; rel=\"next\"");
+    }
 
-            List<String> list = asyncResult.result();
-            Collections.sort(list);
+    // the listing is streamed, a directory can have many entries
+    response.setChunked(true);
 
-            for (String s : list) {
-              file = s.substring(s.lastIndexOf(File.separatorChar) + 1);
-              // skip dot files
-              if (!includeHidden && file.charAt(0) == '.') {
-                continue;
-              }
-              files.append("<li><a href=\"");
-              files.append(normalizedDir);
-              files.append(file);
-              files.append("\" title=\"");
-              files.append(file);
-              files.append("\">");
-              files.append(file);
-              files.append("</a></li>");
+    switch (accept) {
+      case "text/html":
+        final String nextLink = next == null ? "" : "<a href=\"" + escapeHtml(next) + "\">next</a>";
+        directoryTemplate(fileSystem, template -> {
+          if (template.failed()) {
+            context.fail(template.cause());
+            return;
+          }
+          // link to parent dir
+          int slashPos = 0;
+          for (int i = dir.length() - 2; i > 0; i--) {
+            if (dir.charAt(i) == '/') {
+              slashPos = i;
+              break;
             }
+          }
 
-            files.append("</ul>");
+          final String parent = "<a href=\"" + dir.substring(0, slashPos + 1) + "\">..</a>";
+          final String head = template.result()[0].replace("{directory}", dir).replace("{parent}", parent);
 
-            // link to parent dir
-            int slashPos = 0;
-            for (int i = normalizedDir.length() - 2; i > 0; i--) {
-              if (normalizedDir.charAt(i) == '/') {
-                slashPos = i;
-                break;
-              }
-            }
+          response.putHeader(HttpHeaders.CONTENT_TYPE, "text/html");
+          if (template.result()[1] == null) {
+            // the template doesn't list the files
+            response.end(head);
+            return;
+          }
+          final String tail = template.result()[1].replace("{directory}", dir).replace("{parent}", parent);
+          response.write(head + "<ul id=\"files\">");
+          writeDirectoryListing(response, names, from, to, (sb, idx, file) -> {
+            final String escaped = escapeHtml(file);
+            sb.append("<li><a href=\"")
+              .append(dir)
+              .append(escaped)
+              .append("\" title=\"")
+              .append(escaped)
+              .append("\">")
+              .append(escaped)
+              .append("</a></li>");
+          }, "</ul>" + nextLink + tail);
+        });
+        break;
+      case "application/json":
+        response.putHeader(HttpHeaders.CONTENT_TYPE, "application/json");
+        response.write("[");
+        writeDirectoryListing(response, names, from, to, (sb, idx, file) -> {
+          if (idx != from) {
+            sb.append(',');
+          }
+          sb.append(Json.encode(file));
+        }, "]");
+        break;
+      default:
+        response.putHeader(HttpHeaders.CONTENT_TYPE, "text/plain");
+        writeDirectoryListing(response, names, from, to, (sb, idx, file) -> sb.append(file).append('\n'), null);
+    }
+  }
 
-            String parent = "<a href=\"" + normalizedDir.substring(0, slashPos + 1) + "\">..</a>";
-
-            response
-              .putHeader(HttpHeaders.CONTENT_TYPE, "text/html")
-              .end(
-                directoryTemplate(fileSystem).replace("{directory}", normalizedDir)
-                  .replace("{parent}", parent)
-                  .replace("{files}", files.toString()));
-            break;
-          case "application/json":
-            JsonArray json = new JsonArray();
-
-            for (String s : asyncResult.result()) {
-              file = s.substring(s.lastIndexOf(File.separatorChar) + 1);
-              // skip dot files
-              if (!includeHidden && file.charAt(0) == '.') {
-                continue;
-              }
-              json.add(file);
-            }
-            response
-              .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
-              .end(json.encode());
-            break;
-          default:
-            StringBuilder buffer = new StringBuilder();
-
-            for (String s : asyncResult.result()) {
-              file = s.substring(s.lastIndexOf(File.separatorChar) + 1);
-              // skip dot files
-              if (!includeHidden && file.charAt(0) == '.') {
-                continue;
-              }
-              buffer.append(file);
-              buffer.append('\n');
-            }
+  /**
+   * Renders an entry of a directory listing.
+   */
+  @FunctionalInterface
+  private interface DirectoryListingEntry {
+    void append(StringBuilder sb, int idx, String file);
+  }
+
+  // the entries of a directory listing written at once
+  private static final int DIRECTORY_LISTING_CHUNK_SIZE = 512;
+
+  private void writeDirectoryListing(HttpServerResponse response, List<String> names, int from, int to, DirectoryListingEntry entry, String tail) {
+    final StringBuilder sb = new StringBuilder();
+    int idx = from;
+    while (idx < to) {
+      if (response.closed()) {
+        return;
+      }
+      sb.setLength(0);
+      final int end = Math.min(to, idx + DIRECTORY_LISTING_CHUNK_SIZE);
+      for (; idx < end; idx++) {
+        entry.append(sb, idx, names.get(idx));
+      }
+      response.write(sb.toString());
+      if (response.writeQueueFull()) {
+        final int next = idx;
+        response.drainHandler(v -> writeDirectoryListing(response, names, next, to, entry, tail));
+        return;
+      }
+    }
+    if (tail != null) {
+      response.end(tail);
+    } else {
+      response.end();
+    }
+  }
 
-            response
-              .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
-              .end(buffer.toString());
+  private static String escapeHtml(String value) {
+    StringBuilder sb = null;
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      final String replacement;
+      switch (c) {
+        case '&':
+          replacement = "&amp;";
+          break;
+        case '<':
+          replacement = "&lt;";
+          break;
+        case '>':
+          replacement = "&gt;";
+          break;
+        case '"':
+          replacement = "&quot;";
+          break;
+        default:
+          replacement = null;
+      }
+      if (replacement != null) {
+        if (sb == null) {
+          sb = new StringBuilder(value.length() + 16).append(value, 0, i);
         }
+        sb.append(replacement);
+      } else if (sb != null) {
+        sb.append(c);
       }
-    });
+    }
+    return sb == null ? value : sb.toString();
   }
 
   private String getFileExtension(String file) {
@@ -721,10 +1453,33 @@ public class StaticHandlerImpl implements StaticHandler {
 
     final FileProps props;
     final long cacheEntryTimeout;
+    // the entity tag of the content, computed on demand
+    private Future<String> etag;
 
-    private CacheEntry(FileProps props, long cacheEntryTimeout) {
+    private CacheEntry(FileProps props, long cacheEntryTimeout, Future<String> etag) {
       this.props = props;
       this.cacheEntryTimeout = cacheEntryTimeout;
+      this.etag = etag;
+    }
+
+    synchronized Future<String> etag(Supplier<Future<String>> compute) {
+      if (etag == null || etag.failed()) {
+        etag = compute.get();
+      }
+      return etag;
+    }
+
+    /**
+     * @return the entity tag to keep when the entry is replaced by an entry of the given props
+     */
+    synchronized Future<String> etag(FileProps props) {
+      if (this.props == null || props == null || etag == null || etag.failed()) {
+        return null;
+      }
+      if (this.props.size() != props.size() || this.props.lastModifiedTime() != props.lastModifiedTime()) {
+        return null;
+      }
+      return etag;
     }
 
     boolean isOutOfDate() {
@@ -736,6 +1491,123 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
+  private static final class Precompressed {
+    final String encoding;
+    final String file;
+    final FileProps props;
+
+    private Precompressed(String encoding, String file, FileProps props) {
+      this.encoding = encoding;
+      this.file = file;
+      this.props = props;
+    }
+  }
+
+  private static final class FileContent {
+    final Buffer buffer;
+    final long size;
+    final long lastModifiedTime;
+    // pre-formatted header
+    final String lastModified;
+
+    private FileContent(Buffer buffer, FileProps props) {
+      this.buffer = buffer;
+      this.size = props.size();
+      this.lastModifiedTime = props.lastModifiedTime();
+      this.lastModified = Utils.formatRFC1123DateTime(lastModifiedTime);
+    }
+
+    boolean isOutOfDate(FileProps props) {
+      return size != props.size() || lastModifiedTime != props.lastModifiedTime();
+    }
+
+    Buffer slice(long offset, long length) {
+      if (offset == 0 && length >= size) {
+        return buffer;
+      }
+      return buffer.slice((int) offset, (int) Math.min(size, offset + length));
+    }
+  }
+
+  private static class FileContentCache {
+    // access ordered, the eldest entry is the least recently used
+    private final LinkedHashMap<String, FileContent> contents = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile long maxSize = DEFAULT_MAX_CONTENT_CACHE_SIZE;
+    private volatile long maxFileSize = DEFAULT_MAX_CONTENT_CACHE_FILE_SIZE;
+    private long size;
+
+    synchronized void setMaxSize(long maxSize) {
+      if (maxSize < 0) {
+        throw new IllegalArgumentException("maxContentCacheSize must be >= 0");
+      }
+      this.maxSize = maxSize;
+      evict();
+    }
+
+    synchronized void setMaxFileSize(long maxFileSize) {
+      if (maxFileSize < 0) {
+        throw new IllegalArgumentException("maxContentCacheFileSize must be >= 0");
+      }
+      this.maxFileSize = maxFileSize;
+      // drop the contents that are now too large
+      final Iterator<FileContent> iterator = contents.values().iterator();
+      while (iterator.hasNext()) {
+        final FileContent content = iterator.next();
+        if (content.size > maxFileSize) {
+          size -= content.size;
+          iterator.remove();
+        }
+      }
+    }
+
+    boolean accepts(FileProps props) {
+      final long maxSize = this.maxSize;
+      return maxSize > 0 && props.size() <= maxFileSize && props.size() <= maxSize && props.size() <= Integer.MAX_VALUE;
+    }
+
+    FileContent get(String file, FileProps props) {
+      if (maxSize == 0) {
+        return null;
+      }
+      synchronized (this) {
+        final FileContent content = contents.get(file);
+        if (content != null && content.isOutOfDate(props)) {
+          // the file changed since it was cached
+          contents.remove(file);
+          size -= content.size;
+          return null;
+        }
+        return content;
+      }
+    }
+
+    FileContent put(String file, FileProps props, Buffer buffer) {
+      // keep the content off-heap, evicted contents are released when collected
+      final ByteBuffer direct = ByteBuffer.allocateDirect(buffer.length());
+      direct.put(buffer.getByteBuf().nioBuffer());
+      direct.flip();
+      final FileContent content = new FileContent(Buffer.buffer(Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(direct))), props);
+
+      synchronized (this) {
+        final FileContent previous = contents.put(file, content);
+        if (previous != null) {
+          size -= previous.size;
+        }
+        size += content.size;
+        evict();
+      }
+      return content;
+    }
+
+    private void evict() {
+      final Iterator<FileContent> iterator = contents.values().iterator();
+      while (size > maxSize && iterator.hasNext()) {
+        size -= iterator.next().size;
+        iterator.remove();
+      }
+    }
+  }
+
   private static class FSTune {
     // These members are all related to auto tuning of synchronous vs asynchronous file system access
     private static final int NUM_SERVES_TUNING_FS_ACCESS = 1000;
@@ -797,8 +1669,14 @@ public class StaticHandlerImpl implements StaticHandler {
     }
   }
 
+  /**
+   * The props of the files by request path. The cache is shared by the event loops and the watcher of the web root, all
+   * the accesses to the map are guarded by the cache lock.
+   */
   private static class FSPropsCache {
-    private Map<String, CacheEntry> propsCache;
+    private volatile Map<String, CacheEntry> propsCache;
+    // incremented on each invalidation, so props read before an invalidation are not cached after it
+    private long generation;
     private long cacheEntryTimeout = DEFAULT_CACHE_ENTRY_TIMEOUT;
     private int maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
 
@@ -845,13 +1723,42 @@ public class StaticHandlerImpl implements StaticHandler {
       this.cacheEntryTimeout = timeout;
     }
 
-    private void remove(String path) {
+    private synchronized void remove(String path) {
       if (propsCache != null) {
         propsCache.remove(path);
       }
     }
 
-    CacheEntry get(String key) {
+    /**
+     * Remove the entries of a changed file, the keys are request paths so they end with the path of the file relative
+     * to the web root whatever the mount point of the handler.
+     *
+     * @param path the path relative to the web root
+     * @param tree whether the entries of the files below the path must be removed too
+     */
+    synchronized void invalidate(String path, boolean tree) {
+      generation++;
+      if (propsCache != null) {
+        final String dir = path + "/";
+        propsCache.keySet().removeIf(key -> key.endsWith(path) || (tree && key.contains(dir)));
+      }
+    }
+
+    synchronized void clear() {
+      generation++;
+      if (propsCache != null) {
+        propsCache.clear();
+      }
+    }
+
+    /**
+     * @return the current generation, to read before reading the props of a file that is then {@link #put put}
+     */
+    synchronized long generation() {
+      return generation;
+    }
+
+    synchronized CacheEntry get(String key) {
       if (propsCache != null) {
         return propsCache.get(key);
       }
@@ -859,11 +1766,57 @@ public class StaticHandlerImpl implements StaticHandler {
       return null;
     }
 
-    void put(String path, FileProps props) {
+    /**
+     * @param generation the {@link #generation()} read before the props
+     * @return the entry of the props, it is not cached when the file may have changed since the props were read
+     */
+    synchronized CacheEntry put(String path, FileProps props, long generation) {
       if (propsCache != null) {
-        CacheEntry now = new CacheEntry(props, cacheEntryTimeout);
+        if (generation != this.generation) {
+          // the props were read before an invalidation, caching them could serve them forever
+          return new CacheEntry(props, cacheEntryTimeout, null);
+        }
+        // an unchanged file keeps its entity tag
+        CacheEntry previous = propsCache.get(path);
+        CacheEntry now = new CacheEntry(props, cacheEntryTimeout, previous != null ? previous.etag(props) : null);
         propsCache.put(path, now);
+        return now;
       }
+      return null;
+    }
+  }
+
+  /**
+   * The sorted entries of the recently listed directories, with the last modified time of the directory when they were
+   * read.
+   */
+  private static final class DirectoryListingCache {
+    private static final int MAX_SIZE = 64;
+
+    // access ordered, the least recently listed directories are evicted first
+    private final Map<String, DirectoryListing> listings = new LRUCache<>(16, 0.75f, true, MAX_SIZE);
+
+    synchronized List<String> get(String dir, long lastModified) {
+      final DirectoryListing listing = listings.get(dir);
+      return listing != null && listing.lastModified == lastModified ? listing.names : null;
+    }
+
+    synchronized void put(String dir, long lastModified, List<String> names) {
+      listings.put(dir, new DirectoryListing(lastModified, Collections.unmodifiableList(names)));
+    }
+
+    synchronized void clear() {
+      listings.clear();
+    }
+  }
+
+  private static final class DirectoryListing {
+    final long lastModified;
+    final List<String> names;
+
+    private DirectoryListing(long lastModified, List<String> names) {
+      this.lastModified = lastModified;
+      this.names = names;
     }
   }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.impl.logging.Logger;
+import io.vertx.core.impl.logging.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Watches a web root directory tree for changes with a {@link WatchService}, so cached file props can live until the
+ * file changes rather than expire after a timeout. The changed paths are reported relative to the root, with a leading
+ * slash, on a dedicated daemon thread.
+ * <p>
+ * Depending on the platform the watch service may be backed by polling, in which case changes are reported with some
+ * delay.
+ */
+final class WebRootWatcher implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WebRootWatcher.class);
+
+  private static final WatchEvent.Kind<?>[] KINDS = {
+    StandardWatchEventKinds.ENTRY_CREATE,
+    StandardWatchEventKinds.ENTRY_DELETE,
+    StandardWatchEventKinds.ENTRY_MODIFY
+  };
+
+  // a polling watch service checks every 10 seconds by default, the high sensitivity lowers it to 2 seconds
+  private static final WatchEvent.Modifier[] MODIFIERS = sensitivityModifiers();
+
+  private final Path root;
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+  // called with the changed path and whether the path may have been a directory
+  private final BiConsumer<String, Boolean> invalidate;
+  // called when events were lost
+  private final Runnable invalidateAll;
+  private final Thread thread;
+
+  private WebRootWatcher(Path root, WatchService watchService, BiConsumer<String, Boolean> invalidate, Runnable invalidateAll) {
+    this.root = root;
+    this.watchService = watchService;
+    this.invalidate = invalidate;
+    this.invalidateAll = invalidateAll;
+    this.thread = new Thread(this, "vert.x-web-root-watcher");
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Start watching a directory tree.
+   *
+   * @return the watcher, or {@code null} when the directory doesn't exist on the file system or cannot be watched
+   */
+  static WebRootWatcher start(String webRoot, BiConsumer<String, Boolean> invalidate, Runnable invalidateAll) {
+    final Path root = Paths.get(webRoot).toAbsolutePath().normalize();
+    if (!Files.isDirectory(root)) {
+      // the web root is only on the classpath
+      return null;
+    }
+    WatchService watchService = null;
+    try {
+      watchService = root.getFileSystem().newWatchService();
+      final WebRootWatcher watcher = new WebRootWatcher(root, watchService, invalidate, invalidateAll);
+      watcher.registerAll(root);
+      watcher.thread.start();
+      return watcher;
+    } catch (IOException | UnsupportedOperationException e) {
+      LOG.warn("Cannot watch " + root + ", cache entries will expire after their timeout", e);
+      if (watchService != null) {
+        try {
+          watchService.close();
+        } catch (IOException ignore) {
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The sensitivity modifier is JDK specific, so it is looked up reflectively and simply not used when missing.
+   */
+  private static WatchEvent.Modifier[] sensitivityModifiers() {
+    try {
+      final Class<?> clazz = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
+      return new WatchEvent.Modifier[] { (WatchEvent.Modifier) clazz.getField("HIGH").get(null) };
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      return new WatchEvent.Modifier[0];
+    }
+  }
+
+  private void registerAll(Path dir) throws IOException {
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        WatchKey key;
+        try {
+          key = dir.register(watchService, KINDS, MODIFIERS);
+        } catch (UnsupportedOperationException e) {
+          key = dir.register(watchService, KINDS);
+        }
+        keys.put(key, dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      final WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      final Path dir = keys.get(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+          invalidateAll.run();
+          continue;
+        }
+        final Path child = dir.resolve((Path) event.context());
+        // a created or deleted directory changes the props of the whole tree below it
+        final boolean tree = event.kind() != StandardWatchEventKinds.ENTRY_MODIFY;
+        invalidate.accept(relativize(child), tree);
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+          try {
+            registerAll(child);
+            // files created before the registration are not reported
+            invalidate.accept(relativize(child), true);
+          } catch (IOException e) {
+            LOG.warn("Cannot watch " + child, e);
+          }
+        }
+      }
+      if (!key.reset()) {
+        // the directory is gone
+        keys.remove(key);
+      }
+    }
+  }
+
+  private String relativize(Path path) {
+    final StringBuilder sb = new StringBuilder();
+    for (Path name : root.relativize(path)) {
+      sb.append('/').append(name);
+    }
+    return sb.toString();
+  }
+
+  void close() {
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close the watch service of " + root, e);
+    }
+  }
+}
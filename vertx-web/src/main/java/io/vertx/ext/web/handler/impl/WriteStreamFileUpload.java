@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.handler.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.streams.Pipe;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.impl.FileUploadImpl;
+
+import java.util.function.Function;
+
+/**
+ * A file upload piped to a user provided {@link WriteStream}, nothing is written to the uploads directory.
+ * <p>
+ * All the methods are expected to be called from the context of the request.
+ */
+final class WriteStreamFileUpload extends FileUploadImpl {
+
+  private final HttpServerFileUpload upload;
+  private final Promise<Void> promise = Promise.promise();
+
+  private Pipe<Buffer> pipe;
+  private boolean cancelled;
+
+  WriteStreamFileUpload(HttpServerFileUpload upload) {
+    super(null, upload);
+    this.upload = upload;
+  }
+
+  /**
+   * Start piping the upload to the stream created by the factory, the upload is paused until the stream is available.
+   *
+   * @param factory the factory creating the stream of the upload
+   * @return a future completed once the upload is fully written and the stream is ended
+   */
+  Future<Void> stream(Function<HttpServerFileUpload, Future<WriteStream<Buffer>>> factory) {
+    final Context ctx = Vertx.currentContext();
+    pipe = upload.pipe();
+    // a failed upload must not look like a complete one to the stream
+    pipe.endOnFailure(false);
+
+    Future<WriteStream<Buffer>> fut;
+    try {
+      fut = factory.apply(upload);
+    } catch (RuntimeException e) {
+      fut = Future.failedFuture(e);
+    }
+    if (fut == null) {
+      fut = Future.failedFuture(new NullPointerException("No stream returned for upload: " + upload.filename()));
+    }
+
+    fut.onComplete(ar -> {
+      if (ctx == null || ctx == Vertx.currentContext()) {
+        pipeTo(ar);
+      } else {
+        // the stream may be created on another context
+        ctx.runOnContext(v -> pipeTo(ar));
+      }
+    });
+    return promise.future();
+  }
+
+  private void pipeTo(AsyncResult<WriteStream<Buffer>> ar) {
+    if (cancelled) {
+      return;
+    }
+    if (ar.failed()) {
+      pipe.close();
+      promise.tryFail(ar.cause());
+      return;
+    }
+    pipe.to(ar.result(), res -> {
+      if (res.succeeded()) {
+        promise.tryComplete();
+      } else {
+        promise.tryFail(res.cause());
+      }
+    });
+  }
+
+  @Override
+  public boolean cancel() {
+    if (cancelled) {
+      return true;
+    }
+    if (promise.future().isComplete()) {
+      return false;
+    }
+    cancelled = true;
+    // closing the pipe resumes the upload and drops the remaining data
+    pipe.close();
+    promise.tryFail(new VertxException("Upload cancelled", true));
+    return true;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.*;
+
+/**
+ * A map backed by flat arrays of keys and values, in insertion order. Meant for the handful of entries per request
+ * maps such as the path params hold, where it allocates far less than a {@link HashMap}. Lookups are linear scans so
+ * it should not be used for large maps.
+ * <p>
+ * This class is not thread-safe
+ */
+final class ArrayMap<K, V> extends AbstractMap<K, V> {
+
+  private Object[] keys;
+  private Object[] values;
+  private int size;
+
+  ArrayMap() {
+    this(4);
+  }
+
+  ArrayMap(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < size; i++) {
+      if (Objects.equals(keys[i], key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) != -1;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    final int idx = indexOf(key);
+    return idx == -1 ? null : (V) values[idx];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    final int idx = indexOf(key);
+    if (idx != -1) {
+      final V previous = (V) values[idx];
+      values[idx] = value;
+      return previous;
+    }
+    if (size == keys.length) {
+      final int capacity = Math.max(4, size * 2);
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    final int idx = indexOf(key);
+    if (idx == -1) {
+      return null;
+    }
+    final V previous = (V) values[idx];
+    removeAt(idx);
+    return previous;
+  }
+
+  private void removeAt(int idx) {
+    final int moved = size - idx - 1;
+    if (moved > 0) {
+      System.arraycopy(keys, idx + 1, keys, idx, moved);
+      System.arraycopy(values, idx + 1, values, idx, moved);
+    }
+    size--;
+    keys[size] = null;
+    values[size] = null;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new Iterator<Entry<K, V>>() {
+          private int next;
+          private int last = -1;
+
+          @Override
+          public boolean hasNext() {
+            return next < size;
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            if (next >= size) {
+              throw new NoSuchElementException();
+            }
+            last = next++;
+            return new ArrayEntry(last);
+          }
+
+          @Override
+          public void remove() {
+            if (last == -1) {
+              throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private final class ArrayEntry implements Entry<K, V> {
+
+    private final int idx;
+
+    private ArrayEntry(int idx) {
+      this.idx = idx;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K getKey() {
+      return (K) keys[idx];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue() {
+      return (V) values[idx];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V setValue(V value) {
+      final V previous = (V) values[idx];
+      values[idx] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      final Entry<?, ?> e = (Entry<?, ?>) o;
+      return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
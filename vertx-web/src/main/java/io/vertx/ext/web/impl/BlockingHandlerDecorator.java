@@ -15,11 +15,14 @@
  */
 package io.vertx.ext.web.impl;
 
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
 
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Wraps a handler that would normally block and turn it into a non-blocking handler.
@@ -33,17 +36,34 @@ import java.util.Objects;
 public class BlockingHandlerDecorator implements Handler<RoutingContext> {
 
   private final boolean ordered;
+  private final Executor executor;
   private final Handler<RoutingContext> decoratedHandler;
 
   public BlockingHandlerDecorator(Handler<RoutingContext> decoratedHandler, boolean ordered) {
     Objects.requireNonNull(decoratedHandler);
     this.decoratedHandler = decoratedHandler;
     this.ordered = ordered;
+    this.executor = null;
+  }
+
+  /**
+   * Run the handler with an executor instead of the worker pool, e.g. one creating a virtual thread per task.
+   */
+  public BlockingHandlerDecorator(Handler<RoutingContext> decoratedHandler, Executor executor) {
+    Objects.requireNonNull(decoratedHandler);
+    Objects.requireNonNull(executor);
+    this.decoratedHandler = decoratedHandler;
+    this.ordered = false;
+    this.executor = executor;
   }
 
   @Override
   public void handle(RoutingContext context) {
     Route currentRoute = context.currentRoute();
+    if (executor != null) {
+      execute(currentRoute, context);
+      return;
+    }
     context.vertx().executeBlocking(fut -> {
       decoratedHandler.handle(new RoutingContextDecorator(currentRoute, context));
       fut.complete();
@@ -55,4 +75,20 @@ public class BlockingHandlerDecorator implements Handler<RoutingContext> {
     });
   }
 
+  private void execute(Route currentRoute, RoutingContext context) {
+    // the executor threads are not Vert.x threads, the decorated context must be told where to get back to
+    final Context eventLoop = context.vertx().getOrCreateContext();
+    final RoutingContext decorated = new RoutingContextDecorator(currentRoute, context, eventLoop);
+    try {
+      executor.execute(() -> {
+        try {
+          decoratedHandler.handle(decorated);
+        } catch (Throwable t) {
+          eventLoop.runOnContext(v -> context.fail(t));
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      context.fail(503, e);
+    }
+  }
 }
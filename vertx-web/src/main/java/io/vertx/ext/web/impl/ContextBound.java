@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Base of the request and response wrappers given to the handlers running on threads that are not Vert.x threads,
+ * e.g. the threads of a custom executor. The calls changing the state of the wrapped object run on the context of
+ * the request, in the order they are made.
+ */
+abstract class ContextBound {
+
+  private final Context context;
+  private final RoutingContext routingContext;
+
+  ContextBound(Context context, RoutingContext routingContext) {
+    this.context = context;
+    this.routingContext = routingContext;
+  }
+
+  Context context() {
+    return context;
+  }
+
+  RoutingContext routingContext() {
+    return routingContext;
+  }
+
+  private boolean onContext() {
+    return Vertx.currentContext() == context;
+  }
+
+  /**
+   * Run the action on the context, a failure of the action fails the routing context as the caller can't see it.
+   */
+  void run(Runnable action) {
+    if (onContext()) {
+      action.run();
+      return;
+    }
+    context.runOnContext(v -> {
+      try {
+        action.run();
+      } catch (RuntimeException e) {
+        routingContext.fail(e);
+      }
+    });
+  }
+
+  /**
+   * Run the action on the context, the returned future is completed with the future of the action.
+   */
+  <T> Future<T> future(Supplier<Future<T>> action) {
+    if (onContext()) {
+      return action.get();
+    }
+    final Promise<T> promise = Promise.promise();
+    context.runOnContext(v -> {
+      try {
+        action.get().onComplete(promise);
+      } catch (RuntimeException e) {
+        promise.fail(e);
+      }
+    });
+    return promise.future();
+  }
+
+  /**
+   * Run the action on the context and wait for its result, for the calls that must return a value. The calling thread
+   * is not a Vert.x thread so it can be blocked.
+   */
+  <T> T await(Supplier<T> action) {
+    if (onContext()) {
+      return action.get();
+    }
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    context.runOnContext(v -> {
+      try {
+        result.complete(action.get());
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new VertxException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new VertxException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.netty.handler.codec.DecoderResult;
+import io.vertx.codegen.annotations.Nullable;
+import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.*;
+import io.vertx.core.http.impl.HttpServerRequestInternal;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.streams.Pipe;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.RoutingContext;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.security.cert.X509Certificate;
+import java.util.Map;
+
+/**
+ * A request for the handlers running on threads that are not Vert.x threads, e.g. the threads of a custom executor.
+ * <p>
+ * The methods reading the body, setting the handlers or upgrading the request run on the context of the request, in
+ * the order they are called, the getters read the request directly. The {@link #response()} is a
+ * {@link ContextBoundResponse}.
+ */
+final class ContextBoundRequest extends ContextBound implements HttpServerRequestInternal {
+
+  private final HttpServerRequestInternal delegate;
+  private final HttpServerResponse response;
+
+  ContextBoundRequest(HttpServerRequest delegate, HttpServerResponse response, Context context, RoutingContext routingContext) {
+    super(context, routingContext);
+    this.delegate = (HttpServerRequestInternal) delegate;
+    this.response = response;
+  }
+
+  @Override
+  public HttpServerRequest body(Handler<AsyncResult<Buffer>> handler) {
+    run(() -> delegate.body(handler));
+    return this;
+  }
+
+  @Override
+  public DecoderResult decoderResult() {
+    return delegate.decoderResult();
+  }
+
+  @Override
+  public Future<Buffer> body() {
+    return future(delegate::body);
+  }
+
+  @Override
+  public long bytesRead() {
+    return delegate.bytesRead();
+  }
+
+  @Override
+  public HttpServerRequest exceptionHandler(Handler<Throwable> handler) {
+    run(() -> delegate.exceptionHandler(handler));
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest handler(Handler<Buffer> handler) {
+    run(() -> delegate.handler(handler));
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest pause() {
+    run(delegate::pause);
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest resume() {
+    run(delegate::resume);
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest fetch(long amount) {
+    run(() -> delegate.fetch(amount));
+    return this;
+  }
+
+  @Override
+  public HttpServerRequest endHandler(Handler<Void> handler) {
+    run(() -> delegate.endHandler(handler));
+    return this;
+  }
+
+  @Override
+  public HttpVersion version() {
+    return delegate.version();
+  }
+
+  @Override
+  public HttpMethod method() {
+    return delegate.method();
+  }
+
+  @Override
+  public String uri() {
+    return delegate.uri();
+  }
+
+  @Override
+  public String path() {
+    return delegate.path();
+  }
+
+  @Override
+  public String query() {
+    return delegate.query();
+  }
+
+  @Override
+  public MultiMap params() {
+    return delegate.params();
+  }
+
+  @Override
+  public String getParam(String param) {
+    return delegate.getParam(param);
+  }
+
+  @Override
+  public HttpServerResponse response() {
+    return response;
+  }
+
+  @Override
+  public MultiMap headers() {
+    return delegate.headers();
+  }
+
+  @Override
+  public String getHeader(String s) {
+    return delegate.getHeader(s);
+  }
+
+  @Override
+  public String getHeader(CharSequence charSequence) {
+    return delegate.getHeader(charSequence);
+  }
+
+  @Override
+  public SocketAddress remoteAddress() {
+    return delegate.remoteAddress();
+  }
+
+  @Override
+  public SocketAddress localAddress() {
+    return delegate.localAddress();
+  }
+
+  @Override
+  public X509Certificate[] peerCertificateChain() throws SSLPeerUnverifiedException {
+    return delegate.peerCertificateChain();
+  }
+
+  @Override
+  public SSLSession sslSession() {
+    return delegate.sslSession();
+  }
+
+  @Override
+  public String absoluteURI() {
+    return delegate.absoluteURI();
+  }
+
+  @Override
+  public String scheme() {
+    return delegate.scheme();
+  }
+
+  @Override
+  public String host() {
+    return delegate.host();
+  }
+
+  @Override
+  public HttpServerRequest customFrameHandler(Handler<HttpFrame> handler) {
+    run(() -> delegate.customFrameHandler(handler));
+    return this;
+  }
+
+  @Override
+  public HttpConnection connection() {
+    return delegate.connection();
+  }
+
+  @Override
+  public HttpServerRequest bodyHandler(Handler<Buffer> handler) {
+    run(() -> delegate.bodyHandler(handler));
+    return this;
+  }
+
+  @Override
+  public void toNetSocket(Handler<AsyncResult<NetSocket>> handler) {
+    run(() -> delegate.toNetSocket(handler));
+  }
+
+  @Override
+  public Future<NetSocket> toNetSocket() {
+    return future(delegate::toNetSocket);
+  }
+
+  @Override
+  public HttpServerRequest setExpectMultipart(boolean b) {
+    run(() -> delegate.setExpectMultipart(b));
+    return this;
+  }
+
+  @Override
+  public boolean isExpectMultipart() {
+    return delegate.isExpectMultipart();
+  }
+
+  @Override
+  public HttpServerRequest uploadHandler(Handler<HttpServerFileUpload> handler) {
+    run(() -> delegate.uploadHandler(handler));
+    return this;
+  }
+
+  @Override
+  public MultiMap formAttributes() {
+    return delegate.formAttributes();
+  }
+
+  @Override
+  public String getFormAttribute(String s) {
+    return delegate.getFormAttribute(s);
+  }
+
+  @Override
+  public int streamId() {
+    return delegate.streamId();
+  }
+
+  @Override
+  public void toWebSocket(Handler<AsyncResult<ServerWebSocket>> handler) {
+    run(() -> delegate.toWebSocket(handler));
+  }
+
+  @Override
+  public Future<ServerWebSocket> toWebSocket() {
+    return future(delegate::toWebSocket);
+  }
+
+  @Override
+  public boolean isEnded() {
+    return delegate.isEnded();
+  }
+
+  @Override
+  public boolean isSSL() {
+    return delegate.isSSL();
+  }
+
+  @Override
+  public HttpServerRequest streamPriorityHandler(Handler<StreamPriority> handler) {
+    run(() -> delegate.streamPriorityHandler(handler));
+    return this;
+  }
+
+  @Override
+  public StreamPriority streamPriority() {
+    return delegate.streamPriority();
+  }
+
+  @Override
+  public @Nullable Cookie getCookie(String name) {
+    return delegate.getCookie(name);
+  }
+
+  @Override
+  public int cookieCount() {
+    return delegate.cookieCount();
+  }
+
+  @Override
+  public Map<String, Cookie> cookieMap() {
+    return delegate.cookieMap();
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.end(handler));
+  }
+
+  @Override
+  public Future<Void> end() {
+    return future(delegate::end);
+  }
+
+  @Override
+  public HttpServerRequest routed(String route) {
+    run(() -> delegate.routed(route));
+    return this;
+  }
+
+  @Override
+  public Context context() {
+    return delegate.context();
+  }
+
+  @Override
+  public Object metric() {
+    return delegate.metric();
+  }
+
+  @Override
+  public Pipe<Buffer> pipe() {
+    // the pipe pauses the request and sets its handlers
+    return await(delegate::pipe);
+  }
+
+  @Override
+  public Future<Void> pipeTo(WriteStream<Buffer> dst) {
+    return future(() -> delegate.pipeTo(dst));
+  }
+
+  @Override
+  public void pipeTo(WriteStream<Buffer> dst, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.pipeTo(dst, handler));
+  }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.codegen.annotations.Nullable;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.StreamPriority;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A response for the handlers running on threads that are not Vert.x threads, e.g. the threads of a custom executor.
+ * <p>
+ * The methods writing or ending the response, changing its status, headers, trailers or cookies or setting its
+ * handlers run on the context of the request, in the order they are called. Methods returning a {@link Future} return
+ * a future completed once the call ran on the context, fluent methods return the wrapper right away and a failure of
+ * such a call fails the routing context. The few methods changing the response and returning a value wait for the
+ * call to run on the context.
+ * <p>
+ * The getters read the response directly, so they don't see the calls not run yet, except {@link #headers()} and
+ * {@link #trailers()} that return a copy taken on the context after the pending calls: changes to the copy are not
+ * applied to the response, {@link #putHeader(String, String)} and {@link #putTrailer(String, String)} must be used.
+ */
+final class ContextBoundResponse extends ContextBound implements HttpServerResponse {
+
+  private final HttpServerResponse delegate;
+
+  ContextBoundResponse(HttpServerResponse delegate, Context context, RoutingContext routingContext) {
+    super(context, routingContext);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public HttpServerResponse exceptionHandler(Handler<Throwable> handler) {
+    run(() -> delegate.exceptionHandler(handler));
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(Buffer data) {
+    return future(() -> delegate.write(data));
+  }
+
+  @Override
+  public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.write(data, handler));
+  }
+
+  @Override
+  public HttpServerResponse setWriteQueueMaxSize(int maxSize) {
+    run(() -> delegate.setWriteQueueMaxSize(maxSize));
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return delegate.writeQueueFull();
+  }
+
+  @Override
+  public HttpServerResponse drainHandler(Handler<Void> handler) {
+    run(() -> delegate.drainHandler(handler));
+    return this;
+  }
+
+  @Override
+  public int getStatusCode() {
+    return delegate.getStatusCode();
+  }
+
+  @Override
+  public HttpServerResponse setStatusCode(int statusCode) {
+    run(() -> delegate.setStatusCode(statusCode));
+    return this;
+  }
+
+  @Override
+  public String getStatusMessage() {
+    return delegate.getStatusMessage();
+  }
+
+  @Override
+  public HttpServerResponse setStatusMessage(String statusMessage) {
+    run(() -> delegate.setStatusMessage(statusMessage));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse setChunked(boolean chunked) {
+    run(() -> delegate.setChunked(chunked));
+    return this;
+  }
+
+  @Override
+  public boolean isChunked() {
+    return delegate.isChunked();
+  }
+
+  @Override
+  public MultiMap headers() {
+    return await(() -> MultiMap.caseInsensitiveMultiMap().addAll(delegate.headers()));
+  }
+
+  @Override
+  public HttpServerResponse putHeader(String name, String value) {
+    run(() -> delegate.putHeader(name, value));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(CharSequence name, CharSequence value) {
+    run(() -> delegate.putHeader(name, value));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(String name, Iterable<String> values) {
+    run(() -> delegate.putHeader(name, values));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putHeader(CharSequence name, Iterable<CharSequence> values) {
+    run(() -> delegate.putHeader(name, values));
+    return this;
+  }
+
+  @Override
+  public MultiMap trailers() {
+    return await(() -> MultiMap.caseInsensitiveMultiMap().addAll(delegate.trailers()));
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(String name, String value) {
+    run(() -> delegate.putTrailer(name, value));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(CharSequence name, CharSequence value) {
+    run(() -> delegate.putTrailer(name, value));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(String name, Iterable<String> values) {
+    run(() -> delegate.putTrailer(name, values));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse putTrailer(CharSequence name, Iterable<CharSequence> value) {
+    run(() -> delegate.putTrailer(name, value));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse closeHandler(@Nullable Handler<Void> handler) {
+    run(() -> delegate.closeHandler(handler));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse endHandler(@Nullable Handler<Void> handler) {
+    run(() -> delegate.endHandler(handler));
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(String chunk, String enc) {
+    return future(() -> delegate.write(chunk, enc));
+  }
+
+  @Override
+  public void write(String chunk, String enc, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.write(chunk, enc, handler));
+  }
+
+  @Override
+  public Future<Void> write(String chunk) {
+    return future(() -> delegate.write(chunk));
+  }
+
+  @Override
+  public void write(String chunk, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.write(chunk, handler));
+  }
+
+  @Override
+  public HttpServerResponse writeContinue() {
+    run(delegate::writeContinue);
+    return this;
+  }
+
+  @Override
+  public Future<Void> end(String chunk) {
+    return future(() -> delegate.end(chunk));
+  }
+
+  @Override
+  public void end(String chunk, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.end(chunk, handler));
+  }
+
+  @Override
+  public Future<Void> end(String chunk, String enc) {
+    return future(() -> delegate.end(chunk, enc));
+  }
+
+  @Override
+  public void end(String chunk, String enc, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.end(chunk, enc, handler));
+  }
+
+  @Override
+  public Future<Void> end(Buffer chunk) {
+    return future(() -> delegate.end(chunk));
+  }
+
+  @Override
+  public void end(Buffer chunk, Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.end(chunk, handler));
+  }
+
+  @Override
+  public Future<Void> end() {
+    return future(delegate::end);
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    run(() -> delegate.end(handler));
+  }
+
+  @Override
+  public Future<Void> sendFile(String filename, long offset, long length) {
+    return future(() -> delegate.sendFile(filename, offset, length));
+  }
+
+  @Override
+  public HttpServerResponse sendFile(String filename, long offset, long length, Handler<AsyncResult<Void>> resultHandler) {
+    run(() -> delegate.sendFile(filename, offset, length, resultHandler));
+    return this;
+  }
+
+  @Override
+  public void close() {
+    run(delegate::close);
+  }
+
+  @Override
+  public boolean ended() {
+    return delegate.ended();
+  }
+
+  @Override
+  public boolean closed() {
+    return delegate.closed();
+  }
+
+  @Override
+  public boolean headWritten() {
+    return delegate.headWritten();
+  }
+
+  @Override
+  public HttpServerResponse headersEndHandler(@Nullable Handler<Void> handler) {
+    run(() -> delegate.headersEndHandler(handler));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse bodyEndHandler(@Nullable Handler<Void> handler) {
+    run(() -> delegate.bodyEndHandler(handler));
+    return this;
+  }
+
+  @Override
+  public long bytesWritten() {
+    return delegate.bytesWritten();
+  }
+
+  @Override
+  public int streamId() {
+    return delegate.streamId();
+  }
+
+  @Override
+  public Future<HttpServerResponse> push(HttpMethod method, String host, String path, MultiMap headers) {
+    // the pushed response is used from the same thread
+    return this.<HttpServerResponse>future(() -> delegate.push(method, host, path, headers))
+      .map(pushed -> new ContextBoundResponse(pushed, context(), routingContext()));
+  }
+
+  @Override
+  public boolean reset(long code) {
+    return await(() -> delegate.reset(code));
+  }
+
+  @Override
+  public HttpServerResponse writeCustomFrame(int type, int flags, Buffer payload) {
+    run(() -> delegate.writeCustomFrame(type, flags, payload));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse setStreamPriority(StreamPriority streamPriority) {
+    run(() -> delegate.setStreamPriority(streamPriority));
+    return this;
+  }
+
+  @Override
+  public HttpServerResponse addCookie(Cookie cookie) {
+    run(() -> delegate.addCookie(cookie));
+    return this;
+  }
+
+  @Override
+  public @Nullable Cookie removeCookie(String name, boolean invalidate) {
+    return await(() -> delegate.removeCookie(name, invalidate));
+  }
+}
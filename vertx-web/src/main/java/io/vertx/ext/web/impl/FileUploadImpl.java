@@ -16,6 +16,7 @@
 
 package io.vertx.ext.web.impl;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerFileUpload;
 import io.vertx.ext.web.FileUpload;
 
@@ -42,6 +43,11 @@ public class FileUploadImpl implements FileUpload {
     return uploadedFileName;
   }
 
+  @Override
+  public Buffer content() {
+    return null;
+  }
+
   @Override
   public String fileName() {
     return upload.filename();
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.netty.util.AsciiString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * RFC 1123 dates as used in the HTTP headers, formatted at most once per second.
+ * <p>
+ * The dates have a one second resolution, so the last formatted second is kept pre-encoded as an {@link AsciiString}
+ * and shared by all the threads. It can be set on the response headers and written to the wire without any further
+ * encoding.
+ */
+public final class HttpDate {
+
+  private static final ZoneId ZONE_GMT = ZoneId.of("GMT");
+
+  private static volatile Entry cached = new Entry(Long.MIN_VALUE, AsciiString.EMPTY_STRING);
+
+  private HttpDate() {
+  }
+
+  /**
+   * @return the current date
+   */
+  public static AsciiString now() {
+    return format(System.currentTimeMillis());
+  }
+
+  /**
+   * Format a date, the most recent second is cached so formatting the current time is cheap. Older dates, e.g. a file
+   * modification time, are formatted on each call and do not evict the cached second.
+   *
+   * @param millis the date in milliseconds since the epoch
+   * @return the formatted date
+   */
+  public static AsciiString format(long millis) {
+    final long second = Math.floorDiv(millis, 1000);
+    final Entry entry = cached;
+    if (entry.second == second) {
+      return entry.value;
+    }
+    final AsciiString value = encode(millis);
+    if (second > entry.second) {
+      // a race may only keep an older second, which is formatted again next time
+      cached = new Entry(second, value);
+    }
+    return value;
+  }
+
+  private static AsciiString encode(long millis) {
+    final String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZONE_GMT));
+    // the bytes are not copied, so the backing array is exactly the encoded date
+    return new AsciiString(date.getBytes(StandardCharsets.US_ASCII), false);
+  }
+
+  private static final class Entry {
+    final long second;
+    final AsciiString value;
+
+    Entry(long second, AsciiString value) {
+      this.second = second;
+      this.value = value;
+    }
+  }
+}
@@ -22,7 +22,9 @@ import java.util.Map;
 class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   private final HttpServerRequestInternal delegate;
-  private final ForwardedParser forwardedParser;
+  private final AllowForwardHeaders allowForward;
+  // created on first use
+  private ForwardedParser forwardedParser;
 
   private boolean modified;
 
@@ -35,7 +37,14 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   HttpServerRequestWrapper(HttpServerRequest request, AllowForwardHeaders allowForward) {
     delegate = (HttpServerRequestInternal) request;
-    forwardedParser = new ForwardedParser(delegate, allowForward);
+    this.allowForward = allowForward;
+  }
+
+  private ForwardedParser forwardedParser() {
+    if (forwardedParser == null) {
+      forwardedParser = new ForwardedParser(delegate, allowForward);
+    }
+    return forwardedParser;
   }
 
   void changeTo(HttpMethod method, String uri) {
@@ -218,7 +227,7 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   @Override
   public SocketAddress remoteAddress() {
-    return forwardedParser.remoteAddress();
+    return forwardedParser().remoteAddress();
   }
 
   @Override
@@ -239,11 +248,11 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
   @Override
   public String absoluteURI() {
     if (!modified) {
-      return forwardedParser.absoluteURI();
+      return forwardedParser().absoluteURI();
     } else {
       if (absoluteURI == null) {
-        String scheme = forwardedParser.scheme();
-        String host = forwardedParser.host();
+        String scheme = forwardedParser().scheme();
+        String host = forwardedParser().host();
 
         // if both are not null we can rebuild the uri
         if (scheme != null && host != null) {
@@ -259,12 +268,12 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   @Override
   public String scheme() {
-    return forwardedParser.scheme();
+    return forwardedParser().scheme();
   }
 
   @Override
   public String host() {
-    return forwardedParser.host();
+    return forwardedParser().host();
   }
 
   @Override
@@ -351,7 +360,7 @@ class HttpServerRequestWrapper implements HttpServerRequestInternal {
 
   @Override
   public boolean isSSL() {
-    return forwardedParser.isSSL();
+    return forwardedParser().isSSL();
   }
 
   @Override
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled path template such as {@code /users/:id/orders/:oid} or {@code /users/:id/*}, matched without regular
+ * expressions.
+ * <p>
+ * Only plain templates are compiled: every parameter must span until the end of its segment. This is the case where
+ * the {@code [^/]+} expression generated for the parameter never backtracks, so walking the path once gives the same
+ * result as the regular expression. Any other template (e.g.: {@code /:from-:to}) keeps using the pattern.
+ * <p>
+ * This class is thread-safe
+ */
+final class PathTemplate {
+
+  // characters interpreted by the regular expression generated for the template or clashing with param names
+  private static final String UNESCAPED_REGEX_CHARS = "*?[]{}|^\\$";
+
+  // literals[i] precedes the param i, the last literal follows the last param
+  private final String[] literals;
+  private final boolean rest;
+
+  private PathTemplate(String[] literals, boolean rest) {
+    this.literals = literals;
+    this.rest = rest;
+  }
+
+  /**
+   * Compile a path template.
+   *
+   * @param path the route path, including the final {@code *} if any
+   * @param tokenSearch the pattern used by the route to find the params
+   * @return the template or {@code null} if the path cannot be matched without a regular expression
+   */
+  static PathTemplate compile(String path, Pattern tokenSearch) {
+    final boolean rest = path.charAt(path.length() - 1) == '*';
+    final String template = rest ? path.substring(0, path.length() - 1) : path;
+
+    for (int i = 0; i < template.length(); i++) {
+      if (UNESCAPED_REGEX_CHARS.indexOf(template.charAt(i)) != -1) {
+        return null;
+      }
+    }
+
+    final List<String> literals = new ArrayList<>();
+    final Matcher m = tokenSearch.matcher(template);
+    int last = 0;
+    while (m.find()) {
+      final int end = m.end();
+      if (end < template.length() && template.charAt(end) != '/') {
+        // the param doesn't end the segment
+        return null;
+      }
+      literals.add(template.substring(last, m.start()));
+      last = end;
+    }
+    literals.add(template.substring(last));
+
+    if (literals.size() == 1) {
+      // no params
+      return null;
+    }
+    for (String literal : literals) {
+      if (literal.indexOf(':') != -1) {
+        return null;
+      }
+    }
+
+    return new PathTemplate(literals.toArray(new String[0]), rest);
+  }
+
+  /**
+   * @return the number of groups the equivalent regular expression would capture, params followed by the rest.
+   */
+  int groupCount() {
+    return rest ? literals.length : literals.length - 1;
+  }
+
+  /**
+   * Match the path against the template.
+   *
+   * @param path the request path
+   * @param offsets an array of {@code 2 * groupCount()} elements that receives the start and end of each group
+   * @return true if the path matches
+   */
+  boolean matches(String path, int[] offsets) {
+    final int len = path.length();
+    final int params = literals.length - 1;
+    int pos = 0;
+
+    for (int i = 0; i < params; i++) {
+      final String literal = literals[i];
+      if (!path.startsWith(literal, pos)) {
+        return false;
+      }
+      pos += literal.length();
+      int end = path.indexOf('/', pos);
+      if (end == -1) {
+        end = len;
+      }
+      if (end == pos) {
+        // params can't be empty
+        return false;
+      }
+      offsets[2 * i] = pos;
+      offsets[2 * i + 1] = end;
+      pos = end;
+    }
+
+    final String literal = literals[params];
+    if (!path.startsWith(literal, pos)) {
+      return false;
+    }
+    pos += literal.length();
+
+    if (rest) {
+      offsets[2 * params] = pos;
+      offsets[2 * params + 1] = len;
+      return true;
+    }
+    return pos == len;
+  }
+
+  @Override
+  public String toString() {
+    return "PathTemplate{" +
+      "literals=" + String.join(":", literals) +
+      ", rest=" + rest +
+      '}';
+  }
+}
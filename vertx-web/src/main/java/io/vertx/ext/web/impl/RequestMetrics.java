@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.ext.web.RouteMetrics;
+
+/**
+ * Tracks the route handling a request and the timings of its response, created only when the router has
+ * {@link RouteMetrics}.
+ * <p>
+ * This class is not thread-safe, as the routing context it belongs to
+ */
+final class RequestMetrics {
+
+  private final RouteMetrics metrics;
+  private final long start = System.nanoTime();
+  private long firstByte = -1;
+
+  private String mountPoint;
+  private RouteState route;
+
+  RequestMetrics(RouteMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  void routed(String mountPoint, RouteState route) {
+    this.mountPoint = mountPoint;
+    this.route = route;
+  }
+
+  void unmatched() {
+    this.mountPoint = null;
+    this.route = null;
+  }
+
+  void headersEnd() {
+    firstByte = System.nanoTime();
+  }
+
+  void bodyEnd(int statusCode) {
+    final long end = System.nanoTime();
+    metrics.requestEnd(
+      route(),
+      statusCode,
+      end - start,
+      (firstByte == -1 ? end : firstByte) - start);
+  }
+
+  private String route() {
+    if (route == null) {
+      return null;
+    }
+    if (route.isNamed()) {
+      return route.getName();
+    }
+    // routes without path are reported by their mount point
+    final String name = route.getName() == null ? "*" : route.getName();
+    if (mountPoint == null || mountPoint.isEmpty()) {
+      return name;
+    }
+    if (mountPoint.endsWith("/") && name.startsWith("/")) {
+      return mountPoint.substring(0, mountPoint.length() - 1) + name;
+    }
+    return mountPoint + name;
+  }
+}
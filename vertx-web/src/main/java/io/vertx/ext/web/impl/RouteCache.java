@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.http.HttpMethod;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of route lookups keyed by request method, mount point and normalized path. Each entry holds the
+ * candidates of the lookup without the routes that are known not to match such requests, and the memoized matches of
+ * the others.
+ * <p>
+ * The cache belongs to a {@link RouteIndex} so it is discarded with any change of the router state. The least recently
+ * used lookups are evicted when it is full, so the URLs that are requested the most stay cached. The entries are
+ * spread over segments with their own lock, to limit the contention between the event loops.
+ * <p>
+ * This class is thread-safe
+ */
+final class RouteCache {
+
+  private static final int MAX_SEGMENTS = 16;
+  // a segment smaller than this would evict too early when the keys are not evenly spread
+  private static final int MIN_SEGMENT_SIZE = 32;
+
+  private final RouterImpl router;
+  private final Map<Key, RouteIndex.Candidates>[] segments;
+
+  @SuppressWarnings("unchecked")
+  RouteCache(int maxSize, RouterImpl router) {
+    this.router = router;
+    int count = 1;
+    while (count < MAX_SEGMENTS && maxSize / (count * 2) >= MIN_SEGMENT_SIZE) {
+      count *= 2;
+    }
+    final int segmentSize = (maxSize + count - 1) / count;
+    this.segments = new Map[count];
+    for (int i = 0; i < count; i++) {
+      // access ordered, the eldest entry is the least recently used
+      segments[i] = new LRUCache<>(16, 0.75f, true, segmentSize);
+    }
+  }
+
+  RouteIndex.Candidates get(HttpMethod method, String mountPoint, String path) {
+    final Key key = new Key(method, mountPoint, path);
+    final Map<Key, RouteIndex.Candidates> segment = segment(key);
+    final RouteIndex.Candidates candidates;
+    synchronized (segment) {
+      candidates = segment.get(key);
+    }
+    if (candidates == null) {
+      router.countRouteCacheMiss();
+    } else {
+      router.countRouteCacheHit();
+    }
+    return candidates;
+  }
+
+  void put(HttpMethod method, String mountPoint, String path, RouteIndex.Candidates candidates) {
+    final Key key = new Key(method, mountPoint, path);
+    final Map<Key, RouteIndex.Candidates> segment = segment(key);
+    synchronized (segment) {
+      segment.put(key, candidates);
+    }
+  }
+
+  private Map<Key, RouteIndex.Candidates> segment(Key key) {
+    final int h = key.hashCode();
+    return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+  }
+
+  private static final class Key {
+    private final HttpMethod method;
+    private final String mountPoint;
+    private final String path;
+
+    private Key(HttpMethod method, String mountPoint, String path) {
+      this.method = method;
+      this.mountPoint = mountPoint;
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return method.equals(key.method) && path.equals(key.path) && Objects.equals(mountPoint, key.mountPoint);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * method.hashCode() + path.hashCode()) + Objects.hashCode(mountPoint);
+    }
+  }
+}
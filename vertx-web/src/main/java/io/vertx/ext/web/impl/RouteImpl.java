@@ -23,6 +23,7 @@ import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -75,6 +76,7 @@ public class RouteImpl implements Route {
   @Override
   public synchronized Route method(HttpMethod method) {
     state = state.addMethod(method);
+    checkModified();
     return this;
   }
 
@@ -82,24 +84,28 @@ public class RouteImpl implements Route {
   public Route path(String path) {
     checkPath(path);
     setPath(path);
+    checkModified();
     return this;
   }
 
   @Override
   public Route pathRegex(String regex) {
     setRegex(regex);
+    checkModified();
     return this;
   }
 
   @Override
   public synchronized Route produces(String contentType) {
     state = state.addProduce(new ParsableMIMEValue(contentType).forceParse());
+    checkModified();
     return this;
   }
 
   @Override
   public synchronized Route consumes(String contentType) {
     state = state.addConsume(new ParsableMIMEValue(contentType).forceParse());
+    checkModified();
     return this;
   }
 
@@ -112,6 +118,7 @@ public class RouteImpl implements Route {
             .replaceAll("\\.", "\\\\.")
             .replaceAll("[*]", "(.*?)"), Pattern.CASE_INSENSITIVE));
 
+    checkModified();
     return this;
   }
 
@@ -135,6 +142,10 @@ public class RouteImpl implements Route {
       throw new IllegalStateException("This Route is exclusive for already mounted sub router.");
     }
     state = state.addContextHandler(contextHandler);
+    if (state.getContextHandlersLength() == 1) {
+      // the route now matches requests that are not failed
+      checkModified();
+    }
 
     checkAdd();
     return this;
@@ -161,10 +172,21 @@ public class RouteImpl implements Route {
       throw new IllegalStateException("Only one sub router per Route object is allowed.");
     }
 
+    // known before the route is added, so the router can inline it
+    this.state = state.setSubRouter(subRouter);
+
     handler(subRouter::handleContext);
     failureHandler(subRouter::handleFailure);
 
     subRouter.modifiedHandler(this::validateMount);
+    if (subRouter instanceof RouterImpl) {
+      ((RouterImpl) subRouter).changeListener(r -> {
+        // the parent router may have inlined the sub router routes
+        if (state.isAdded()) {
+          router.routeModified();
+        }
+      });
+    }
 
     // trigger a validation
     validateMount(subRouter);
@@ -179,6 +201,11 @@ public class RouteImpl implements Route {
     return handler(new BlockingHandlerDecorator(contextHandler, ordered));
   }
 
+  @Override
+  public Route blockingHandler(Handler<RoutingContext> contextHandler, Executor executor) {
+    return handler(new BlockingHandlerDecorator(contextHandler, executor));
+  }
+
   @Override
   public synchronized Route failureHandler(Handler<RoutingContext> exceptionHandler) {
     if (state.isExclusive()) {
@@ -186,6 +213,10 @@ public class RouteImpl implements Route {
     }
 
     state = state.addFailureHandler(exceptionHandler);
+    if (state.getFailureHandlersLength() == 1) {
+      // the route now matches failed requests
+      checkModified();
+    }
     checkAdd();
     return this;
   }
@@ -199,18 +230,21 @@ public class RouteImpl implements Route {
   @Override
   public synchronized Route disable() {
     state = state.setEnabled(false);
+    checkModified();
     return this;
   }
 
   @Override
   public synchronized Route enable() {
     state = state.setEnabled(true);
+    checkModified();
     return this;
   }
 
   @Override
   public synchronized Route useNormalizedPath(boolean useNormalizedPath) {
     state = state.setUseNormalizedPath(useNormalizedPath);
+    checkModified();
     return this;
   }
 
@@ -293,6 +327,7 @@ public class RouteImpl implements Route {
 
   private synchronized void setRegex(String regex) {
     state = state.setPattern(Pattern.compile(regex));
+    state = state.setTemplate(null);
     state = state.setExactPath(true);
     findNamedGroups(state.getPattern().pattern());
   }
@@ -318,6 +353,8 @@ public class RouteImpl implements Route {
   private static final Pattern RE_OPERATORS_NO_STAR = Pattern.compile("([\\(\\)\\$\\+\\.])");
 
   private synchronized int createPatternRegex(String path) {
+    // plain templates are matched without the regex
+    state = state.setTemplate(PathTemplate.compile(path, RE_TOKEN_SEARCH));
     // escape path from any regex special chars
     path = RE_OPERATORS_NO_STAR.matcher(path).replaceAll("\\\\$1");
     // allow usage of * at the end as per documentation
@@ -368,6 +405,13 @@ public class RouteImpl implements Route {
     }
   }
 
+  private synchronized void checkModified() {
+    // active routes are indexed by the router
+    if (state.isAdded()) {
+      router.routeModified();
+    }
+  }
+
   public synchronized RouteImpl setEmptyBodyPermittedWithConsumes(boolean emptyBodyPermittedWithConsumes) {
     state = state.setEmptyBodyPermittedWithConsumes(emptyBodyPermittedWithConsumes);
     return this;
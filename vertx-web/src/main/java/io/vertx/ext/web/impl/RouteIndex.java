@@ -0,0 +1,652 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Router;
+
+import java.util.*;
+
+/**
+ * A compiled view over the routes of a {@link RouterState}. Routes are organized in a prefix tree of path segments
+ * (literal segments and {@code :param} segments) so that for a given request only the routes that can possibly match
+ * the path are returned, in the same order the router would have visited them.
+ * <p>
+ * Each position of the tree keeps the routes in buckets per HTTP method plus a bucket for routes accepting any method,
+ * so routes restricted to other methods are not evaluated. They are only consulted, through
+ * {@link Candidates#mismatched(int)}, when nothing matched and the router must decide between 404 and 405.
+ * <p>
+ * The index is conservative: it may return routes that will not match (the final decision is always taken by
+ * {@link RouteState#matches(RoutingContextImplBase, String, boolean)}) but it never omits a route that could match.
+ * Routes that cannot be indexed by path (no path, regular expressions, non normalized paths) are always returned.
+ * <p>
+ * When built with {@link #inline(Collection, RouteCache)} the routes of mounted sub routers are part of the index, each one
+ * carrying the {@link Mount} that must match before the route itself is evaluated.
+ * <p>
+ * When a {@link RouteCache} is given, lookups for the same request method, mount point and normalized path share the
+ * same candidates, from which the routes known not to match were removed. The routes whose match only depends on the
+ * method and normalized path carry their {@link Match}, which is replayed instead of evaluating the route again.
+ * <p>
+ * This class is thread-safe
+ */
+final class RouteIndex {
+
+  private static final int[] EMPTY = new int[0];
+
+  // characters that are interpreted by the regular expression generated for a path template
+  private static final String UNESCAPED_REGEX_CHARS = "*?[]{}|^\\";
+
+  private final RouteImpl[] routes;
+  // the mount of each inlined route, null when sub routers are not inlined
+  private final Mount[] mounts;
+  // the methods of each route when the index was built
+  private final List<Set<HttpMethod>> methods;
+  private final Node root = new Node();
+  // routes that are evaluated for every request
+  private final Bucket unindexed = new Bucket();
+  // all the routes, used when the path cannot be resolved with the index
+  private final Bucket all = new Bucket();
+  // optional cache of the lookups
+  private final RouteCache cache;
+
+  RouteIndex(Collection<RouteImpl> routes, RouteCache cache) {
+    this(routes.toArray(new RouteImpl[0]), null, cache);
+  }
+
+  private RouteIndex(RouteImpl[] routes, Mount[] mounts, RouteCache cache) {
+    this.routes = routes;
+    this.mounts = mounts;
+    this.cache = cache;
+    this.methods = new ArrayList<>(this.routes.length);
+    for (int i = 0; i < this.routes.length; i++) {
+      final RouteState state = this.routes[i].state();
+      methods.add(state.getMethods());
+      all.add(i, state.getMethods());
+      final Mount mount = mounts == null ? null : mounts[i];
+      add(i, state, mount == null ? state.getPath() : mount.path(state));
+    }
+  }
+
+  /**
+   * Build an index where the routes of mounted sub routers replace the route mounting them, recursively.
+   * <p>
+   * Only routes mounting a {@link RouterImpl} by path alone can be inlined (see {@link RouteState#isInlinableMount()}),
+   * any other mount keeps delegating to the sub router at runtime. As the sub router routes take the position of the
+   * mount route, the order of evaluation is the same as if the request had been forwarded to the sub router.
+   *
+   * @param routes the routes of the root router
+   * @param cache the lookup cache or {@code null}
+   */
+  static RouteIndex inline(Collection<RouteImpl> routes, RouteCache cache) {
+    final List<RouteImpl> inlined = new ArrayList<>();
+    final List<Mount> mounts = new ArrayList<>();
+    inline(routes, null, new HashSet<>(), inlined, mounts);
+    return new RouteIndex(inlined.toArray(new RouteImpl[0]), mounts.toArray(new Mount[0]), cache);
+  }
+
+  private static void inline(Collection<RouteImpl> routes, Mount parent, Set<Router> visiting, List<RouteImpl> inlined, List<Mount> mounts) {
+    for (RouteImpl route : routes) {
+      final RouteState state = route.state();
+      // a router mounted in itself cannot be inlined
+      if (state.isInlinableMount() && visiting.add(state.getSubRouter())) {
+        final RouterImpl subRouter = (RouterImpl) state.getSubRouter();
+        inline(subRouter.state().getRoutes(), new Mount(parent, route, state.getPath()), visiting, inlined, mounts);
+        visiting.remove(subRouter);
+      } else {
+        inlined.add(route);
+        mounts.add(parent);
+      }
+    }
+  }
+
+  /**
+   * @param failed whether the lookup is for failure handlers, in which case the cache isn't used
+   * @return the routes that may match the current request, respecting the route order.
+   */
+  Candidates candidates(RoutingContextImplBase context, String mountPoint, boolean failed) {
+    if (cache == null || failed) {
+      return candidates(context, mountPoint);
+    }
+
+    final String path;
+    try {
+      path = context.normalizedPath();
+    } catch (IllegalArgumentException e) {
+      return candidates(context, mountPoint);
+    }
+
+    final HttpMethod method = context.request().method();
+    final Candidates cached = cache.get(method, mountPoint, path);
+    if (cached != null) {
+      return new Candidates(cached);
+    }
+
+    final Candidates filtered = candidates(context, mountPoint).filter(path, mountPoint);
+    cache.put(method, mountPoint, path, filtered);
+    return new Candidates(filtered);
+  }
+
+  private Candidates candidates(RoutingContextImplBase context, String mountPoint) {
+    final HttpMethod method = context.request().method();
+    final Candidates found = new Candidates(method);
+
+    if (unindexed.size == routes.length) {
+      // nothing to filter
+      found.add(all);
+      return found;
+    }
+
+    final String path;
+    try {
+      path = context.normalizedPath();
+    } catch (IllegalArgumentException e) {
+      // let the routes report the failure as they always did
+      found.add(all);
+      return found;
+    }
+
+    int start = 0;
+    if (mountPoint != null) {
+      int strip = mountPoint.length();
+      // mount point can have significant slash
+      if (strip > 0 && mountPoint.charAt(strip - 1) == '/') {
+        strip--;
+      }
+      if (!path.regionMatches(0, mountPoint, 0, strip)) {
+        // the normalized path isn't below the mount point, the index cannot help
+        found.add(all);
+        return found;
+      }
+      start = strip;
+    }
+
+    found.add(unindexed);
+
+    if (start == path.length()) {
+      // the request is the mount point itself
+      collect(root, path, start, found);
+    } else if (path.charAt(start) == '/') {
+      collect(root, path, start + 1, found);
+    } else {
+      // the request only shares a prefix with the mount point
+      found.add(root.prefix);
+    }
+
+    return found;
+  }
+
+  private void collect(Node node, String path, int start, Candidates found) {
+    final int len = path.length();
+
+    found.add(node.prefix);
+
+    if (start >= len) {
+      // the path ends at this node
+      found.add(node.exact);
+      return;
+    }
+
+    if (node.partials != null) {
+      for (Map.Entry<String, Bucket> partial : node.partials.entrySet()) {
+        if (path.startsWith(partial.getKey(), start)) {
+          found.add(partial.getValue());
+        }
+      }
+    }
+
+    int end = path.indexOf('/', start);
+    if (end == -1) {
+      end = len;
+    }
+    final int next = end == len ? len : end + 1;
+
+    if (node.children != null) {
+      Node child = node.children.get(path.substring(start, end));
+      if (child != null) {
+        collect(child, path, next, found);
+      }
+    }
+    // params never match empty segments
+    if (node.param != null && end > start) {
+      collect(node.param, path, next, found);
+    }
+  }
+
+  private void add(int idx, RouteState state, String path) {
+    final Set<HttpMethod> methods = state.getMethods();
+
+    if (path == null || !state.isUseNormalizedPath() || (state.getPattern() != null && !isPlainTemplate(path))) {
+      unindexed.add(idx, methods);
+      return;
+    }
+
+    final int len = path.length();
+    Node node = root;
+    int start = 1;
+
+    while (true) {
+      int end = path.indexOf('/', start);
+      if (end == -1) {
+        // last segment
+        if (state.isExactPath()) {
+          if (start < len) {
+            node = node.child(path.substring(start));
+          }
+          node.exact.add(idx, methods);
+        } else {
+          if (start == len) {
+            // the path ends with a slash, everything below this node is a candidate
+            node.prefix.add(idx, methods);
+          } else {
+            String segment = path.substring(start);
+            if (segment.indexOf(':') != -1) {
+              node.prefix.add(idx, methods);
+            } else {
+              // a plain prefix e.g.: /foo* matches /foobar
+              node.partial(segment).add(idx, methods);
+            }
+          }
+        }
+        return;
+      }
+      node = node.child(path.substring(start, end));
+      start = end + 1;
+    }
+  }
+
+  private static boolean isPlainTemplate(String path) {
+    // the path generated the pattern, it can only be indexed if the pattern was derived from params
+    if (path.indexOf(':') == -1) {
+      return false;
+    }
+    for (int i = 0; i < path.length(); i++) {
+      if (UNESCAPED_REGEX_CHARS.indexOf(path.charAt(i)) != -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int[] append(int[] array, int value) {
+    int[] copy = Arrays.copyOf(array, array.length + 1);
+    copy[array.length] = value;
+    return copy;
+  }
+
+  /**
+   * A sub router mount whose routes were inlined in the index.
+   */
+  static final class Mount {
+    private final Mount parent;
+    private final RouteImpl route;
+    // the mount point of the sub router routes, as computed when routing through the sub router
+    private final String mountPoint;
+
+    private Mount(Mount parent, RouteImpl route, String path) {
+      this.parent = parent;
+      this.route = route;
+      this.mountPoint = RoutingContextWrapper.mountPoint(parent == null ? null : parent.mountPoint, path == null ? "/" : path);
+    }
+
+    String mountPoint() {
+      return mountPoint;
+    }
+
+    /**
+     * @return true if the mount routes only match by the normalized request path.
+     */
+    boolean matchesByPath() {
+      if (parent != null && !parent.matchesByPath()) {
+        return false;
+      }
+      return route.state().isUseNormalizedPath();
+    }
+
+    /**
+     * @return true if the request would have been forwarded to the sub router by each of the mount routes.
+     */
+    boolean matches(RoutingContextImplBase context) {
+      if (parent != null && !parent.matches(context)) {
+        return false;
+      }
+      return route.state().mountMatches(context, parent == null ? null : parent.mountPoint);
+    }
+
+    /**
+     * Same as {@link #matches(RoutingContextImplBase)} for a normalized request path, when the mount routes
+     * {@link #matchesByPath()}.
+     */
+    boolean matches(String normalizedPath) {
+      if (parent != null && !parent.matches(normalizedPath)) {
+        return false;
+      }
+      return route.state().mountMatches(normalizedPath, parent == null ? null : parent.mountPoint);
+    }
+
+    /**
+     * @return the path of the given sub router route as seen from the root router, the same way the route combines it
+     *         with the mount point when matching.
+     */
+    String path(RouteState state) {
+      final String path = state.getPath();
+      if (path == null) {
+        return null;
+      }
+      if (path.length() == 1 && state.getPattern() == null) {
+        return mountPoint;
+      }
+      if (mountPoint.charAt(mountPoint.length() - 1) == '/') {
+        return mountPoint + path.substring(1);
+      }
+      return mountPoint + path;
+    }
+  }
+
+  private static final class Node {
+    private Map<String, Node> children;
+    // a single child matching any non empty segment
+    private Node param;
+    private Map<String, Bucket> partials;
+    // routes matching the path ending at this node
+    private final Bucket exact = new Bucket();
+    // routes matching any path at or below this node
+    private final Bucket prefix = new Bucket();
+
+    Node child(String segment) {
+      if (segment.indexOf(':') != -1) {
+        if (param == null) {
+          param = new Node();
+        }
+        return param;
+      }
+      if (children == null) {
+        children = new HashMap<>();
+      }
+      return children.computeIfAbsent(segment, k -> new Node());
+    }
+
+    Bucket partial(String segment) {
+      if (partials == null) {
+        partials = new HashMap<>();
+      }
+      return partials.computeIfAbsent(segment, k -> new Bucket());
+    }
+  }
+
+  /**
+   * Routes sharing the same position in the tree, split by the methods they accept.
+   */
+  private static final class Bucket {
+    private int size;
+    // routes without method restrictions
+    private int[] any = EMPTY;
+    // routes restricted to some methods
+    private int[] restricted = EMPTY;
+    private Map<HttpMethod, int[]> byMethod;
+
+    void add(int idx, Set<HttpMethod> methods) {
+      size++;
+      if (methods == null || methods.isEmpty()) {
+        any = append(any, idx);
+        return;
+      }
+      restricted = append(restricted, idx);
+      if (byMethod == null) {
+        byMethod = new HashMap<>();
+      }
+      for (HttpMethod method : methods) {
+        byMethod.merge(method, new int[]{idx}, (a, b) -> append(a, idx));
+      }
+    }
+  }
+
+  /**
+   * The routes of a lookup, iterated in route order.
+   */
+  final class Candidates implements Iterator<RouteImpl> {
+
+    private final HttpMethod method;
+    // routes accepting the request method
+    private int[] positions = new int[8];
+    private int size;
+    // routes restricted to methods, consulted only on 405 checks
+    private int[] restricted = EMPTY;
+    private int restrictedSize;
+
+    // the memoized match of each route, only for cached candidates
+    private Match[] matches;
+
+    private boolean sorted;
+    private boolean restrictedSorted;
+    private int idx;
+
+    private Candidates(HttpMethod method) {
+      this.method = method;
+    }
+
+    /**
+     * A new iteration over sorted candidates, the arrays are shared and never modified.
+     */
+    private Candidates(Candidates candidates) {
+      this.method = candidates.method;
+      this.positions = candidates.positions;
+      this.matches = candidates.matches;
+      this.size = candidates.size;
+      this.restricted = candidates.restricted;
+      this.restrictedSize = candidates.restrictedSize;
+      this.sorted = true;
+      this.restrictedSorted = true;
+    }
+
+    private void add(Bucket bucket) {
+      if (bucket.size == 0) {
+        return;
+      }
+      positions = addAll(positions, size, bucket.any);
+      size += bucket.any.length;
+      if (bucket.byMethod != null) {
+        final int[] values = bucket.byMethod.get(method);
+        if (values != null) {
+          positions = addAll(positions, size, values);
+          size += values.length;
+        }
+        restricted = addAll(restricted, restrictedSize, bucket.restricted);
+        restrictedSize += bucket.restricted.length;
+      }
+    }
+
+    private int[] addAll(int[] target, int targetSize, int[] values) {
+      if (values.length == 0) {
+        return target;
+      }
+      if (targetSize + values.length > target.length) {
+        target = Arrays.copyOf(target, Math.max(target.length * 2, targetSize + values.length));
+      }
+      System.arraycopy(values, 0, target, targetSize, values.length);
+      return target;
+    }
+
+    private void sort() {
+      if (!sorted) {
+        // positions are the route order
+        Arrays.sort(positions, 0, size);
+        sorted = true;
+      }
+      if (!restrictedSorted) {
+        Arrays.sort(restricted, 0, restrictedSize);
+        restrictedSorted = true;
+      }
+    }
+
+    /**
+     * Evaluate the candidates whose match only depends on the request method and normalized path, as these are the
+     * same for any request that shares the cache key. The routes that don't match are removed, the outcome of those
+     * that match is kept as a {@link Match}. The routes are evaluated apart from the request, which is left untouched.
+     *
+     * @return sorted candidates without the routes that don't match the request.
+     */
+    private Candidates filter(String path, String mountPoint) {
+      sort();
+      final Candidates filtered = new Candidates(method);
+      filtered.positions = new int[size];
+      filtered.matches = new Match[size];
+      filtered.restricted = restricted;
+      filtered.restrictedSize = restrictedSize;
+      filtered.sorted = true;
+      filtered.restrictedSorted = true;
+
+      for (int i = 0; i < size; i++) {
+        final int pos = positions[i];
+        final RouteState state = routes[pos].state();
+        final Mount mount = mounts == null ? null : mounts[pos];
+        Match match = null;
+        if (state.matchesByPathAndMethod() && (mount == null || mount.matchesByPath())) {
+          try {
+            if (mount != null && !mount.matches(path)) {
+              continue;
+            }
+            match = state.probe(path, method, mount == null ? mountPoint : mount.mountPoint());
+          } catch (RuntimeException e) {
+            // let the request report it
+            match = null;
+          }
+          if (match == Match.NONE) {
+            continue;
+          }
+          if (mount != null) {
+            // the routes of the mounts are evaluated too
+            match = null;
+          }
+        }
+        filtered.positions[filtered.size] = pos;
+        filtered.matches[filtered.size] = match;
+        filtered.size++;
+      }
+      return filtered;
+    }
+
+    @Override
+    public boolean hasNext() {
+      sort();
+      return idx < size;
+    }
+
+    @Override
+    public RouteImpl next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return routes[positions[idx++]];
+    }
+
+    /**
+     * @return the position of the last returned route, or {@code -1} if none.
+     */
+    int position() {
+      return idx == 0 ? -1 : positions[idx - 1];
+    }
+
+    /**
+     * @return the sub router mount of the last returned route, or {@code null} if the route wasn't inlined.
+     */
+    Mount mount() {
+      return mounts == null || idx == 0 ? null : mounts[positions[idx - 1]];
+    }
+
+    /**
+     * @return the memoized match of the last returned route, or {@code null} if the route must be evaluated.
+     */
+    Match match() {
+      return matches == null || idx == 0 ? null : matches[idx - 1];
+    }
+
+    /**
+     * @param after only routes after this position are returned
+     * @return the routes that were skipped because they don't accept the request method, in route order.
+     */
+    Candidates mismatched(int after) {
+      final Candidates mismatched = new Candidates(method);
+      sort();
+      for (int i = 0; i < restrictedSize; i++) {
+        final int pos = restricted[i];
+        if (pos > after && !methods.get(pos).contains(method)) {
+          mismatched.positions = addAll(mismatched.positions, mismatched.size, new int[]{pos});
+          mismatched.size++;
+        }
+      }
+      mismatched.sorted = true;
+      mismatched.restrictedSorted = true;
+      return mismatched;
+    }
+  }
+
+  /**
+   * The outcome of a route match that only depends on the request method and normalized path, replayed on the
+   * requests sharing the cache key in place of {@link RouteState#matches(RoutingContextImplBase, String, boolean)}.
+   */
+  static final class Match {
+
+    // marks a route that doesn't match
+    static final Match NONE = new Match(false, null, new String[0], false, -1);
+
+    // whether the route resets the "*" param before setting it, as path and pattern routes do
+    private final boolean resetsRest;
+    private final String rest;
+    // decoded path params, as name and value pairs in the order the route adds them
+    private final String[] params;
+    private final boolean setsMatchRest;
+    private final int matchRest;
+
+    Match(boolean resetsRest, String rest, String[] params, boolean setsMatchRest, int matchRest) {
+      this.resetsRest = resetsRest;
+      this.rest = rest;
+      this.params = params;
+      this.setsMatchRest = setsMatchRest;
+      this.matchRest = matchRest;
+    }
+
+    /**
+     * Apply the match to a request, with the same effects as evaluating the route.
+     *
+     * @return {@code 0}, the route matches
+     */
+    int apply(RoutingContextImplBase context) {
+      final Map<String, String> pathParams = context.pathParams();
+      if (resetsRest) {
+        pathParams.remove("*");
+      }
+      if (rest != null) {
+        pathParams.put("*", rest);
+      }
+      if (params.length > 0) {
+        final MultiMap requestParams = context.request().params();
+        for (int i = 0; i < params.length; i += 2) {
+          if (!requestParams.contains(params[i])) {
+            requestParams.add(params[i], params[i + 1]);
+          }
+          pathParams.put(params[i], params[i + 1]);
+        }
+      }
+      if (setsMatchRest) {
+        context.matchRest = matchRest;
+        // only the routes using the normalized path are memoized
+        context.matchNormalized = true;
+      }
+      return 0;
+    }
+  }
+}
@@ -20,6 +20,7 @@ import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.net.impl.URIDecoder;
 import io.vertx.ext.web.MIMEHeader;
+import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
 import java.util.*;
@@ -56,8 +57,10 @@ final class RouteState {
   private final boolean pathEndsWithSlash;
   private final boolean exclusive;
   private final boolean exactPath;
+  private final PathTemplate template;
+  private final Router subRouter;
 
-  private RouteState(RouteImpl route, String path, String name, int order, boolean enabled, Set<HttpMethod> methods, Set<MIMEHeader> consumes, boolean emptyBodyPermittedWithConsumes, Set<MIMEHeader> produces, List<Handler<RoutingContext>> contextHandlers, List<Handler<RoutingContext>> failureHandlers, boolean added, Pattern pattern, List<String> groups, boolean useNormalizedPath, Set<String> namedGroupsInRegex, Pattern virtualHostPattern, boolean pathEndsWithSlash, boolean exclusive, boolean exactPath) {
+  private RouteState(RouteImpl route, String path, String name, int order, boolean enabled, Set<HttpMethod> methods, Set<MIMEHeader> consumes, boolean emptyBodyPermittedWithConsumes, Set<MIMEHeader> produces, List<Handler<RoutingContext>> contextHandlers, List<Handler<RoutingContext>> failureHandlers, boolean added, Pattern pattern, List<String> groups, boolean useNormalizedPath, Set<String> namedGroupsInRegex, Pattern virtualHostPattern, boolean pathEndsWithSlash, boolean exclusive, boolean exactPath, PathTemplate template, Router subRouter) {
     this.route = route;
     this.path = path;
     this.name = name;
@@ -78,6 +81,8 @@ final class RouteState {
     this.pathEndsWithSlash = pathEndsWithSlash;
     this.exclusive = exclusive;
     this.exactPath = exactPath;
+    this.template = template;
+    this.subRouter = subRouter;
   }
 
   RouteState(RouteImpl route, int order) {
@@ -101,7 +106,9 @@ final class RouteState {
       null,
       false,
       false,
-      true);
+      true,
+      null,
+      null);
   }
 
   public RouteImpl getRoute() {
@@ -137,7 +144,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public int getOrder() {
@@ -165,7 +174,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public boolean isEnabled() {
@@ -193,7 +204,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public Set<HttpMethod> getMethods() {
@@ -221,7 +234,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public RouteState addMethod(HttpMethod method) {
@@ -245,7 +260,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.methods.add(method);
     return newState;
@@ -276,7 +293,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   RouteState addConsume(MIMEHeader mime) {
@@ -300,7 +319,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.consumes.add(mime);
     return newState;
@@ -331,7 +352,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public Set<MIMEHeader> getProduces() {
@@ -359,7 +382,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   RouteState addProduce(MIMEHeader mime) {
@@ -383,7 +408,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.produces.add(mime);
     return newState;
@@ -418,7 +445,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   RouteState addContextHandler(Handler<RoutingContext> contextHandler) {
@@ -442,7 +471,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.contextHandlers.add(contextHandler);
     return newState;
@@ -477,7 +508,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   RouteState addFailureHandler(Handler<RoutingContext> failureHandler) {
@@ -501,7 +534,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.failureHandlers.add(failureHandler);
     return newState;
@@ -532,7 +567,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public Pattern getPattern() {
@@ -560,7 +597,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public List<String> getGroups() {
@@ -588,7 +627,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   RouteState addGroup(String group) {
@@ -612,7 +653,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.groups.add(group);
     return newState;
@@ -643,7 +686,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public Set<String> getNamedGroupsInRegex() {
@@ -671,7 +716,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   RouteState addNamedGroupInRegex(String namedGroupInRegex) {
@@ -695,7 +742,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
 
     newState.namedGroupsInRegex.add(namedGroupInRegex);
     return newState;
@@ -726,7 +775,9 @@ final class RouteState {
       virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public boolean isPathEndsWithSlash() {
@@ -754,7 +805,9 @@ final class RouteState {
       this.virtualHostPattern,
       pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public boolean isExclusive() {
@@ -782,7 +835,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
   }
 
   public boolean isExactPath() {
@@ -810,7 +865,9 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      exactPath);
+      exactPath,
+      this.template,
+      this.subRouter);
   }
   RouteState setName(String name) {
     return new RouteState(
@@ -833,8 +890,71 @@ final class RouteState {
       this.virtualHostPattern,
       this.pathEndsWithSlash,
       this.exclusive,
-      this.exactPath);
+      this.exactPath,
+      this.template,
+      this.subRouter);
+  }
+
+  public PathTemplate getTemplate() {
+    return template;
+  }
+
+  RouteState setTemplate(PathTemplate template) {
+    return new RouteState(
+      this.route,
+      this.path,
+      this.name,
+      this.order,
+      this.enabled,
+      this.methods,
+      this.consumes,
+      this.emptyBodyPermittedWithConsumes,
+      this.produces,
+      this.contextHandlers,
+      this.failureHandlers,
+      this.added,
+      this.pattern,
+      this.groups,
+      this.useNormalizedPath,
+      this.namedGroupsInRegex,
+      this.virtualHostPattern,
+      this.pathEndsWithSlash,
+      this.exclusive,
+      this.exactPath,
+      template,
+      this.subRouter);
+  }
+
+  public Router getSubRouter() {
+    return subRouter;
+  }
+
+  RouteState setSubRouter(Router subRouter) {
+    return new RouteState(
+      this.route,
+      this.path,
+      this.name,
+      this.order,
+      this.enabled,
+      this.methods,
+      this.consumes,
+      this.emptyBodyPermittedWithConsumes,
+      this.produces,
+      this.contextHandlers,
+      this.failureHandlers,
+      this.added,
+      this.pattern,
+      this.groups,
+      this.useNormalizedPath,
+      this.namedGroupsInRegex,
+      this.virtualHostPattern,
+      this.pathEndsWithSlash,
+      this.exclusive,
+      this.exactPath,
+      this.template,
+      subRouter);
   }
+
   private boolean containsMethod(HttpServerRequest request) {
     if (!isEmpty(methods)) {
       return methods.contains(request.method());
@@ -877,8 +997,13 @@ final class RouteState {
         path = path.substring(strip);
       }
 
-      Matcher m = pattern.matcher(path);
-      if (m.matches()) {
+      if (template != null) {
+        // plain param template, no regex required
+        final int groupCount = template.groupCount();
+        final int[] offsets = new int[2 * groupCount];
+        if (!template.matches(path, offsets)) {
+          return 404;
+        }
 
         if (!isEmpty(methods) && !containsMethod(request)) {
           // If I'm here path or path pattern matches, but the method is wrong
@@ -888,61 +1013,92 @@ final class RouteState {
         context.matchRest = -1;
         context.matchNormalized = useNormalizedPath;
 
-        if (m.groupCount() > 0) {
-          if (!exactPath) {
-            context.matchRest = m.start("rest");
-            // always replace
-            context.pathParams()
-              .put("*", path.substring(context.matchRest));
+        if (!exactPath) {
+          // the rest is always the last group
+          context.matchRest = offsets[2 * groupCount - 2];
+          // always replace
+          context.pathParams()
+            .put("*", path.substring(context.matchRest));
+        }
+
+        if (!isEmpty(groups)) {
+          final int len = Math.min(groups.size(), groupCount);
+          for (int i = 0; i < len; i++) {
+            addPathParam(context, groups.get(i), path.substring(offsets[2 * i], offsets[2 * i + 1]));
+          }
+        } else {
+          for (int i = 0; i < groupCount; i++) {
+            addPathParam(context, "param" + i, path.substring(offsets[2 * i], offsets[2 * i + 1]));
           }
+        }
+      } else {
+        Matcher m = pattern.matcher(path);
+        if (m.matches()) {
+
+          if (!isEmpty(methods) && !containsMethod(request)) {
+            // If I'm here path or path pattern matches, but the method is wrong
+            return 405;
+          }
+
+          context.matchRest = -1;
+          context.matchNormalized = useNormalizedPath;
 
-          if (!isEmpty(groups)) {
-            // Pattern - named params
-            // decode the path as it could contain escaped chars.
-            final int len = Math.min(groups.size(), m.groupCount());
-            for (int i = 0; i < len; i++) {
-              final String k = groups.get(i);
-              String undecodedValue;
-              // We try to take value in three ways:
-              // 1. group name of type p0, p1, pN (most frequent and used by vertx params)
-              // 2. group name inside the regex
-              // 3. No group name
-              try {
-                undecodedValue = m.group("p" + i);
-              } catch (IllegalArgumentException e) {
+          if (m.groupCount() > 0) {
+            if (!exactPath) {
+              context.matchRest = m.start("rest");
+              // always replace
+              context.pathParams()
+                .put("*", path.substring(context.matchRest));
+            }
+
+            if (!isEmpty(groups)) {
+              // Pattern - named params
+              // decode the path as it could contain escaped chars.
+              final int len = Math.min(groups.size(), m.groupCount());
+              for (int i = 0; i < len; i++) {
+                final String k = groups.get(i);
+                String undecodedValue;
+                // We try to take value in three ways:
+                // 1. group name of type p0, p1, pN (most frequent and used by vertx params)
+                // 2. group name inside the regex
+                // 3. No group name
                 try {
-                  undecodedValue = m.group(k);
-                } catch (IllegalArgumentException e1) {
-                  // Groups starts from 1 (0 group is total match)
-                  undecodedValue = m.group(i + 1);
+                  undecodedValue = m.group("p" + i);
+                } catch (IllegalArgumentException e) {
+                  try {
+                    undecodedValue = m.group(k);
+                  } catch (IllegalArgumentException e1) {
+                    // Groups starts from 1 (0 group is total match)
+                    undecodedValue = m.group(i + 1);
+                  }
+                }
+                if (undecodedValue != null) {
+                  addPathParam(context, k, undecodedValue);
                 }
               }
-              if (undecodedValue != null) {
-                addPathParam(context, k, undecodedValue);
-              }
-            }
-          } else {
-            // Straight regex - un-named params
-            // decode the path as it could contain escaped chars.
-            if (!isEmpty(namedGroupsInRegex)) {
-              for (String namedGroup : namedGroupsInRegex) {
-                String namedGroupValue = m.group(namedGroup);
-                if (namedGroupValue != null) {
-                  addPathParam(context, namedGroup, namedGroupValue);
+            } else {
+              // Straight regex - un-named params
+              // decode the path as it could contain escaped chars.
+              if (!isEmpty(namedGroupsInRegex)) {
+                for (String namedGroup : namedGroupsInRegex) {
+                  String namedGroupValue = m.group(namedGroup);
+                  if (namedGroupValue != null) {
+                    addPathParam(context, namedGroup, namedGroupValue);
+                  }
                 }
               }
-            }
-            for (int i = 0; i < m.groupCount(); i++) {
-              String group = m.group(i + 1);
-              if (group != null) {
-                final String k = "param" + i;
-                addPathParam(context, k, group);
+              for (int i = 0; i < m.groupCount(); i++) {
+                String group = m.group(i + 1);
+                if (group != null) {
+                  final String k = "param" + i;
+                  addPathParam(context, k, group);
+                }
               }
             }
           }
+        } else {
+          return 404;
         }
-      } else {
-        return 404;
       }
     } else {
       // no pattern check for wrong method
@@ -981,7 +1137,141 @@ final class RouteState {
     return 0;
   }
 
+  /**
+   * @return true if matching this route only depends on the request method and normalized path, and not on headers.
+   */
+  boolean matchesByPathAndMethod() {
+    return useNormalizedPath
+      && isEmpty(consumes)
+      && isEmpty(produces)
+      && virtualHostPattern == null;
+  }
+
+  /**
+   * Check if this route, when used to mount a sub router, matches the request.
+   * <p>
+   * This is the path match of the mount route, without any other criteria.
+   */
+  boolean mountMatches(RoutingContextImplBase context, String mountPoint) {
+    if (!enabled) {
+      return false;
+    }
+    return path == null || pathMatches(mountPoint, context);
+  }
+
+  /**
+   * Same as {@link #mountMatches(RoutingContextImplBase, String)} for a normalized request path, without any effect on
+   * a request.
+   */
+  boolean mountMatches(String normalizedPath, String mountPoint) {
+    if (!enabled) {
+      return false;
+    }
+    return path == null || pathMatches(mountPoint, normalizedPath, new HashMap<>(2));
+  }
+
+  /**
+   * Evaluate a route that {@link #matchesByPathAndMethod()} against a normalized request path and method, the same way
+   * {@link #matches(RoutingContextImplBase, String, boolean)} evaluates it for a request, but without any effect on a
+   * request: nothing is parsed from the request and its params are left untouched. Only literal paths and plain param
+   * templates are evaluated, regular expressions are left to the requests.
+   *
+   * @return {@link RouteIndex.Match#NONE} if the route doesn't match, the outcome of the match if it does, or
+   *         {@code null} if the route must be evaluated for each request.
+   */
+  RouteIndex.Match probe(String normalizedPath, HttpMethod method, String mountPoint) {
+    if (!enabled || getContextHandlersLength() == 0) {
+      return RouteIndex.Match.NONE;
+    }
+
+    if (pattern == null) {
+      final Map<String, String> pathParams = new HashMap<>(2);
+      if (path != null && !pathMatches(mountPoint, normalizedPath, pathParams)) {
+        return RouteIndex.Match.NONE;
+      }
+      if (!isEmpty(methods) && !methods.contains(method)) {
+        // the method is reported by the request
+        return null;
+      }
+      return new RouteIndex.Match(path != null, pathParams.get("*"), new String[0], false, -1);
+    }
+
+    if (template == null) {
+      // regular expressions are evaluated for each request
+      return null;
+    }
+
+    String requestPath = normalizedPath;
+    if (mountPoint != null) {
+      int strip = mountPoint.length();
+      // mount point can have significant slash
+      if (mountPoint.charAt(strip - 1)== '/') {
+        strip--;
+      }
+      requestPath = requestPath.substring(strip);
+    }
+
+    final int groupCount = template.groupCount();
+    final int[] offsets = new int[2 * groupCount];
+    if (!template.matches(requestPath, offsets)) {
+      return RouteIndex.Match.NONE;
+    }
+    if (!isEmpty(methods) && !methods.contains(method)) {
+      // the method is reported by the request
+      return null;
+    }
+
+    int matchRest = -1;
+    String rest = null;
+    if (!exactPath) {
+      // the rest is always the last group
+      matchRest = offsets[2 * groupCount - 2];
+      rest = requestPath.substring(matchRest);
+    }
+
+    final int len = isEmpty(groups) ? groupCount : Math.min(groups.size(), groupCount);
+    final String[] params = new String[2 * len];
+    for (int i = 0; i < len; i++) {
+      params[2 * i] = isEmpty(groups) ? "param" + i : groups.get(i);
+      params[2 * i + 1] = URIDecoder.decodeURIComponent(requestPath.substring(offsets[2 * i], offsets[2 * i + 1]), false);
+    }
+    return new RouteIndex.Match(true, rest, params, true, matchRest);
+  }
+
+  /**
+   * @return true if this route mounts a sub router and only matches by path, in which case the sub router routes
+   *         can be inlined in the parent router.
+   */
+  boolean isInlinableMount() {
+    return subRouter instanceof RouterImpl
+      && pattern == null
+      && isEmpty(methods)
+      && isEmpty(consumes)
+      && isEmpty(produces)
+      && virtualHostPattern == null;
+  }
+
   private boolean pathMatches(String mountPoint, RoutingContext ctx) {
+    String requestPath;
+
+    if (useNormalizedPath) {
+      // never null
+      requestPath = ctx.normalizedPath();
+    } else {
+      requestPath = ctx.request().path();
+      // can be null
+      if (requestPath == null) {
+        requestPath = "/";
+      }
+    }
+
+    return pathMatches(mountPoint, requestPath, ctx.pathParams());
+  }
+
+  /**
+   * @param pathParams the path params receiving the "rest" of the path
+   */
+  private boolean pathMatches(String mountPoint, String requestPath, Map<String, String> pathParams) {
     final boolean rootRouter = mountPoint == null;
     final boolean pathEndsWithSlash;
     final String thePath;
@@ -1009,22 +1299,9 @@ final class RouteState {
       }
     }
 
-    String requestPath;
-
-    if (useNormalizedPath) {
-      // never null
-      requestPath = ctx.normalizedPath();
-    } else {
-      requestPath = ctx.request().path();
-      // can be null
-      if (requestPath == null) {
-        requestPath = "/";
-      }
-    }
-
     if (exactPath) {
       // exact path has no "rest"
-      ctx.pathParams()
+      pathParams
         .remove("*");
 
       return pathMatchesExact(thePath, requestPath, pathEndsWithSlash);
@@ -1046,7 +1323,7 @@ final class RouteState {
           // because the mount path ended with a wildcard we are relaxed in the check
           if (thePath.regionMatches(0, requestPath, 0, pathLen - 1)) {
             // handle the "rest" as path param *, always known to be empty
-            ctx.pathParams()
+            pathParams
               .put("*", "/");
             return true;
           }
@@ -1055,7 +1332,7 @@ final class RouteState {
 
       if (requestPath.startsWith(thePath)) {
         // handle the "rest" as path param *
-        ctx.pathParams()
+        pathParams
           .put("*", requestPath.substring(thePath.length()));
         return true;
       }
@@ -1133,6 +1410,13 @@ final class RouteState {
       .handle(context);
   }
 
+  /**
+   * @return whether the route was given a name, rather than being named after its path
+   */
+  boolean isNamed() {
+    return name != null;
+  }
+
   public String getName() {
     if (name != null) {
       return name;
@@ -1168,6 +1452,8 @@ final class RouteState {
       ", pathEndsWithSlash=" + pathEndsWithSlash +
       ", exclusive=" + exclusive +
       ", exactPath=" + exactPath +
+      ", template=" + template +
+      ", subRouter=" + subRouter +
       '}';
   }
 }
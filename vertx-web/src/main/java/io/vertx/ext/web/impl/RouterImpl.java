@@ -24,10 +24,13 @@ import io.vertx.core.impl.logging.Logger;
 import io.vertx.core.impl.logging.LoggerFactory;
 import io.vertx.ext.web.AllowForwardHeaders;
 import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RouteMetrics;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class is thread-safe
@@ -41,6 +44,13 @@ public class RouterImpl implements Router {
   private final Vertx vertx;
 
   private volatile RouterState state;
+  // the route changes of the batch in progress on the current thread
+  private final ThreadLocal<Batch> batch = new ThreadLocal<>();
+  // internal listeners of the route changes, e.g. the routers inlining this router
+  private final List<Handler<Router>> changeListeners = new CopyOnWriteArrayList<>();
+  // route cache statistics, kept across state changes
+  private final LongAdder routeCacheHits = new LongAdder();
+  private final LongAdder routeCacheMisses = new LongAdder();
 
   public RouterImpl(Vertx vertx) {
     this.vertx = vertx;
@@ -52,7 +62,7 @@ public class RouterImpl implements Router {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Router: " + System.identityHashCode(this) + " accepting request " + request.method() + " " + request.absoluteURI());
     }
-    new RoutingContextImpl(null, this, request, state.getRoutes()).next();
+    new RoutingContextImpl(null, this, request, state).next();
   }
 
   @Override
@@ -226,19 +236,62 @@ public class RouterImpl implements Router {
   }
 
   @Override
-  public synchronized Router clear() {
-    state = state.clearRoutes();
+  public Router clear() {
+    final Batch changes = batch.get();
+    if (changes != null) {
+      // published once the batch completes
+      changes.clear();
+      return this;
+    }
+    synchronized (this) {
+      state = state.clearRoutes();
+    }
+    notifyChangeListeners();
+    return this;
+  }
+
+  @Override
+  public Router batch(Handler<Router> mutations) {
+    if (batch.get() != null) {
+      // nested batch, the outer batch publishes the changes
+      mutations.handle(this);
+      return this;
+    }
+
+    // the router isn't locked while the mutations run, only the changes of this thread are batched
+    final Batch changes = new Batch();
+    batch.set(changes);
+    try {
+      mutations.handle(this);
+    } finally {
+      // when the mutations fail the changes are dropped
+      batch.remove();
+    }
+
+    if (changes.isEmpty()) {
+      return this;
+    }
+    synchronized (this) {
+      // replayed on the current routes, so the changes made by other threads meanwhile are kept
+      state = state.setRoutes(changes.replay(state.copyRoutes()));
+    }
+    // notify the listeners as the routes are changed, without holding the lock
+    final Handler<Router> modifiedHandler = state.getModifiedHandler();
+    if (modifiedHandler != null) {
+      modifiedHandler.handle(this);
+    }
+    notifyChangeListeners();
     return this;
   }
 
   @Override
   public void handleContext(RoutingContext ctx) {
-    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state.getRoutes(), ctx).next();
+    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state, ctx).next();
   }
 
   @Override
   public void handleFailure(RoutingContext ctx) {
-    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state.getRoutes(), ctx).next();
+    new RoutingContextWrapper(getAndCheckRoutePath(ctx), state, ctx).next();
   }
 
   @Override
@@ -271,6 +324,45 @@ public class RouterImpl implements Router {
     return this;
   }
 
+  @Override
+  public synchronized Router routeCacheSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size must be >= 0");
+    }
+    state = state.setRouteCacheSize(size);
+    return this;
+  }
+
+  @Override
+  public long routeCacheHits() {
+    return routeCacheHits.sum();
+  }
+
+  @Override
+  public long routeCacheMisses() {
+    return routeCacheMisses.sum();
+  }
+
+  void countRouteCacheHit() {
+    routeCacheHits.increment();
+  }
+
+  void countRouteCacheMiss() {
+    routeCacheMisses.increment();
+  }
+
+  @Override
+  public synchronized Router inlineSubRouters(boolean inline) {
+    state = state.setInlineSubRouters(inline);
+    return this;
+  }
+
+  @Override
+  public synchronized Router metrics(RouteMetrics metrics) {
+    state = state.setMetrics(metrics);
+    return this;
+  }
+
   public AllowForwardHeaders getAllowForward() {
     return state.getAllowForward();
   }
@@ -292,27 +384,70 @@ public class RouterImpl implements Router {
   }
 
   synchronized void add(RouteImpl route) {
+    final Batch changes = batch.get();
+    if (changes != null) {
+      // published once the batch completes
+      changes.add(route);
+      return;
+    }
     state = state.addRoute(route);
     // notify the listeners as the routes are changed
     if (state.getModifiedHandler() != null) {
       state.getModifiedHandler().handle(this);
     }
+    notifyChangeListeners();
   }
 
   synchronized void remove(RouteImpl route) {
+    final Batch changes = batch.get();
+    if (changes != null) {
+      // published once the batch completes
+      changes.remove(route);
+      return;
+    }
     state = state.removeRoute(route);
     // notify the listeners as the routes are changed
     if (state.getModifiedHandler() != null) {
       state.getModifiedHandler().handle(this);
     }
+    notifyChangeListeners();
   }
 
   Vertx vertx() {
     return vertx;
   }
 
-  Iterator<RouteImpl> iterator() {
-    return state.getRoutes().iterator();
+  RouterState state() {
+    return state;
+  }
+
+  void routeModified() {
+    synchronized (this) {
+      // the matching criteria of an active route changed
+      state = state.invalidateIndex();
+    }
+    // routers inlining this router must refresh their index too
+    if (batch.get() == null) {
+      notifyChangeListeners();
+    }
+  }
+
+  /**
+   * Add an internal listener, notified whenever the routes or their matching criteria change. Unlike the
+   * {@link #modifiedHandler(Handler)} it's also notified when an active route is modified or the routes are cleared.
+   */
+  void changeListener(Handler<Router> listener) {
+    changeListeners.add(listener);
+  }
+
+  private void notifyChangeListeners() {
+    for (Handler<Router> listener : changeListeners) {
+      try {
+        listener.handle(this);
+      } catch (RuntimeException e) {
+        LOG.error("Router change notification failed", e);
+      }
+    }
   }
 
   Handler<RoutingContext> getErrorHandlerByStatusCode(int statusCode) {
@@ -353,5 +488,48 @@ public class RouterImpl implements Router {
       ", state=" + state +
       '}';
   }
-}
 
+  /**
+   * The route changes made by a thread during a batch, in order.
+   */
+  private static final class Batch {
+
+    // the changed routes, null when the routes were cleared
+    private final List<RouteImpl> routes = new ArrayList<>();
+    // whether each route was added or removed
+    private final List<Boolean> added = new ArrayList<>();
+
+    void add(RouteImpl route) {
+      routes.add(route);
+      added.add(true);
+    }
+
+    void remove(RouteImpl route) {
+      routes.add(route);
+      added.add(false);
+    }
+
+    void clear() {
+      routes.add(null);
+      added.add(false);
+    }
+
+    boolean isEmpty() {
+      return routes.isEmpty();
+    }
+
+    Set<RouteImpl> replay(Set<RouteImpl> target) {
+      for (int i = 0; i < routes.size(); i++) {
+        final RouteImpl route = routes.get(i);
+        if (route == null) {
+          target.clear();
+        } else if (added.get(i)) {
+          target.add(route);
+        } else {
+          target.remove(route);
+        }
+      }
+      return target;
+    }
+  }
+}
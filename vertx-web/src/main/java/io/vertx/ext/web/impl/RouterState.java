@@ -17,6 +17,7 @@ package io.vertx.ext.web.impl;
 
 import io.vertx.core.Handler;
 import io.vertx.ext.web.AllowForwardHeaders;
+import io.vertx.ext.web.RouteMetrics;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 
@@ -59,14 +60,23 @@ final class RouterState {
   private final Map<Integer, Handler<RoutingContext>> errorHandlers;
   private final Handler<Router> modifiedHandler;
   private final AllowForwardHeaders allowForward;
+  private final boolean inlineSubRouters;
+  private final int routeCacheSize;
+  private final RouteMetrics metrics;
+  // derived from the routes, computed on first use
+  private volatile RouteIndex index;
+  private volatile RouteIndex inlinedIndex;
 
-  public RouterState(RouterImpl router, Set<RouteImpl> routes, int orderSequence, Map<Integer, Handler<RoutingContext>> errorHandlers, Handler<Router> modifiedHandler, AllowForwardHeaders allowForward) {
+  public RouterState(RouterImpl router, Set<RouteImpl> routes, int orderSequence, Map<Integer, Handler<RoutingContext>> errorHandlers, Handler<Router> modifiedHandler, AllowForwardHeaders allowForward, boolean inlineSubRouters, int routeCacheSize, RouteMetrics metrics) {
     this.router = router;
     this.routes = routes;
     this.orderSequence = orderSequence;
     this.errorHandlers = errorHandlers;
     this.modifiedHandler = modifiedHandler;
     this.allowForward = allowForward;
+    this.inlineSubRouters = inlineSubRouters;
+    this.routeCacheSize = routeCacheSize;
+    this.metrics = metrics;
   }
 
   public RouterState(RouterImpl router) {
@@ -76,7 +86,10 @@ final class RouterState {
       0,
       null,
       null,
-      AllowForwardHeaders.NONE);
+      AllowForwardHeaders.NONE,
+      false,
+      0,
+      null);
   }
 
   public RouterImpl router() {
@@ -90,6 +103,65 @@ final class RouterState {
     return routes;
   }
 
+  RouteIndex getIndex() {
+    RouteIndex index = this.index;
+    if (index == null) {
+      // concurrent computations are harmless, the result is always the same
+      index = new RouteIndex(getRoutes(), routeCache());
+      this.index = index;
+    }
+    return index;
+  }
+
+  /**
+   * @param mountPoint the mount point of the routing context
+   * @return the index used to route a request, when sub routers are inlined this is only possible from the root
+   *         router as the mount points of the inlined routes are relative to it.
+   */
+  RouteIndex getIndex(String mountPoint) {
+    if (!inlineSubRouters || mountPoint != null) {
+      return getIndex();
+    }
+    RouteIndex index = this.inlinedIndex;
+    if (index == null) {
+      index = RouteIndex.inline(getRoutes(), routeCache());
+      this.inlinedIndex = index;
+    }
+    return index;
+  }
+
+  private RouteCache routeCache() {
+    // the cache is owned by the index, so it is discarded with any change to the state
+    return routeCacheSize > 0 ? new RouteCache(routeCacheSize, router) : null;
+  }
+
+  /**
+   * Routes can be modified after being added to the router, when this happens the derived index must be recomputed.
+   */
+  RouterState invalidateIndex() {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
+  }
+
+  /**
+   * @return a mutable copy of the routes, ordered like the router state, to apply several mutations at once.
+   */
+  Set<RouteImpl> copyRoutes() {
+    Set<RouteImpl> routes = new TreeSet<>(routeComparator);
+    if (this.routes != null) {
+      routes.addAll(this.routes);
+    }
+    return routes;
+  }
+
   RouterState setRoutes(Set<RouteImpl> routes) {
     RouterState newState = new RouterState(
       this.router,
@@ -97,7 +169,10 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
 
     newState.routes.addAll(routes);
     return newState;
@@ -116,7 +191,10 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   RouterState clearRoutes() {
@@ -126,7 +204,10 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   RouterState removeRoute(RouteImpl route) {
@@ -142,7 +223,10 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   public int getOrderSequence() {
@@ -156,7 +240,10 @@ final class RouterState {
       this.orderSequence + 1,
       this.errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   RouterState setOrderSequence(int orderSequence) {
@@ -166,7 +253,10 @@ final class RouterState {
       orderSequence,
       this.errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   public Map<Integer, Handler<RoutingContext>> getErrorHandlers() {
@@ -180,7 +270,10 @@ final class RouterState {
       this.orderSequence,
       errorHandlers,
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   Handler<RoutingContext> getErrorHandler(int errorCode) {
@@ -197,7 +290,10 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers == null ? new HashMap<>() : new HashMap<>(errorHandlers),
       this.modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
 
     newState.errorHandlers.put(errorCode, errorHandler);
     return newState;
@@ -214,7 +310,10 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers,
       modifiedHandler,
-      this.allowForward);
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   public RouterState setAllowForward(AllowForwardHeaders allow) {
@@ -224,13 +323,67 @@ final class RouterState {
       this.orderSequence,
       this.errorHandlers,
       this.modifiedHandler,
-      allow);
+      allow,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      this.metrics);
   }
 
   public AllowForwardHeaders getAllowForward() {
     return allowForward;
   }
 
+  public RouterState setInlineSubRouters(boolean inline) {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.allowForward,
+      inline,
+      this.routeCacheSize,
+      this.metrics);
+  }
+
+  public boolean isInlineSubRouters() {
+    return inlineSubRouters;
+  }
+
+  public RouterState setRouteCacheSize(int routeCacheSize) {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.allowForward,
+      this.inlineSubRouters,
+      routeCacheSize,
+      this.metrics);
+  }
+
+  public int getRouteCacheSize() {
+    return routeCacheSize;
+  }
+
+  public RouterState setMetrics(RouteMetrics metrics) {
+    return new RouterState(
+      this.router,
+      this.routes,
+      this.orderSequence,
+      this.errorHandlers,
+      this.modifiedHandler,
+      this.allowForward,
+      this.inlineSubRouters,
+      this.routeCacheSize,
+      metrics);
+  }
+
+  public RouteMetrics getMetrics() {
+    return metrics;
+  }
+
   @Override
   public String toString() {
     return "RouterState{" +
@@ -239,6 +392,9 @@ final class RouterState {
       ", errorHandlers=" + errorHandlers +
       ", modifiedHandler=" + modifiedHandler +
       ", this.allowForward=" + allowForward +
+      ", inlineSubRouters=" + inlineSubRouters +
+      ", routeCacheSize=" + routeCacheSize +
+      ", metrics=" + metrics +
       '}';
   }
 }
@@ -2,6 +2,7 @@ package io.vertx.ext.web.impl;
 
 import io.vertx.codegen.annotations.Nullable;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
@@ -31,12 +32,41 @@ public class RoutingContextDecorator implements RoutingContextInternal {
 
   private final Route currentRoute;
   private final RoutingContext decoratedContext;
+  private final Context context;
+  // bound to the context, when the handler runs on a thread that is not a Vert.x thread
+  private final HttpServerRequest request;
+  private final HttpServerResponse response;
 
   public RoutingContextDecorator(Route currentRoute, RoutingContext decoratedContext) {
+    this(currentRoute, decoratedContext, null);
+  }
+
+  /**
+   * @param context the context to run {@link #next()}, {@link #fail(Throwable)} and the calls changing the
+   *                {@link #request()} or the {@link #response()} on, when {@code null} they run on the context of the
+   *                calling thread, which must then be a Vert.x thread
+   */
+  public RoutingContextDecorator(Route currentRoute, RoutingContext decoratedContext, Context context) {
     Objects.requireNonNull(currentRoute);
     Objects.requireNonNull(decoratedContext);
     this.currentRoute = currentRoute;
     this.decoratedContext = decoratedContext;
+    this.context = context;
+    if (context != null) {
+      this.response = new ContextBoundResponse(decoratedContext.response(), context, decoratedContext);
+      this.request = new ContextBoundRequest(decoratedContext.request(), response, context, decoratedContext);
+    } else {
+      this.response = null;
+      this.request = null;
+    }
+  }
+
+  private void runOnContext(Handler<Void> action) {
+    if (context != null) {
+      context.runOnContext(action);
+    } else {
+      vertx().runOnContext(action);
+    }
   }
 
   @Override
@@ -54,6 +84,11 @@ public class RoutingContextDecorator implements RoutingContextInternal {
     return ((RoutingContextInternal) decoratedContext).setMatchFailure(matchFailure);
   }
 
+  @Override
+  public RoutingContextInternal setBodyAsJsonValue(Object json, long length) {
+    return ((RoutingContextInternal) decoratedContext).setBodyAsJsonValue(json, length);
+  }
+
   @Override
   public int addBodyEndHandler(Handler<Void> handler) {
     return decoratedContext.addBodyEndHandler(handler);
@@ -61,6 +96,10 @@ public class RoutingContextDecorator implements RoutingContextInternal {
 
   @Override
   public RoutingContext addCookie(io.vertx.core.http.Cookie cookie) {
+    if (response != null) {
+      response.addCookie(cookie);
+      return this;
+    }
     return decoratedContext.addCookie(cookie);
   }
 
@@ -97,18 +136,18 @@ public class RoutingContextDecorator implements RoutingContextInternal {
   @Override
   public void fail(int statusCode) {
     // make sure the fail handler run on the correct context
-    vertx().runOnContext(future -> decoratedContext.fail(statusCode));
+    runOnContext(v -> decoratedContext.fail(statusCode));
   }
 
   @Override
   public void fail(Throwable throwable) {
     // make sure the fail handler run on the correct context
-    vertx().runOnContext(future -> decoratedContext.fail(throwable));
+    runOnContext(v -> decoratedContext.fail(throwable));
   }
 
   @Override
   public void fail(int statusCode, Throwable throwable) {
-    vertx().runOnContext(future -> decoratedContext.fail(statusCode, throwable));
+    runOnContext(v -> decoratedContext.fail(statusCode, throwable));
   }
 
   @Override
@@ -184,7 +223,7 @@ public class RoutingContextDecorator implements RoutingContextInternal {
   @Override
   public void next() {
     // make sure the next handler run on the correct context
-    vertx().runOnContext(future -> decoratedContext.next());
+    runOnContext(v -> decoratedContext.next());
   }
 
   @Override
@@ -204,6 +243,9 @@ public class RoutingContextDecorator implements RoutingContextInternal {
 
   @Override
   public Cookie removeCookie(String name, boolean invalidate) {
+    if (response != null) {
+      return response.removeCookie(name, invalidate);
+    }
     return decoratedContext.removeCookie(name, invalidate);
   }
 
@@ -219,12 +261,12 @@ public class RoutingContextDecorator implements RoutingContextInternal {
 
   @Override
   public HttpServerRequest request() {
-    return decoratedContext.request();
+    return request != null ? request : decoratedContext.request();
   }
 
   @Override
   public HttpServerResponse response() {
-    return decoratedContext.response();
+    return response != null ? response : decoratedContext.response();
   }
 
   @Override
@@ -23,6 +23,8 @@ import io.vertx.core.*;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
 import io.vertx.core.http.impl.HttpUtils;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.User;
@@ -33,7 +35,7 @@ import io.vertx.ext.web.handler.impl.UserHolder;
 
 import java.nio.charset.Charset;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import static io.vertx.ext.web.handler.impl.SessionHandlerImpl.SESSION_USER_HOLDER_KEY;
 
@@ -42,9 +44,14 @@ import static io.vertx.ext.web.handler.impl.SessionHandlerImpl.SESSION_USER_HOLD
  */
 public class RoutingContextImpl extends RoutingContextImplBase {
 
+  private static final AtomicIntegerFieldUpdater<RoutingContextImpl> HANDLER_SEQ =
+    AtomicIntegerFieldUpdater.newUpdater(RoutingContextImpl.class, "handlerSeq");
+
   private final RouterImpl router;
   private final HttpServerRequest request;
-  private final AtomicInteger handlerSeq = new AtomicInteger();
+  private volatile int handlerSeq;
+  // only when the router has metrics
+  private final RequestMetrics metrics;
 
   private Map<String, Object> data;
   private Map<String, String> pathParams;
@@ -61,6 +68,10 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   private ParsableHeaderValuesContainer parsedHeaders;
 
   private Buffer body;
+  // the body parsed while it was received, see setBodyAsJsonValue
+  private boolean hasJsonBody;
+  private Object jsonBody;
+  private long jsonBodyLength;
   private Set<FileUpload> fileUploads;
   private Session session;
   private User user;
@@ -68,11 +79,20 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   private volatile boolean isSessionAccessed = false;
   private volatile boolean endHandlerCalled = false;
 
-  public RoutingContextImpl(String mountPoint, RouterImpl router, HttpServerRequest request, Set<RouteImpl> routes) {
-    super(mountPoint, routes);
+  public RoutingContextImpl(String mountPoint, RouterImpl router, HttpServerRequest request, RouterState routerState) {
+    super(mountPoint, routerState);
     this.router = router;
     this.request = new HttpServerRequestWrapper(request, router.getAllowForward());
 
+    if (routerState.getMetrics() != null) {
+      final RequestMetrics metrics = new RequestMetrics(routerState.getMetrics());
+      addHeadersEndHandler(v -> metrics.headersEnd());
+      addBodyEndHandler(v -> metrics.bodyEnd(response().getStatusCode()));
+      this.metrics = metrics;
+    } else {
+      this.metrics = null;
+    }
+
     if (request.path().length() == 0) {
       // HTTP paths must start with a '/'
       fail(400);
@@ -135,6 +155,13 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     }
   }
 
+  @Override
+  void routed(String mountPoint, RouteState routeState) {
+    if (metrics != null) {
+      metrics.routed(mountPoint, routeState);
+    }
+  }
+
   private void checkHandleNoMatch() {
     // Next called but no more matching routes
     if (failed()) {
@@ -143,6 +170,9 @@ public class RoutingContextImpl extends RoutingContextImplBase {
     } else {
       Handler<RoutingContext> handler = router.getErrorHandlerByStatusCode(this.matchFailure);
       this.statusCode = this.matchFailure;
+      if (metrics != null) {
+        metrics.unmatched();
+      }
       if (handler == null) { // Default 404 handling
         // Send back empty default response with status code
         this.response().setStatusCode(matchFailure);
@@ -276,6 +306,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
 
   @Override
   public String getBodyAsString() {
+    final Buffer body = getBody();
     if (body != null) {
       ParsableHeaderValuesContainer parsedHeaders = parsedHeaders();
       if (parsedHeaders != null) {
@@ -300,11 +331,15 @@ public class RoutingContextImpl extends RoutingContextImplBase {
 
   @Override
   public String getBodyAsString(String encoding) {
+    final Buffer body = getBody();
     return body != null ? body.toString(encoding) : null;
   }
 
   @Override
   public JsonObject getBodyAsJson(int maxAllowedLength) {
+    if (hasJsonBody) {
+      return jsonBody(JsonObject.class, maxAllowedLength);
+    }
     if (body != null) {
       if (maxAllowedLength >= 0 && body.length() > maxAllowedLength) {
         throw new IllegalStateException("RoutingContext body size exceeds the allowed limit");
@@ -322,6 +357,9 @@ public class RoutingContextImpl extends RoutingContextImplBase {
 
   @Override
   public JsonArray getBodyAsJsonArray(int maxAllowedLength) {
+    if (hasJsonBody) {
+      return jsonBody(JsonArray.class, maxAllowedLength);
+    }
     if (body != null) {
       if (maxAllowedLength >= 0 && body.length() > maxAllowedLength) {
         throw new IllegalStateException("RoutingContext body size exceeds the allowed limit");
@@ -339,12 +377,40 @@ public class RoutingContextImpl extends RoutingContextImplBase {
 
   @Override
   public Buffer getBody() {
+    if (body == null && hasJsonBody) {
+      // only encode the parsed value when the raw body is requested
+      body = Json.encodeToBuffer(jsonBody);
+    }
     return body;
   }
 
+  @Override
+  public RoutingContextInternal setBodyAsJsonValue(Object json, long length) {
+    this.body = null;
+    this.hasJsonBody = true;
+    this.jsonBody = json;
+    this.jsonBodyLength = length;
+    return this;
+  }
+
+  private <T> T jsonBody(Class<T> type, int maxAllowedLength) {
+    if (maxAllowedLength >= 0 && jsonBodyLength > maxAllowedLength) {
+      throw new IllegalStateException("RoutingContext body size exceeds the allowed limit");
+    }
+    if (jsonBody == null) {
+      return null;
+    }
+    if (type.isInstance(jsonBody)) {
+      return type.cast(jsonBody);
+    }
+    throw new DecodeException("Invalid Json Object decoded as " + jsonBody.getClass().getName());
+  }
+
   @Override
   public void setBody(Buffer body) {
     this.body = body;
+    this.hasJsonBody = false;
+    this.jsonBody = null;
   }
 
   @Override
@@ -520,7 +586,8 @@ public class RoutingContextImpl extends RoutingContextImplBase {
 
   private Map<String, String> getPathParams() {
     if (pathParams == null) {
-      pathParams = new HashMap<>();
+      // requests rarely have more than a few path params
+      pathParams = new ArrayMap<>();
     }
     return pathParams;
   }
@@ -586,8 +653,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   }
 
   private void doFail() {
-    this.iter = router.iterator();
-    currentRoute = null;
+    reset(router.state());
     next();
   }
 
@@ -599,7 +665,7 @@ public class RoutingContextImpl extends RoutingContextImplBase {
   }
 
   private int nextHandlerSeq() {
-    int seq = handlerSeq.incrementAndGet();
+    int seq = HANDLER_SEQ.incrementAndGet(this);
     if (seq == Integer.MAX_VALUE) {
       throw new IllegalStateException("Too many header/body end handlers!");
     }
@@ -24,9 +24,7 @@ import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
 
-import java.util.Iterator;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -35,12 +33,23 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
 
   protected static final Logger LOG = LoggerFactory.getLogger(RoutingContext.class);
 
-  private final Set<RouteImpl> routes;
+  // field updaters avoid allocating atomic counters for each request
+  private static final AtomicIntegerFieldUpdater<RoutingContextImplBase> NEXT_HANDLER_INDEX =
+    AtomicIntegerFieldUpdater.newUpdater(RoutingContextImplBase.class, "currentRouteNextHandlerIndex");
+  private static final AtomicIntegerFieldUpdater<RoutingContextImplBase> NEXT_FAILURE_HANDLER_INDEX =
+    AtomicIntegerFieldUpdater.newUpdater(RoutingContextImplBase.class, "currentRouteNextFailureHandlerIndex");
+
+  private RouterState routerState;
 
   protected final String mountPoint;
-  private final AtomicInteger currentRouteNextHandlerIndex;
-  private final AtomicInteger currentRouteNextFailureHandlerIndex;
-  protected Iterator<RouteImpl> iter;
+  private volatile int currentRouteNextHandlerIndex;
+  private volatile int currentRouteNextFailureHandlerIndex;
+  // resolved lazily from the router state index as it depends on the request path
+  protected RouteIndex.Candidates iter;
+  // position of the last matching route, routes for other methods before it can't affect the match failure
+  private int matchPosition = -1;
+  // mount point of the current route when it was inlined from a sub router
+  private String inlinedMountPoint;
   protected RouteState currentRoute;
   // When Route#matches executes, if it returns != 0 this flag is configured
   // to write the correct status code at the end of routing process
@@ -51,12 +60,9 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
   // internal runtime state
   private volatile long seen;
 
-  RoutingContextImplBase(String mountPoint, Set<RouteImpl> routes) {
+  RoutingContextImplBase(String mountPoint, RouterState routerState) {
     this.mountPoint = mountPoint;
-    this.routes = routes;
-    this.iter = routes.iterator();
-    this.currentRouteNextHandlerIndex = new AtomicInteger(0);
-    this.currentRouteNextFailureHandlerIndex = new AtomicInteger(0);
+    this.routerState = routerState;
     resetMatchFailure();
   }
 
@@ -79,6 +85,9 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
 
   @Override
   public String mountPoint() {
+    if (inlinedMountPoint != null) {
+      return inlinedMountPoint;
+    }
     return mountPoint;
   }
 
@@ -91,30 +100,48 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
   }
 
   int currentRouteNextHandlerIndex() {
-    return currentRouteNextHandlerIndex.intValue();
+    return currentRouteNextHandlerIndex;
   }
 
   int currentRouteNextFailureHandlerIndex() {
-    return currentRouteNextFailureHandlerIndex.intValue();
+    return currentRouteNextFailureHandlerIndex;
   }
 
   void restart() {
-    this.iter = routes.iterator();
+    this.iter = null;
+    this.matchPosition = -1;
+    this.inlinedMountPoint = null;
     currentRoute = null;
     next();
   }
 
+  /**
+   * Restarts the route iteration from the given router state.
+   */
+  void reset(RouterState routerState) {
+    this.routerState = routerState;
+    this.iter = null;
+    this.matchPosition = -1;
+    this.inlinedMountPoint = null;
+    currentRoute = null;
+  }
+
+  /**
+   * Called when a route is about to handle this context, failure handlers excluded.
+   */
+  abstract void routed(String mountPoint, RouteState routeState);
+
   boolean iterateNext() {
     boolean failed = failed();
     if (currentRoute != null) { // Handle multiple handlers inside route object
       try {
         if (!failed && currentRoute.hasNextContextHandler(this)) {
-          currentRouteNextHandlerIndex.incrementAndGet();
+          NEXT_HANDLER_INDEX.incrementAndGet(this);
           resetMatchFailure();
           currentRoute.handleContext(this);
           return true;
         } else if (failed && currentRoute.hasNextFailureHandler(this)) {
-          currentRouteNextFailureHandlerIndex.incrementAndGet();
+          NEXT_FAILURE_HANDLER_INDEX.incrementAndGet(this);
           currentRoute.handleFailure(this);
           return true;
         }
@@ -123,33 +150,48 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
         return true;
       }
     }
+    // the routes being searched are relative to this context mount point
+    inlinedMountPoint = null;
+    if (iter == null) {
+      iter = routerState.getIndex(mountPoint()).candidates(this, mountPoint(), failed);
+    }
     // Search for more handlers
     while (iter.hasNext()) {
       // state is locked at this moment
       RouteState routeState = iter.next().state();
 
-      currentRouteNextHandlerIndex.set(0);
-      currentRouteNextFailureHandlerIndex.set(0);
+      currentRouteNextHandlerIndex = 0;
+      currentRouteNextFailureHandlerIndex = 0;
       try {
-        int matchResult = routeState.matches(this, mountPoint(), failed);
+        // a cached lookup replays the match of the routes that only depend on the method and path
+        final RouteIndex.Match match = iter.match();
+        int matchResult = match != null ? match.apply(this) : matches(routeState, iter.mount(), failed);
         if (matchResult == 0) {
           if (LOG.isTraceEnabled()) {
             LOG.trace("Route matches: " + routeState);
           }
           resetMatchFailure();
+          matchPosition = iter.position();
+          if (iter.mount() != null) {
+            inlinedMountPoint = iter.mount().mountPoint();
+          }
           try {
             currentRoute = routeState;
             request().routed(currentRoute.getName());
+            if (!failed) {
+              routed(mountPoint(), routeState);
+            }
             if (LOG.isTraceEnabled()) {
               LOG.trace("Calling the " + (failed ? "failure" : "") + " handler");
             }
             if (failed && currentRoute.hasNextFailureHandler(this)) {
-              currentRouteNextFailureHandlerIndex.incrementAndGet();
+              NEXT_FAILURE_HANDLER_INDEX.incrementAndGet(this);
               routeState.handleFailure(this);
             } else if (currentRoute.hasNextContextHandler(this)) {
-              currentRouteNextHandlerIndex.incrementAndGet();
+              NEXT_HANDLER_INDEX.incrementAndGet(this);
               routeState.handleContext(this);
             } else {
+              inlinedMountPoint = null;
               continue;
             }
           } catch (Throwable t) {
@@ -166,19 +208,54 @@ public abstract class RoutingContextImplBase implements RoutingContextInternal {
           this.matchFailure = matchResult;
         }
       } catch (Throwable e) {
-        if (LOG.isTraceEnabled()) {
-          LOG.trace("IllegalArgumentException thrown during iteration", e);
-        }
-        // Failure in matches algorithm (If the exception is instanceof IllegalArgumentException probably is a QueryStringDecoder error!)
-        if (!this.response().ended()) {
-          unhandledFailure((e instanceof IllegalArgumentException) ? 400 : -1, e, routeState.getRouter());
-        }
+        handleInMatchFailure(routeState.getRouter(), e);
         return true;
       }
     }
+
+    if (!failed && this.matchFailure == 404) {
+      // routes for other methods were not evaluated, if any of them matches the path the failure is 405
+      RouteIndex.Candidates mismatched = iter.mismatched(matchPosition);
+      while (mismatched.hasNext()) {
+        RouteState routeState = mismatched.next().state();
+
+        currentRouteNextHandlerIndex = 0;
+        currentRouteNextFailureHandlerIndex = 0;
+        try {
+          if (matches(routeState, mismatched.mount(), false) == 405) {
+            this.matchFailure = 405;
+            break;
+          }
+        } catch (Throwable e) {
+          handleInMatchFailure(routeState.getRouter(), e);
+          return true;
+        }
+      }
+    }
     return false;
   }
 
+  private int matches(RouteState routeState, RouteIndex.Mount mount, boolean failed) {
+    if (mount == null) {
+      return routeState.matches(this, mountPoint(), failed);
+    }
+    // the route was inlined from a sub router, the routes mounting it must match too
+    if (!mount.matches(this)) {
+      return 404;
+    }
+    return routeState.matches(this, mount.mountPoint(), failed);
+  }
+
+  private void handleInMatchFailure(RouterImpl router, Throwable e) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("IllegalArgumentException thrown during iteration", e);
+    }
+    // Failure in matches algorithm (If the exception is instanceof IllegalArgumentException probably is a QueryStringDecoder error!)
+    if (!this.response().ended()) {
+      unhandledFailure((e instanceof IllegalArgumentException) ? 400 : -1, e, router);
+    }
+  }
+
   private void handleInHandlerRuntimeFailure(RouterImpl router, boolean failed, Throwable t) {
     LOG.error("Unhandled exception in router", t);
 
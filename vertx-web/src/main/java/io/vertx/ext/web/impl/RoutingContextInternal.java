@@ -49,4 +49,14 @@ public interface RoutingContextInternal extends RoutingContext {
    * @return fluent self
    */
   RoutingContextInternal setMatchFailure(int matchFailure);
+
+  /**
+   * sets the body parsed as JSON while it was received, in place of the raw body.
+   *
+   * @param json the parsed value, a {@link io.vertx.core.json.JsonObject}, a {@link io.vertx.core.json.JsonArray} or
+   *             a scalar value
+   * @param length the length in bytes of the received body
+   * @return fluent self
+   */
+  RoutingContextInternal setBodyAsJsonValue(Object json, long length);
 }
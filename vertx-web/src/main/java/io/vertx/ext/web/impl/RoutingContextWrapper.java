@@ -44,29 +44,41 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
   protected final RoutingContext inner;
   private final String mountPoint;
 
-  public RoutingContextWrapper(String mountPoint, Set<RouteImpl> iter, RoutingContext inner) {
-    super(mountPoint, iter);
+  public RoutingContextWrapper(String mountPoint, RouterState routerState, RoutingContext inner) {
+    super(mountPoint, routerState);
     this.inner = inner;
-    String parentMountPoint = inner.mountPoint();
+    this.mountPoint = mountPoint(inner.mountPoint(), mountPoint);
+  }
+
+  /**
+   * Combine the mount point of a sub router with the mount point of the parent routing context.
+   */
+  static String mountPoint(String parentMountPoint, String mountPoint) {
     if (parentMountPoint == null) {
       // just use the override
-      this.mountPoint = mountPoint;
+      return mountPoint;
+    }
+    // special cases:
+    // * when a sub router is mounting on / basically it's telling that it wants to use the parent mount
+    if ("/".equals(mountPoint)) {
+      return parentMountPoint;
+    }
+    // * when the parent mount is / basically it's telling that it wants to use the sub router mount
+    if ("/".equals(parentMountPoint)) {
+      return mountPoint;
+    }
+    // * otherwise it's extending the parent path
+    if (parentMountPoint.endsWith("/")) {
+      return parentMountPoint.substring(0, parentMountPoint.length() - 1) + mountPoint;
     } else {
-      // special cases:
-      // * when a sub router is mounting on / basically it's telling that it wants to use the parent mount
-      if ("/".equals(mountPoint)) {
-        this.mountPoint = parentMountPoint;
-      } else
-        // * when the parent mount is / basically it's telling that it wants to use the sub router mount
-        if ("/".equals(parentMountPoint)) {
-          this.mountPoint = mountPoint;
-        } else
-        // * otherwise it's extending the parent path
-        if (parentMountPoint.endsWith("/")) {
-          this.mountPoint = parentMountPoint.substring(0, parentMountPoint.length() - 1) + mountPoint;
-        } else {
-          this.mountPoint = parentMountPoint + mountPoint;
-        }
+      return parentMountPoint + mountPoint;
+    }
+  }
+
+  @Override
+  void routed(String mountPoint, RouteState routeState) {
+    if (inner instanceof RoutingContextImplBase) {
+      ((RoutingContextImplBase) inner).routed(mountPoint, routeState);
     }
   }
 
@@ -80,6 +92,11 @@ public class RoutingContextWrapper extends RoutingContextImplBase {
     return ((RoutingContextInternal) inner).seenHandler(id);
   }
 
+  @Override
+  public RoutingContextInternal setBodyAsJsonValue(Object json, long length) {
+    return ((RoutingContextInternal) inner).setBodyAsJsonValue(json, length);
+  }
+
   @Override
   public HttpServerRequest request() {
     return inner.request();
@@ -40,10 +40,9 @@ public class Utils extends io.vertx.core.impl.Utils {
     return tccl == null ? Utils.class.getClassLoader() : tccl;
   }
 
-  private static final ZoneId ZONE_GMT = ZoneId.of("GMT");
-
   public static String formatRFC1123DateTime(final long time) {
-    return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(time).atZone(ZONE_GMT));
+    // the string of the cached date is cached too
+    return HttpDate.format(time).toString();
   }
 
   public static long parseRFC1123DateTime(final String header) {
@@ -198,6 +197,10 @@ public class Utils extends io.vertx.core.impl.Utils {
           return false;
         }
       }
+
+      // if-modified-since must be ignored when if-none-match is present
+      // https://tools.ietf.org/html/rfc7232#section-3.3
+      return true;
     }
 
     // if-modified-since
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.metrics;
+
+import io.vertx.ext.web.RouteMetrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link RouteMetrics} keeping the metrics of each route in process, in {@link LatencyHistogram histograms} that can
+ * be queried at any time, for instance to expose them from a route or to report them periodically.
+ * <p>
+ * Metrics can also be forwarded to another {@link RouteMetrics}, such as a reporter to a monitoring system.
+ * <p>
+ * This class is thread-safe
+ */
+public class RouteMetricsRecorder implements RouteMetrics {
+
+  // ConcurrentHashMap doesn't allow null keys
+  private static final String UNMATCHED = "\0";
+
+  private final ConcurrentMap<String, RouteStats> stats = new ConcurrentHashMap<>();
+  private final RouteMetrics reporter;
+
+  public RouteMetricsRecorder() {
+    this(null);
+  }
+
+  /**
+   * @param reporter the metrics to forward the recorded values to, can be {@code null}
+   */
+  public RouteMetricsRecorder(RouteMetrics reporter) {
+    this.reporter = reporter;
+  }
+
+  @Override
+  public void requestEnd(String route, int statusCode, long handlerTime, long timeToFirstByte) {
+    final String key = route == null ? UNMATCHED : route;
+    RouteStats routeStats = stats.get(key);
+    if (routeStats == null) {
+      routeStats = stats.computeIfAbsent(key, k -> new RouteStats(route));
+    }
+    routeStats.record(statusCode, handlerTime, timeToFirstByte);
+    if (reporter != null) {
+      reporter.requestEnd(route, statusCode, handlerTime, timeToFirstByte);
+    }
+  }
+
+  /**
+   * @param route the route name, {@code null} for the requests no route matched
+   * @return the metrics of the route, {@code null} if it didn't handle any request
+   */
+  public RouteStats stats(String route) {
+    return stats.get(route == null ? UNMATCHED : route);
+  }
+
+  /**
+   * @return the metrics of all the routes that handled requests
+   */
+  public Collection<RouteStats> stats() {
+    return Collections.unmodifiableCollection(stats.values());
+  }
+
+  /**
+   * Clear the recorded metrics.
+   */
+  public void reset() {
+    stats.clear();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+package io.vertx.ext.web.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded by a {@link RouteMetricsRecorder} for a route.
+ * <p>
+ * This class is thread-safe
+ */
+public final class RouteStats {
+
+  private final String route;
+  private final LongAdder count = new LongAdder();
+  // 1xx to 5xx, other status codes are only counted in the total
+  private final LongAdder[] statusClasses = new LongAdder[5];
+  private final LatencyHistogram handlerTime = new LatencyHistogram();
+  private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+
+  RouteStats(String route) {
+    this.route = route;
+    for (int i = 0; i < statusClasses.length; i++) {
+      statusClasses[i] = new LongAdder();
+    }
+  }
+
+  void record(int statusCode, long handlerTime, long timeToFirstByte) {
+    count.increment();
+    final int statusClass = statusCode / 100;
+    if (statusClass >= 1 && statusClass <= 5) {
+      statusClasses[statusClass - 1].increment();
+    }
+    this.handlerTime.record(handlerTime);
+    this.timeToFirstByte.record(timeToFirstByte);
+  }
+
+  /**
+   * @return the route name, {@code null} for the requests no route matched
+   */
+  public String route() {
+    return route;
+  }
+
+  /**
+   * @return the number of requests handled by the route
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * Get the number of responses of a status class, e.g {@code 5} for the {@code 5xx} responses.
+   *
+   * @param statusClass the status class, between {@code 1} and {@code 5}
+   * @return the number of responses
+   */
+  public long statusCount(int statusClass) {
+    if (statusClass < 1 || statusClass > 5) {
+      throw new IllegalArgumentException("statusClass must be between 1 and 5");
+    }
+    return statusClasses[statusClass - 1].sum();
+  }
+
+  /**
+   * @return the nanoseconds between the router receiving the request and the response end
+   */
+  public LatencyHistogram handlerTime() {
+    return handlerTime;
+  }
+
+  /**
+   * @return the nanoseconds between the router receiving the request and the response headers being written
+   */
+  public LatencyHistogram timeToFirstByte() {
+    return timeToFirstByte;
+  }
+
+  @Override
+  public String toString() {
+    return "RouteStats{" +
+      "route=" + route +
+      ", count=" + count() +
+      ", handlerTime=" + handlerTime +
+      ", timeToFirstByte=" + timeToFirstByte +
+      '}';
+  }
+}
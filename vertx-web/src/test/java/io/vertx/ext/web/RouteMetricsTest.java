@@ -0,0 +1,94 @@
+package io.vertx.ext.web;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.metrics.RouteMetricsRecorder;
+import io.vertx.ext.web.metrics.RouteStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RouteMetricsTest extends WebTestBase {
+
+  private final RouteMetricsRecorder recorder = new RouteMetricsRecorder();
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    router.metrics(recorder);
+  }
+
+  @Test
+  public void testRouteMetrics() throws Exception {
+    router.route().handler(RoutingContext::next);
+    router.get("/users/:id").handler(rc -> rc.response().end());
+    router.get("/fail").handler(rc -> rc.fail(500));
+
+    testRequest(HttpMethod.GET, "/users/1", 200, "OK");
+    testRequest(HttpMethod.GET, "/users/2", 200, "OK");
+    testRequest(HttpMethod.GET, "/fail", 500, "Internal Server Error");
+    testRequest(HttpMethod.GET, "/missing", 404, "Not Found");
+
+    RouteStats users = recorder.stats("/users/:id");
+    assertEquals(2, users.count());
+    assertEquals(2, users.statusCount(2));
+    assertEquals(0, users.statusCount(5));
+    assertEquals(2, users.handlerTime().count());
+    assertTrue(users.handlerTime().max() > 0);
+    assertTrue(users.timeToFirstByte().max() <= users.handlerTime().max());
+
+    assertEquals(1, recorder.stats("/fail").statusCount(5));
+
+    // the 404 is sent by the router, not by the route without path
+    RouteStats unmatched = recorder.stats(null);
+    assertEquals(1, unmatched.statusCount(4));
+    assertNull(recorder.stats("*"));
+  }
+
+  @Test
+  public void testFailureHandlerKeepsFailedRoute() throws Exception {
+    router.get("/fail").handler(rc -> rc.fail(409));
+    router.route().failureHandler(rc -> rc.response().setStatusCode(rc.statusCode()).end());
+
+    testRequest(HttpMethod.GET, "/fail", 409, "Conflict");
+
+    assertEquals(1, recorder.stats("/fail").statusCount(4));
+    assertEquals(1, recorder.stats().size());
+  }
+
+  @Test
+  public void testSubRouterRouteName() throws Exception {
+    Router subRouter = Router.router(vertx);
+    subRouter.get("/items/:id").handler(rc -> rc.response().end());
+    subRouter.get("/named").setName("named").handler(rc -> rc.response().end());
+    router.mountSubRouter("/api", subRouter);
+
+    testRequest(HttpMethod.GET, "/api/items/1", 200, "OK");
+    testRequest(HttpMethod.GET, "/api/named", 200, "OK");
+
+    assertEquals(1, recorder.stats("/api/items/:id").count());
+    assertEquals(1, recorder.stats("named").count());
+  }
+
+  @Test
+  public void testReporter() throws Exception {
+    List<String> reported = new ArrayList<>();
+    router.metrics(new RouteMetricsRecorder((route, statusCode, handlerTime, timeToFirstByte) -> reported.add(route + " " + statusCode)));
+    router.get("/path").handler(rc -> rc.response().setStatusCode(204).end());
+
+    testRequest(HttpMethod.GET, "/path", 204, "No Content");
+
+    assertEquals(1, reported.size());
+    assertEquals("/path 204", reported.get(0));
+  }
+
+  @Test
+  public void testMetricsDisabled() throws Exception {
+    router.metrics(null);
+    router.get("/path").handler(rc -> rc.response().end());
+
+    testRequest(HttpMethod.GET, "/path", 200, "OK");
+
+    assertTrue(recorder.stats().isEmpty());
+  }
+}
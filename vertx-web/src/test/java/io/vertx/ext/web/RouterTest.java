@@ -33,6 +33,7 @@ import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static io.vertx.core.Future.succeededFuture;
@@ -2976,4 +2977,103 @@ public class RouterTest extends WebTestBase {
     testRequest(HttpMethod.GET, "/q/swagger/", 200, "OK");
     testRequest(HttpMethod.GET, "/q/swagger/index.html", 200, "OK");
   }
+
+  @Test
+  public void testBatch() throws Exception {
+    AtomicInteger notifications = new AtomicInteger();
+    router.modifiedHandler(r -> notifications.incrementAndGet());
+
+    router.batch(r -> {
+      for (int i = 0; i < 10000; i++) {
+        final int id = i;
+        r.get("/batch/" + i).handler(rc -> rc.response().setStatusMessage("b" + id).end());
+      }
+      // nothing is published while the batch is in progress
+      assertTrue(router.getRoutes().isEmpty());
+    });
+
+    assertEquals(1, notifications.get());
+    assertEquals(10000, router.getRoutes().size());
+    testRequest(HttpMethod.GET, "/batch/0", 200, "b0");
+    testRequest(HttpMethod.GET, "/batch/9999", 200, "b9999");
+  }
+
+  @Test
+  public void testBatchRemove() throws Exception {
+    Route existing = router.get("/existing").handler(RoutingContext::end);
+
+    router.batch(r -> {
+      Route added = r.get("/added").handler(RoutingContext::end);
+      r.get("/kept").handler(RoutingContext::end);
+      existing.remove();
+      added.remove();
+    });
+
+    assertEquals(1, router.getRoutes().size());
+    testRequest(HttpMethod.GET, "/existing", 404, "Not Found");
+    testRequest(HttpMethod.GET, "/added", 404, "Not Found");
+    testRequest(HttpMethod.GET, "/kept", 200, "OK");
+  }
+
+  @Test
+  public void testBatchThrows() throws Exception {
+    AtomicInteger notifications = new AtomicInteger();
+    router.get("/existing").handler(RoutingContext::end);
+    router.modifiedHandler(r -> notifications.incrementAndGet());
+
+    try {
+      router.batch(r -> {
+        r.get("/added").handler(RoutingContext::end);
+        r.clear();
+        throw new IllegalStateException("halfway");
+      });
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("halfway", e.getMessage());
+    }
+
+    // none of the mutations are published
+    assertEquals(0, notifications.get());
+    assertEquals(1, router.getRoutes().size());
+    testRequest(HttpMethod.GET, "/existing", 200, "OK");
+    testRequest(HttpMethod.GET, "/added", 404, "Not Found");
+  }
+
+  @Test
+  public void testEmptyBatch() throws Exception {
+    AtomicInteger notifications = new AtomicInteger();
+    router.get("/existing").handler(RoutingContext::end);
+    router.modifiedHandler(r -> notifications.incrementAndGet());
+
+    router.batch(r -> {
+    });
+
+    assertEquals(0, notifications.get());
+    testRequest(HttpMethod.GET, "/existing", 200, "OK");
+  }
+
+  @Test
+  public void testBatchDoesNotLockTheRouter() throws Exception {
+    AtomicReference<Thread> modifiedThread = new AtomicReference<>();
+    router.modifiedHandler(r -> modifiedThread.set(Thread.currentThread()));
+
+    router.batch(r -> {
+      r.get("/batched").handler(RoutingContext::end);
+      // another thread changes the routes while the batch is in progress
+      Thread other = new Thread(() -> router.get("/other").handler(RoutingContext::end));
+      other.start();
+      try {
+        other.join(10000);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      assertFalse(other.isAlive());
+      assertSame(other, modifiedThread.get());
+    });
+
+    assertSame(Thread.currentThread(), modifiedThread.get());
+    assertEquals(2, router.getRoutes().size());
+    testRequest(HttpMethod.GET, "/batched", 200, "OK");
+    testRequest(HttpMethod.GET, "/other", 200, "OK");
+  }
 }
@@ -17,13 +17,20 @@
 package io.vertx.ext.web.handler;
 
 import io.vertx.core.Context;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.Cookie;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Route;
 import io.vertx.ext.web.WebTestBase;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author <a href="mailto:stephane.bastian.dev@gmail.com">Stéphane Bastian</a>
@@ -166,4 +173,171 @@ public class BlockingHandlerTest extends WebTestBase {
     assertTrue(now - start < pause + leeway);
   }
 
+  @Test
+  public void testExecutorHandler() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      // the results are asserted on the test thread, a failed assertion in a handler would only fail the request
+      AtomicReference<Thread> eventLoopThread = new AtomicReference<>();
+      AtomicReference<Context> eventLoopContext = new AtomicReference<>();
+      AtomicReference<Thread> executorThread = new AtomicReference<>();
+      AtomicReference<Route> executorRoute = new AtomicReference<>();
+      AtomicReference<Context> writeContext = new AtomicReference<>();
+      AtomicReference<Thread> nextThread = new AtomicReference<>();
+      AtomicReference<Context> nextContext = new AtomicReference<>();
+      router.route().handler(rc -> {
+        eventLoopThread.set(Thread.currentThread());
+        eventLoopContext.set(rc.vertx().getOrCreateContext());
+        rc.response().setChunked(true);
+        rc.response().write("A");
+        rc.next();
+      });
+      router.route().blockingHandler(rc -> {
+        executorThread.set(Thread.currentThread());
+        executorRoute.set(rc.currentRoute());
+        // the write runs on the event loop, the next handler is called once it is done
+        rc.response().write("B").onComplete(ar -> writeContext.set(Vertx.currentContext()));
+        rc.next();
+      }, executor);
+      router.route().handler(rc -> {
+        nextThread.set(Thread.currentThread());
+        nextContext.set(rc.vertx().getOrCreateContext());
+        rc.response().write("C");
+        rc.response().end();
+      });
+      testRequest(HttpMethod.GET, "/", 200, "OK", "ABC");
+      assertNotNull(executorThread.get());
+      assertNotSame(eventLoopThread.get(), executorThread.get());
+      assertNotNull(executorRoute.get());
+      assertWaitUntil(() -> writeContext.get() != null);
+      assertSame(eventLoopContext.get(), writeContext.get());
+      assertSame(eventLoopThread.get(), nextThread.get());
+      assertSame(eventLoopContext.get(), nextContext.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorHandlerEndsResponse() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      AtomicReference<Context> eventLoopContext = new AtomicReference<>();
+      AtomicReference<Context> endContext = new AtomicReference<>();
+      router.route().handler(rc -> {
+        eventLoopContext.set(rc.vertx().getOrCreateContext());
+        rc.next();
+      });
+      router.route().blockingHandler(rc -> rc.response()
+        .setStatusCode(201)
+        .setStatusMessage("Created")
+        .putHeader("x-executor", "true")
+        .end("done")
+        .onComplete(ar -> endContext.set(Vertx.currentContext())), executor);
+      testRequest(HttpMethod.GET, "/", null, res -> assertEquals("true", res.getHeader("x-executor")), 201, "Created", "done");
+      assertWaitUntil(() -> endContext.get() != null);
+      assertSame(eventLoopContext.get(), endContext.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorHandlerHeaders() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      AtomicReference<String> header = new AtomicReference<>();
+      router.route().blockingHandler(rc -> {
+        rc.response().putHeader("x-executor", "true");
+        // a copy taken once the header is set
+        MultiMap headers = rc.response().headers();
+        header.set(headers.get("x-executor"));
+        headers.set("x-copy", "true");
+        rc.response().end("done");
+      }, executor);
+      testRequest(HttpMethod.GET, "/", null, res -> {
+        assertEquals("true", res.getHeader("x-executor"));
+        assertNull(res.getHeader("x-copy"));
+      }, 200, "OK", "done");
+      assertEquals("true", header.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorHandlerCookies() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      AtomicReference<Cookie> removed = new AtomicReference<>();
+      router.route().blockingHandler(rc -> {
+        rc.addCookie(Cookie.cookie("a", "1"));
+        rc.response().addCookie(Cookie.cookie("b", "2"));
+        removed.set(rc.removeCookie("c"));
+        rc.end();
+      }, executor);
+      testRequest(HttpMethod.GET, "/", req -> req.putHeader("cookie", "c=3"), res -> {
+        List<String> cookies = res.cookies();
+        assertEquals(3, cookies.size());
+        assertTrue(cookies.stream().anyMatch(cookie -> cookie.startsWith("a=1")));
+        assertTrue(cookies.stream().anyMatch(cookie -> cookie.startsWith("b=2")));
+        assertTrue(cookies.stream().anyMatch(cookie -> cookie.startsWith("c=")));
+      }, 200, "OK", null);
+      assertNotNull(removed.get());
+      assertEquals("3", removed.get().getValue());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorHandlerResponseCallFails() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      router.route().blockingHandler(rc -> {
+        rc.response().end("done");
+        // the head is already written when this runs on the event loop
+        rc.response().putHeader("x-late", "true");
+      }, executor);
+      router.route().failureHandler(rc -> failure.set(rc.failure()));
+      testRequest(HttpMethod.GET, "/", null, res -> assertNull(res.getHeader("x-late")), 200, "OK", "done");
+      assertWaitUntil(() -> failure.get() != null);
+      assertTrue(failure.get() instanceof IllegalStateException);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorHandlerFailureThrowException() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      List<Context> contexts = new ArrayList<>();
+      router.route().handler(rc -> {
+        contexts.add(rc.vertx().getOrCreateContext());
+        rc.next();
+      });
+      router.route().blockingHandler(rc -> {
+        throw new RuntimeException("foo");
+      }, executor);
+      router.route().failureHandler(rc -> {
+        assertTrue(contexts.get(0).equals(rc.vertx().getOrCreateContext()));
+        assertEquals("foo", rc.failure().getMessage());
+        rc.response().setStatusCode(500).end();
+      });
+      testRequest(HttpMethod.GET, "/", 500, "Internal Server Error");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorHandlerRejected() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    executor.shutdown();
+    router.route().blockingHandler(rc -> fail("Should not be called"), executor);
+    testRequest(HttpMethod.GET, "/", 503, "Service Unavailable");
+  }
+
 }
@@ -16,12 +16,18 @@
 
 package io.vertx.ext.web.handler;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.web.FileUpload;
 import io.vertx.ext.web.Route;
 import io.vertx.ext.web.RoutingContext;
@@ -188,6 +194,158 @@ public class BodyHandlerTest extends WebTestBase {
     }, 200, "OK", null);
   }
 
+  @Test
+  public void testCompositeBodyBuffer() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setCompositeBodyBuffer(true));
+    Buffer buff = TestUtils.randomBuffer(200000);
+    router.route().handler(rc -> {
+      assertEquals(buff, rc.getBody());
+      assertEquals(buff.length(), rc.getBody().length());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      for (int i = 0; i < buff.length(); i += 10000) {
+        req.write(buff.slice(i, Math.min(i + 10000, buff.length())));
+      }
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testCompositeBodyBufferJson() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setCompositeBodyBuffer(true).setBodyLimit(1000));
+    JsonObject json = new JsonObject().put("foo", "bar").put("blah", 123);
+    router.route().handler(rc -> {
+      assertEquals(json, rc.getBodyAsJson());
+      assertEquals(json.encode(), rc.getBodyAsString());
+      rc.response().end();
+    });
+    String encoded = json.encode();
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(encoded.length()));
+      req.write(encoded.substring(0, 5));
+      req.write(encoded.substring(5));
+    }, 200, "OK", null);
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.write(TestUtils.randomBuffer(2000));
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testCompositeBodyBufferEmptyBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setCompositeBodyBuffer(true));
+    router.route().handler(rc -> {
+      assertNotNull(rc.getBody());
+      assertEquals(0, rc.getBody().length());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> req.putHeader(HttpHeaders.CONTENT_LENGTH, "0"), 200, "OK", null);
+  }
+
+  @Test
+  public void testIncrementalJsonParsing() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setIncrementalJsonParsing(true));
+    JsonObject json = new JsonObject().put("foo", "bar").put("blah", 123).put("nested", new JsonArray().add(1).add("two"));
+    router.route().handler(rc -> {
+      assertEquals(json, rc.getBodyAsJson());
+      assertEquals(json, new JsonObject(rc.getBody()));
+      assertEquals(json.encode(), rc.getBodyAsString());
+      rc.response().end();
+    });
+    String encoded = json.encode();
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/json; charset=utf-8");
+      // split the value over several chunks
+      req.write(encoded.substring(0, 7));
+      req.write(encoded.substring(7, 20));
+      req.write(encoded.substring(20));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testIncrementalJsonParsingArray() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setIncrementalJsonParsing(true));
+    JsonArray json = new JsonArray().add(new JsonObject().put("foo", "bar")).add(123);
+    router.route().handler(rc -> {
+      assertEquals(json, rc.getBodyAsJsonArray());
+      try {
+        rc.getBodyAsJson();
+        fail("Should not decode an array as an object");
+      } catch (DecodeException ignore) {
+      }
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/vnd.api+json");
+      req.write(json.encode());
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testIncrementalJsonParsingInvalidBody() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setIncrementalJsonParsing(true));
+    router.route().handler(rc -> fail("Should not be called"));
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/json");
+      req.write("{\"foo\": ");
+      req.write("]");
+    }, 400, "Bad Request", null);
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/json");
+      req.write("{} {}");
+    }, 400, "Bad Request", null);
+  }
+
+  @Test
+  public void testIncrementalJsonParsingLimits() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setIncrementalJsonParsing(true).setBodyLimit(100));
+    router.route().handler(rc -> {
+      try {
+        rc.getBodyAsJson(10);
+        rc.fail(500);
+      } catch (IllegalStateException e) {
+        rc.response().end();
+      }
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/json");
+      req.write(new JsonObject().put("foo", "0123456789").encode());
+    }, 200, "OK", null);
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/json");
+      req.write(new JsonObject().put("foo", TestUtils.randomAlphaString(200)).encode());
+    }, 413, "Request Entity Too Large", null);
+  }
+
+  @Test
+  public void testIncrementalJsonParsingIgnoresOtherContentTypes() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create().setIncrementalJsonParsing(true));
+    router.route().handler(rc -> {
+      assertEquals("{not json", rc.getBodyAsString());
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "text/plain");
+      req.write("{not json");
+    }, 200, "OK", null);
+  }
+
   @Test
   public void testBodyTooBig() throws Exception {
     router.clear();
@@ -241,6 +399,186 @@ public class BodyHandlerTest extends WebTestBase {
     testFileUpload(dir.getPath(), 5000);
   }
 
+  @Test
+  public void testFileUploadBelowMemoryThreshold() throws Exception {
+    router.clear();
+    File dir = tempUploads.newFolder();
+    router.route().handler(BodyHandler.create().setUploadsDirectory(dir.getPath()).setMemoryThreshold(4096));
+    Buffer fileData = TestUtils.randomBuffer(2000);
+    router.route().handler(rc -> {
+      assertEquals(1, rc.fileUploads().size());
+      FileUpload upload = rc.fileUploads().iterator().next();
+      assertEquals("somename", upload.name());
+      assertEquals(fileData.length(), upload.size());
+      assertNull(upload.uploadedFileName());
+      assertEquals(fileData, upload.content());
+      // nothing was written to disk
+      assertEquals(0, dir.list().length);
+      rc.response().end();
+    });
+    sendFileUploadRequest(fileData, 200, "OK");
+  }
+
+  @Test
+  public void testFileUploadAboveMemoryThreshold() throws Exception {
+    router.clear();
+    File dir = tempUploads.newFolder();
+    router.route().handler(BodyHandler.create().setUploadsDirectory(dir.getPath()).setMemoryThreshold(4096));
+    Buffer fileData = TestUtils.randomBuffer(100000);
+    router.route().handler(rc -> {
+      assertEquals(1, rc.fileUploads().size());
+      FileUpload upload = rc.fileUploads().iterator().next();
+      assertNull(upload.content());
+      String uploadedFileName = upload.uploadedFileName();
+      assertTrue(uploadedFileName.startsWith(dir.getPath() + File.separator));
+      assertEquals(fileData, vertx.fileSystem().readFileBlocking(uploadedFileName));
+      rc.response().end();
+    });
+    sendFileUploadRequest(fileData, 200, "OK");
+  }
+
+  @Test
+  public void testBodyAboveMemoryThreshold() throws Exception {
+    router.clear();
+    File dir = tempUploads.newFolder();
+    router.route().handler(BodyHandler.create()
+      .setUploadsDirectory(dir.getPath())
+      .setMemoryThreshold(4096)
+      .setDeleteUploadedFilesOnEnd(true));
+    Buffer small = TestUtils.randomBuffer(1000);
+    Buffer large = TestUtils.randomBuffer(100000);
+    router.route().handler(rc -> {
+      if (rc.fileUploads().isEmpty()) {
+        assertEquals(small, rc.getBody());
+      } else {
+        assertNull(rc.getBody());
+        FileUpload upload = rc.fileUploads().iterator().next();
+        assertEquals("", upload.name());
+        assertEquals("application/octet-stream", upload.contentType());
+        assertEquals(large.length(), upload.size());
+        assertEquals(large, vertx.fileSystem().readFileBlocking(upload.uploadedFileName()));
+      }
+      rc.response().end();
+    });
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/octet-stream");
+      req.write(small);
+    }, 200, "OK", null);
+    testRequest(HttpMethod.POST, "/", req -> {
+      req.setChunked(true);
+      req.putHeader("content-type", "application/octet-stream");
+      for (int i = 0; i < large.length(); i += 10000) {
+        req.write(large.slice(i, i + 10000));
+      }
+    }, 200, "OK", null);
+    // the spilled body is removed once the response is sent
+    assertWaitUntil(() -> dir.list().length == 0);
+  }
+
+  @Test
+  public void testFileUploadToWriteStream() throws Exception {
+    router.clear();
+    File dir = tempUploads.newFolder();
+    Buffer fileData = TestUtils.randomBuffer(200000);
+    BufferWriteStream stream = new BufferWriteStream();
+    router.route().handler(BodyHandler.create()
+      .setUploadsDirectory(dir.getPath())
+      .setUploadStreamFactory(upload -> {
+        assertEquals("somename", upload.name());
+        assertEquals("somefile.dat", upload.filename());
+        // the stream may be available later, the upload is paused meanwhile
+        Promise<WriteStream<Buffer>> promise = Promise.promise();
+        vertx.setTimer(10, id -> promise.complete(stream));
+        return promise.future();
+      }));
+    router.route().handler(rc -> {
+      assertEquals(1, rc.fileUploads().size());
+      FileUpload upload = rc.fileUploads().iterator().next();
+      assertNull(upload.uploadedFileName());
+      assertEquals(fileData.length(), upload.size());
+      assertTrue(stream.ended);
+      assertEquals(fileData, stream.buffer);
+      // nothing was written to disk
+      assertEquals(0, dir.list().length);
+      rc.response().end();
+    });
+    sendFileUploadRequest(fileData, 200, "OK");
+  }
+
+  @Test
+  public void testFileUploadToWriteStreamFailure() throws Exception {
+    router.clear();
+    router.route().handler(BodyHandler.create()
+      .setUploadStreamFactory(upload -> Future.failedFuture("No storage available")));
+    router.route().handler(rc -> fail("Should not be called"));
+    sendFileUploadRequest(TestUtils.randomBuffer(1000), 500, "Internal Server Error");
+  }
+
+  /**
+   * A stream collecting the written buffers, the writes are acknowledged asynchronously.
+   */
+  private class BufferWriteStream implements WriteStream<Buffer> {
+
+    final Buffer buffer = Buffer.buffer();
+    boolean ended;
+    int pending;
+    Handler<Void> drainHandler;
+
+    @Override
+    public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+      return this;
+    }
+
+    @Override
+    public Future<Void> write(Buffer data) {
+      Promise<Void> promise = Promise.promise();
+      write(data, promise);
+      return promise.future();
+    }
+
+    @Override
+    public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+      buffer.appendBuffer(data);
+      pending += data.length();
+      vertx.runOnContext(v -> {
+        pending -= data.length();
+        if (pending == 0 && drainHandler != null) {
+          Handler<Void> h = drainHandler;
+          drainHandler = null;
+          h.handle(null);
+        }
+        if (handler != null) {
+          handler.handle(Future.succeededFuture());
+        }
+      });
+    }
+
+    @Override
+    public void end(Handler<AsyncResult<Void>> handler) {
+      ended = true;
+      if (handler != null) {
+        handler.handle(Future.succeededFuture());
+      }
+    }
+
+    @Override
+    public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+      return this;
+    }
+
+    @Override
+    public boolean writeQueueFull() {
+      return pending > 8192;
+    }
+
+    @Override
+    public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+      drainHandler = handler;
+      return this;
+    }
+  }
+
   private void testFileUpload(String uploadsDir, int size) throws Exception {
     String name = "somename";
     String fileName = "somefile.dat";
@@ -673,6 +1011,22 @@ public class BodyHandlerTest extends WebTestBase {
     assertFalse("Upload directory must not be created.", vertx.fileSystem().existsBlocking(dirName));
   }
 
+  @Test
+  public void testUploadDirCreatedOnFirstFileUpload() throws Exception {
+    String dirName = getNotCreatedTemporaryFolderName();
+    router.clear();
+    router.route().handler(BodyHandler.create().setUploadsDirectory(dirName));
+
+    // no file part, the directory is not needed
+    testFormURLEncoded();
+    assertFalse("Upload directory must not be created.", vertx.fileSystem().existsBlocking(dirName));
+
+    router.clear();
+    router.route().handler(BodyHandler.create().setUploadsDirectory(dirName));
+    testFileUpload(dirName, 5000);
+    assertTrue(vertx.fileSystem().existsBlocking(dirName));
+  }
+
   @Test
   public void testBodyHandlerCreateTrueWorks() throws Exception {
     router.clear();
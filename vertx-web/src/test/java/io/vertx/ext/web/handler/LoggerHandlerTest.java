@@ -17,9 +17,20 @@
 package io.vertx.ext.web.handler;
 
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.WebTestBase;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 /**
@@ -30,6 +41,9 @@ import java.util.concurrent.CountDownLatch;
  */
 public class LoggerHandlerTest extends WebTestBase {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Override
   public void setUp() throws Exception {
     super.setUp();
@@ -76,6 +90,106 @@ public class LoggerHandlerTest extends WebTestBase {
     latch.await();
   }
 
+  @Test
+  public void testAccessLog() throws Exception {
+    File file = new File(tempFolder.getRoot(), "logs/access.log");
+    LoggerHandler logger = LoggerHandler.create(LoggerFormat.DEFAULT).accessLog(file.getPath());
+    router.route().handler(logger);
+    router.route().handler(rc -> rc.response().end("hello"));
+    testRequest(HttpMethod.GET, "/somedir?q=1", req -> req.putHeader("user-agent", "junit"), 200, "OK", "hello");
+    assertWaitUntil(() -> file.exists() && file.length() > 0);
+    List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    assertEquals(1, lines.size());
+    String line = lines.get(0);
+    assertTrue(line, line.matches("[^ ]+ - - \\[[^\\]]+ GMT\\] \"GET /somedir\\?q=1 HTTP/1.1\" 200 5 \"-\" \"junit\""));
+    assertEquals(0, logger.droppedLines());
+  }
+
+  @Test
+  public void testAccessLogRotation() throws Exception {
+    File dir = tempFolder.newFolder();
+    File file = new File(dir, "access.log");
+    LoggerHandler logger = LoggerHandler.create(LoggerFormat.TINY).accessLog(file.getPath(), 16, 100);
+    router.route().handler(logger);
+    router.route().handler(rc -> rc.response().end());
+    for (int i = 0; i < 10; i++) {
+      testRequest(HttpMethod.GET, "/somedir/" + i, 200, "OK");
+    }
+    // every line is about 30 bytes, so the file is rotated every 3 lines
+    assertWaitUntil(() -> countLines(dir) + logger.droppedLines() == 10);
+    assertTrue(dir.listFiles().length > 1);
+    for (File f : dir.listFiles()) {
+      assertTrue(f.getName().startsWith("access.log"));
+      assertTrue(f.length() <= 100);
+    }
+  }
+
+  @Test
+  public void testJsonAccessLog() throws Exception {
+    File file = new File(tempFolder.getRoot(), "access.json");
+    LoggerHandler logger = LoggerHandler.create(LoggerFormat.JSON)
+      .fields(Arrays.asList(LoggerField.METHOD, LoggerField.PATH_TEMPLATE, LoggerField.ROUTE_NAME, LoggerField.STATUS,
+        LoggerField.BYTES, LoggerField.DURATION, LoggerField.USER_ID, LoggerField.USER_AGENT))
+      .accessLog(file.getPath());
+    router.route().handler(logger);
+    router.get("/users/:id").setName("user").handler(rc -> rc.response().end("hello"));
+    testRequest(HttpMethod.GET, "/users/123", req -> req.putHeader("user-agent", "junit \"quoted\""), 200, "OK", "hello");
+    assertWaitUntil(() -> file.exists() && file.length() > 0);
+    List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    assertEquals(1, lines.size());
+    JsonObject json = new JsonObject(lines.get(0));
+    assertEquals(8, json.size());
+    assertEquals("GET", json.getString("method"));
+    assertEquals("/users/:id", json.getString("path"));
+    assertEquals("user", json.getString("route"));
+    assertEquals(200, (int) json.getInteger("status"));
+    assertEquals(5, (int) json.getInteger("bytes"));
+    assertTrue(json.getLong("duration") >= 0);
+    assertTrue(json.containsKey("user"));
+    assertNull(json.getString("user"));
+    assertEquals("junit \"quoted\"", json.getString("userAgent"));
+  }
+
+  @Test
+  public void testBinaryAccessLog() throws Exception {
+    File file = new File(tempFolder.getRoot(), "access.bin");
+    LoggerHandler logger = LoggerHandler.create(LoggerFormat.BINARY)
+      .fields(Arrays.asList(LoggerField.STATUS, LoggerField.URI, LoggerField.REFERRER))
+      .accessLog(file.getPath());
+    router.route().handler(logger);
+    router.route().handler(rc -> rc.response().setStatusCode(204).end());
+    testRequest(HttpMethod.GET, "/somedir", 204, "No Content");
+    assertWaitUntil(() -> file.exists() && file.length() > 0);
+    ByteBuffer record = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    assertEquals(record.capacity() - 4, record.getInt());
+    assertEquals(LoggerField.STATUS.ordinal(), record.get());
+    assertEquals(204L, record.getLong());
+    assertEquals(LoggerField.URI.ordinal(), record.get());
+    byte[] uri = new byte[record.getInt()];
+    record.get(uri);
+    assertEquals("/somedir", new String(uri, StandardCharsets.UTF_8));
+    assertEquals(LoggerField.REFERRER.ordinal(), record.get());
+    assertEquals(-1, record.getInt());
+    assertFalse(record.hasRemaining());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFieldsRequireStructuredFormat() {
+    LoggerHandler.create(LoggerFormat.TINY).fields(Arrays.asList(LoggerField.STATUS));
+  }
+
+  private static long countLines(File dir) {
+    long lines = 0;
+    for (File f : dir.listFiles()) {
+      try {
+        lines += Files.readAllLines(f.toPath()).size();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return lines;
+  }
+
   private void testLogger(LoggerHandler logger) throws Exception {
     router.route().handler(logger);
     router.route().handler(rc -> rc.response().end());
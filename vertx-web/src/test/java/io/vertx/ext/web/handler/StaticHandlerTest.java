@@ -19,6 +19,7 @@ package io.vertx.ext.web.handler;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.net.PemKeyCertOptions;
@@ -30,15 +31,18 @@ import io.vertx.ext.web.impl.Utils;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
@@ -261,6 +265,74 @@ public class StaticHandlerTest extends WebTestBase {
     latch.await();
   }
 
+  @Test
+  public void testLearnedLinkPreload() throws Exception {
+    stat.setLearnPushHints(true)
+      .setWebRoot("webroot/somedir3");
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/testLinkPreload.html", null, res -> assertTrue(res.headers().getAll("Link").isEmpty()), 200, "OK", null);
+      testRequest(HttpMethod.GET, "/style.css", req -> req.putHeader("Referer", "http://localhost:8080/testLinkPreload.html?q=1"), 200, "OK", null);
+    }
+    // a single request from another page is not enough
+    testRequest(HttpMethod.GET, "/coin.png", req -> req.putHeader("Referer", "http://localhost:8080/testLinkPreload.html"), 200, "OK", null);
+    // resources of another host are ignored
+    testRequest(HttpMethod.GET, "/coin.png", req -> req.putHeader("Referer", "http://example.com/testLinkPreload.html"), 200, "OK", null);
+    testRequest(HttpMethod.GET, "/coin.png", req -> req.putHeader("Referer", "http://example.com/testLinkPreload.html"), 200, "OK", null);
+
+    testRequest(HttpMethod.GET, "/testLinkPreload.html", null, res -> {
+      List<String> linkHeaders = res.headers().getAll("Link");
+      assertEquals(Collections.singletonList("</style.css>; rel=preload; as=style"), linkHeaders);
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testLearnedHttp2Push() throws Exception {
+    long styleSize = fileSize("src/test/resources/webroot/somedir3/style.css");
+    stat.setLearnPushHints(true)
+      // only the first resource can be pushed
+      .setMaxPushedBytesPerConnection(styleSize)
+      .setWebRoot("webroot/somedir3");
+    router.route().handler(stat);
+    HttpServer http2Server = vertx.createHttpServer(new HttpServerOptions()
+      .setUseAlpn(true)
+      .setSsl(true)
+      .setPemKeyCertOptions(new PemKeyCertOptions().setKeyPath("tls/server-key.pem").setCertPath("tls/server-cert.pem")));
+    CountDownLatch listenLatch = new CountDownLatch(1);
+    http2Server.requestHandler(router).listen(8443, onSuccess(s -> listenLatch.countDown()));
+    awaitLatch(listenLatch);
+
+    for (int i = 0; i < 3; i++) {
+      testRequest(HttpMethod.GET, "/testLinkPreload.html", 200, "OK", null);
+      testRequest(HttpMethod.GET, "/style.css", req -> req.putHeader("Referer", "http://localhost:8080/testLinkPreload.html"), 200, "OK", null);
+      testRequest(HttpMethod.GET, "/coin.png", req -> req.putHeader("Referer", "http://localhost:8080/testLinkPreload.html"), 200, "OK", null);
+    }
+
+    HttpClientOptions options = new HttpClientOptions()
+      .setSsl(true)
+      .setUseAlpn(true)
+      .setProtocolVersion(HttpVersion.HTTP_2)
+      .setPemTrustOptions(new PemTrustOptions().addCertPath("tls/server-cert.pem"));
+    HttpClient client = vertx.createHttpClient(options);
+    List<String> pushed = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(2);
+    client.request(HttpMethod.GET, 8443, "localhost", "/testLinkPreload.html")
+      .onComplete(onSuccess(req -> {
+        req.pushHandler(pushedReq -> {
+          pushed.add(pushedReq.path());
+          pushedReq.response(onSuccess(pushedResp -> pushedResp.bodyHandler(body -> {
+            assertEquals(styleSize, body.length());
+            latch.countDown();
+          })));
+        }).send(onSuccess(resp -> {
+          assertEquals(200, resp.statusCode());
+          assertEquals(Collections.singletonList("</coin.png>; rel=preload; as=image"), resp.headers().getAll("Link"));
+          resp.bodyHandler(body -> latch.countDown());
+        }));
+      }));
+    awaitLatch(latch);
+    assertEquals(Collections.singletonList("/style.css"), pushed);
+  }
+
   @Test
   public void testSkipCompressionForMediaTypes() throws Exception {
     StaticHandler staticHandler = StaticHandler.create()
@@ -531,6 +603,232 @@ public class StaticHandlerTest extends WebTestBase {
 
   }
 
+  @Test
+  public void testContentCache() throws Exception {
+    stat.setMaxContentCacheSize(1024 * 1024);
+    testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testContentCacheRange() throws Exception {
+    byte[] file = Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath());
+    stat.setMaxContentCacheSize(1024 * 1024);
+    for (int i = 0; i < 2; i++) {
+      testRequestBuffer(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=1000-1999"), res -> {
+        assertEquals("1000", res.headers().get("Content-Length"));
+        assertEquals("bytes 1000-1999/15783", res.headers().get("Content-Range"));
+      }, 206, "Partial Content", Buffer.buffer(Arrays.copyOfRange(file, 1000, 2000)));
+    }
+  }
+
+  @Test
+  public void testContentCacheFileModified() throws Exception {
+    File webroot = new File("target/.vertx/webroot"), pageFile = new File(webroot, "cached.html");
+    webroot.mkdirs();
+    Files.write(pageFile.toPath(), "<html>first</html>".getBytes(StandardCharsets.UTF_8));
+    long modified = pageFile.lastModified();
+
+    stat.setFilesReadOnly(false);
+    stat.setWebRoot(webroot.getPath());
+    stat.setMaxContentCacheSize(1024 * 1024);
+
+    testRequest(HttpMethod.GET, "/cached.html", 200, "OK", "<html>first</html>");
+    testRequest(HttpMethod.GET, "/cached.html", 200, "OK", "<html>first</html>");
+
+    Files.write(pageFile.toPath(), "<html>second</html>".getBytes(StandardCharsets.UTF_8));
+    pageFile.setLastModified(modified + 1000);
+
+    testRequest(HttpMethod.GET, "/cached.html", 200, "OK", "<html>second</html>");
+  }
+
+  @Test
+  public void testContentETags() throws Exception {
+    File webroot = new File("target/.vertx/webroot"), pageFile = new File(webroot, "etag.html");
+    webroot.mkdirs();
+    Files.write(pageFile.toPath(), "<html>first</html>".getBytes(StandardCharsets.UTF_8));
+    long modified = pageFile.lastModified();
+
+    stat.setFilesReadOnly(false);
+    stat.setCacheEntryTimeout(1);
+    stat.setWebRoot(webroot.getPath());
+    stat.setContentETags(true);
+
+    String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest("<html>first</html>".getBytes(StandardCharsets.UTF_8))) + "\"";
+    testRequest(HttpMethod.GET, "/etag.html", null, res -> assertEquals(etag, res.getHeader("ETag")), 200, "OK", "<html>first</html>");
+    testRequest(HttpMethod.GET, "/etag.html", req -> req.putHeader("If-None-Match", etag), res -> assertEquals(etag, res.getHeader("ETag")), 304, "Not Modified", null);
+
+    // redeployed with the same content
+    pageFile.setLastModified(modified + 10000);
+    Thread.sleep(5);
+    testRequest(HttpMethod.GET, "/etag.html", req -> req
+      .putHeader("If-None-Match", etag)
+      .putHeader("If-Modified-Since", Utils.formatRFC1123DateTime(modified)), 304, "Not Modified", null);
+
+    Files.write(pageFile.toPath(), "<html>second</html>".getBytes(StandardCharsets.UTF_8));
+    pageFile.setLastModified(modified + 20000);
+    Thread.sleep(5);
+    testRequest(HttpMethod.GET, "/etag.html", req -> req.putHeader("If-None-Match", etag), res -> assertNotEquals(etag, res.getHeader("ETag")), 200, "OK", "<html>second</html>");
+  }
+
+  @Test
+  public void testContentETagsIfRange() throws Exception {
+    stat.setEnableRangeSupport(true);
+    stat.setContentETags(true);
+    AtomicReference<String> etag = new AtomicReference<>();
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", null, res -> etag.set(res.getHeader("ETag")), 200, "OK", null);
+    assertNotNull(etag.get());
+
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", etag.get()), res -> {
+      assertEquals("bytes 0-999/15783", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", null);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", "\"other\""), res -> {
+      assertNull(res.headers().get("Content-Range"));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testWatchWebRoot() throws Exception {
+    File webroot = new File("target/.vertx/watched"), pageFile = new File(webroot, "dir/watched.html"), createdFile = new File(webroot, "created/page.html");
+    if (webroot.exists()) {
+      vertx.fileSystem().deleteRecursiveBlocking(webroot.getPath(), true);
+    }
+    pageFile.getParentFile().mkdirs();
+    Files.write(pageFile.toPath(), "<html>first</html>".getBytes(StandardCharsets.UTF_8));
+
+    // without the watch the changes would not be seen for an hour
+    stat.setFilesReadOnly(false);
+    stat.setCacheEntryTimeout(3600 * 1000);
+    stat.setWebRoot(webroot.getPath());
+    stat.setWatchWebRoot(true);
+
+    testRequest(HttpMethod.GET, "/dir/watched.html", 200, "OK", "<html>first</html>");
+    testRequest(HttpMethod.GET, "/created/page.html", 404, "Not Found", null);
+
+    Files.write(pageFile.toPath(), "<html>second</html>".getBytes(StandardCharsets.UTF_8));
+    waitUntilResponse("/dir/watched.html", 200, "<html>second</html>");
+
+    createdFile.getParentFile().mkdirs();
+    Files.write(createdFile.toPath(), "<html>created</html>".getBytes(StandardCharsets.UTF_8));
+    waitUntilResponse("/created/page.html", 200, "<html>created</html>");
+
+    assertTrue(pageFile.delete());
+    waitUntilResponse("/dir/watched.html", 404, null);
+  }
+
+  private void waitUntilResponse(String path, int statusCode, String body) throws Exception {
+    // a polling watch service may take a few polling periods to report the change
+    long deadline = System.currentTimeMillis() + 30000;
+    while (true) {
+      CountDownLatch latch = new CountDownLatch(1);
+      AtomicReference<String> response = new AtomicReference<>();
+      client.request(HttpMethod.GET, 8080, "localhost", path)
+        .compose(req -> req.send().compose(res -> res.body().map(buff -> res.statusCode() + " " + buff)))
+        .onComplete(onSuccess(res -> {
+          response.set(res);
+          latch.countDown();
+        }));
+      awaitLatch(latch);
+      if (response.get().startsWith(statusCode + " ") && (body == null || response.get().equals(statusCode + " " + body))) {
+        return;
+      }
+      assertTrue("Unexpected response " + response.get(), System.currentTimeMillis() < deadline);
+      Thread.sleep(50);
+    }
+  }
+
+  @Test
+  public void testContentCacheFileTooLarge() throws Exception {
+    stat.setMaxContentCacheSize(1024 * 1024).setMaxContentCacheFileSize(10);
+    testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+    testRequest(HttpMethod.GET, "/otherpage.html", 200, "OK", "<html><body>Other page</body></html>");
+  }
+
+  @Test
+  public void testPrecompressedFiles() throws Exception {
+    File webroot = new File("target/.vertx/webroot/precompressed");
+    webroot.mkdirs();
+    byte[] original = "console.log('original');".getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+      out.write(original);
+    }
+    // the content of the brotli file is not decoded, it only needs to be recognizable
+    byte[] brotli = "brotli".getBytes(StandardCharsets.UTF_8);
+    Files.write(new File(webroot, "app.js").toPath(), original);
+    Files.write(new File(webroot, "app.js.gz").toPath(), gzip.toByteArray());
+    Files.write(new File(webroot, "app.js.br").toPath(), brotli);
+    Files.write(new File(webroot, "plain.js").toPath(), original);
+
+    stat.setWebRoot(webroot.getPath()).setServePrecompressedFiles(true);
+
+    testRequestBuffer(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip, br"), res -> {
+      assertEquals("br", res.getHeader("Content-Encoding"));
+      assertEquals("accept-encoding", res.getHeader("Vary"));
+      assertEquals(String.valueOf(brotli.length), res.getHeader("Content-Length"));
+      assertTrue(res.getHeader("Content-Type").startsWith("application/javascript"));
+    }, 200, "OK", Buffer.buffer(brotli));
+    testRequestBuffer(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip"), res -> {
+      assertEquals("gzip", res.getHeader("Content-Encoding"));
+    }, 200, "OK", Buffer.buffer(gzip.toByteArray()));
+    testRequestBuffer(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "br;q=0, *"), res -> {
+      assertEquals("gzip", res.getHeader("Content-Encoding"));
+    }, 200, "OK", Buffer.buffer(gzip.toByteArray()));
+    testRequestBuffer(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "gzip;q=0.5, br;q=0.1"), res -> {
+      assertEquals("gzip", res.getHeader("Content-Encoding"));
+    }, 200, "OK", Buffer.buffer(gzip.toByteArray()));
+    testRequestBuffer(HttpMethod.GET, "/app.js", null, res -> {
+      assertNull(res.getHeader("Content-Encoding"));
+      assertEquals("accept-encoding", res.getHeader("Vary"));
+    }, 200, "OK", Buffer.buffer(original));
+    testRequestBuffer(HttpMethod.GET, "/plain.js", req -> req.putHeader("Accept-Encoding", "br"), res -> {
+      assertNull(res.getHeader("Content-Encoding"));
+    }, 200, "OK", Buffer.buffer(original));
+  }
+
+  @Test
+  public void testPrecompressedFilesDisabled() throws Exception {
+    File webroot = new File("target/.vertx/webroot/precompressed-disabled");
+    webroot.mkdirs();
+    Files.write(new File(webroot, "app.js").toPath(), "original".getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(webroot, "app.js.br").toPath(), "brotli".getBytes(StandardCharsets.UTF_8));
+
+    stat.setWebRoot(webroot.getPath());
+
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "br"), res -> {
+      assertNull(res.getHeader("Content-Encoding"));
+    }, 200, "OK", "original");
+  }
+
+  @Test
+  public void testPrecompressedFilesContentETags() throws Exception {
+    File webroot = new File("target/.vertx/webroot/precompressed-etags");
+    webroot.mkdirs();
+    Files.write(new File(webroot, "app.js").toPath(), "original".getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(webroot, "app.js.br").toPath(), "brotli".getBytes(StandardCharsets.UTF_8));
+
+    stat.setWebRoot(webroot.getPath()).setServePrecompressedFiles(true).setContentETags(true);
+
+    AtomicReference<String> identity = new AtomicReference<>();
+    AtomicReference<String> brotli = new AtomicReference<>();
+    testRequest(HttpMethod.GET, "/app.js", null, res -> identity.set(res.getHeader("ETag")), 200, "OK", "original");
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("Accept-Encoding", "br"), res -> {
+      assertEquals("br", res.getHeader("Content-Encoding"));
+      brotli.set(res.getHeader("ETag"));
+    }, 200, "OK", "brotli");
+    assertEquals(identity.get().substring(0, identity.get().length() - 1) + "-br\"", brotli.get());
+
+    // each representation is revalidated with its own entity tag
+    testRequest(HttpMethod.GET, "/app.js", req -> req
+      .putHeader("Accept-Encoding", "br")
+      .putHeader("If-None-Match", brotli.get()), res -> assertEquals(brotli.get(), res.getHeader("ETag")), 304, "Not Modified", null);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("If-None-Match", identity.get()), 304, "Not Modified", null);
+    testRequest(HttpMethod.GET, "/app.js", req -> req.putHeader("If-None-Match", brotli.get()), 200, "OK", "original");
+    testRequest(HttpMethod.GET, "/app.js", req -> req
+      .putHeader("Accept-Encoding", "br")
+      .putHeader("If-None-Match", identity.get()), 200, "OK", "brotli");
+  }
+
   @Test
   public void testDirectoryListingText() throws Exception {
     stat.setDirectoryListing(true);
@@ -608,6 +906,45 @@ public class StaticHandlerTest extends WebTestBase {
     await();
   }
 
+  @Test
+  public void testDirectoryListingPagination() throws Exception {
+    stat.setDirectoryListing(true);
+    stat.setDirectoryListingPageSize(2);
+    testRequest(HttpMethod.GET, "/somedir2/", req -> req.putHeader("accept", "application/json"), res -> {
+      assertEquals("</somedir2/?offset=2&limit=2>; rel=\"next\"", res.getHeader("Link"));
+    }, 200, "OK", "[\"foo2.json\",\"somepage.html\"]");
+    testRequest(HttpMethod.GET, "/somedir2/?offset=2&limit=2", req -> req.putHeader("accept", "application/json"), res -> {
+      assertNull(res.getHeader("Link"));
+    }, 200, "OK", "[\"somepage2.html\"]");
+    // the limit cannot exceed the page size
+    testRequest(HttpMethod.GET, "/somedir2/?offset=1&limit=10", null, res -> {
+      assertEquals("</somedir2/?offset=3&limit=2>; rel=\"next\"", res.getHeader("Link"));
+    }, 200, "OK", "somepage.html\nsomepage2.html\n");
+    testRequest(HttpMethod.GET, "/somedir2/?offset=-1", 400, "Bad Request", null);
+  }
+
+  @Test
+  public void testDirectoryListingCacheUpdated() throws Exception {
+    File webroot = new File("target/.vertx/listing"), dir = new File(webroot, "dir");
+    dir.mkdirs();
+    for (File file : Objects.requireNonNull(dir.listFiles())) {
+      assertTrue(file.delete());
+    }
+    Files.write(new File(dir, "a.txt").toPath(), "a".getBytes(StandardCharsets.UTF_8));
+    dir.setLastModified(dir.lastModified() - 10000);
+
+    stat.setDirectoryListing(true);
+    stat.setWebRoot(webroot.getPath());
+
+    testRequest(HttpMethod.GET, "/dir/", 200, "OK", "a.txt\n");
+    testRequest(HttpMethod.GET, "/dir/", 200, "OK", "a.txt\n");
+
+    Files.write(new File(dir, "b.txt").toPath(), "b".getBytes(StandardCharsets.UTF_8));
+    dir.setLastModified(dir.lastModified() + 20000);
+
+    testRequest(HttpMethod.GET, "/dir/", 200, "OK", "a.txt\nb.txt\n");
+  }
+
   @Test
   public void testDirectoryListingHtml() throws Exception {
     stat.setDirectoryListing(true);
@@ -794,6 +1131,97 @@ public class StaticHandlerTest extends WebTestBase {
     await();
   }
 
+  @Test
+  public void testSuffixRangeRequestBody() throws Exception {
+    byte[] file = Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath());
+    stat.setEnableRangeSupport(true);
+    testRequestBuffer(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=-500"), res -> {
+      assertEquals("500", res.headers().get("Content-Length"));
+      assertEquals("bytes 15283-15782/15783", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", Buffer.buffer(Arrays.copyOfRange(file, 15283, 15783)));
+  }
+
+  @Test
+  public void testInvalidRangeIsIgnored() throws Exception {
+    stat.setEnableRangeSupport(true);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=1000-999"), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+      assertNull(res.headers().get("Content-Range"));
+    }, 200, "OK", null);
+  }
+
+  @Test
+  public void testMultipleRangesRequestBody() throws Exception {
+    testMultipleRanges(false);
+  }
+
+  @Test
+  public void testMultipleRangesRequestBodyFromContentCache() throws Exception {
+    testMultipleRanges(true);
+  }
+
+  private void testMultipleRanges(boolean contentCache) throws Exception {
+    byte[] file = Files.readAllBytes(new File("src/test/resources/webroot/somedir/range.jpg").toPath());
+    stat.setEnableRangeSupport(true);
+    if (contentCache) {
+      stat.setMaxContentCacheSize(1024 * 1024);
+    }
+    for (int i = 0; i < 2; i++) {
+      CountDownLatch latch = new CountDownLatch(1);
+      testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-99, 1000-1999,-10"), res -> {
+        String contentType = res.headers().get("Content-Type");
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring("multipart/byteranges; boundary=".length());
+        Buffer expected = Buffer.buffer();
+        int[][] ranges = {{0, 99}, {1000, 1999}, {15773, 15782}};
+        for (int[] range : ranges) {
+          expected.appendString("\r\n--" + boundary + "\r\nContent-Type: image/jpeg\r\nContent-Range: bytes " + range[0] + "-" + range[1] + "/15783\r\n\r\n");
+          expected.appendBytes(Arrays.copyOfRange(file, range[0], range[1] + 1));
+        }
+        expected.appendString("\r\n--" + boundary + "--\r\n");
+        assertEquals(String.valueOf(expected.length()), res.headers().get("Content-Length"));
+        res.bodyHandler(body -> {
+          assertEquals(expected, body);
+          latch.countDown();
+        });
+      }, 206, "Partial Content", null);
+      awaitLatch(latch);
+    }
+  }
+
+  @Test
+  public void testOverlappingRangesAreCoalesced() throws Exception {
+    stat.setEnableRangeSupport(true);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=500-999,0-499"), res -> {
+      assertEquals("1000", res.headers().get("Content-Length"));
+      assertEquals("bytes 0-999/15783", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", null);
+  }
+
+  @Test
+  public void testIfRange() throws Exception {
+    stat.setEnableRangeSupport(true);
+    AtomicReference<String> lastModified = new AtomicReference<>();
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", null, res -> lastModified.set(res.headers().get("Last-Modified")), 200, "OK", null);
+    assertNotNull(lastModified.get());
+
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", lastModified.get()), res -> {
+      assertEquals("1000", res.headers().get("Content-Length"));
+      assertEquals("bytes 0-999/15783", res.headers().get("Content-Range"));
+    }, 206, "Partial Content", null);
+
+    String outdated = Utils.formatRFC1123DateTime(Utils.parseRFC1123DateTime(lastModified.get()) - 1000);
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", outdated), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+      assertNull(res.headers().get("Content-Range"));
+    }, 200, "OK", null);
+
+    testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> req.headers().set("Range", "bytes=0-999").set("If-Range", "\"unknown\""), res -> {
+      assertEquals("15783", res.headers().get("Content-Length"));
+      assertNull(res.headers().get("Content-Range"));
+    }, 200, "OK", null);
+  }
+
   @Test
   public void testContentTypeSupport() throws Exception {
     testRequest(HttpMethod.GET, "/somedir/range.jpg", req -> {
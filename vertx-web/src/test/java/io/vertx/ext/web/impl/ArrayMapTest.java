@@ -0,0 +1,54 @@
+package io.vertx.ext.web.impl;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ArrayMapTest {
+
+  @Test
+  public void testSameAsHashMap() {
+    Map<String, String> map = new ArrayMap<>(1);
+    Map<String, String> expected = new HashMap<>();
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(expected.put("k" + i, "v" + i), map.put("k" + i, "v" + i));
+    }
+    assertEquals(expected.put("k3", "x"), map.put("k3", "x"));
+    assertEquals(expected.remove("k0"), map.remove("k0"));
+    assertEquals(expected.remove("k9"), map.remove("k9"));
+    assertEquals(expected.remove("missing"), map.remove("missing"));
+
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertEquals("x", map.get("k3"));
+    assertNull(map.get("k0"));
+    assertTrue(map.containsKey("k5"));
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    Map<String, String> map = new ArrayMap<>();
+    map.put("a", "1");
+    map.put("b", "2");
+    map.put("c", "3");
+
+    Iterator<Map.Entry<String, String>> it = map.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, String> entry = it.next();
+      if (!entry.getKey().equals("c")) {
+        it.remove();
+      }
+    }
+    assertEquals(1, map.size());
+    assertEquals("3", map.get("c"));
+
+    map.clear();
+    assertTrue(map.isEmpty());
+  }
+}
@@ -0,0 +1,42 @@
+package io.vertx.ext.web.impl;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.*;
+
+public class HttpDateTest {
+
+  private static String expected(long millis) {
+    return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneId.of("GMT")));
+  }
+
+  @Test
+  public void testSameAsFormatter() {
+    final long now = System.currentTimeMillis();
+    for (long millis : new long[] { 0, 784111777000L, now, now + 999, now + 1000, now - 86_400_000L }) {
+      assertEquals(expected(millis), HttpDate.format(millis).toString());
+      assertEquals(expected(millis), Utils.formatRFC1123DateTime(millis));
+    }
+  }
+
+  @Test
+  public void testCachedPerSecond() {
+    final long second = (System.currentTimeMillis() / 1000 + 10) * 1000;
+    assertSame(HttpDate.format(second), HttpDate.format(second + 999));
+    assertNotSame(HttpDate.format(second), HttpDate.format(second + 1000));
+    // an older date does not evict the cached second
+    final long lastModified = second - 3_600_000L;
+    assertEquals(expected(lastModified), HttpDate.format(lastModified).toString());
+    assertSame(HttpDate.format(second + 1000), HttpDate.format(second + 1500));
+  }
+
+  @Test
+  public void testBackingArray() {
+    final long now = System.currentTimeMillis();
+    assertArrayEquals(expected(now).getBytes(), HttpDate.format(now).array());
+  }
+}
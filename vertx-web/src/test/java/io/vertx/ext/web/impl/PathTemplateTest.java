@@ -0,0 +1,69 @@
+package io.vertx.ext.web.impl;
+
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.*;
+
+public class PathTemplateTest {
+
+  private static final String[] PATHS = {
+    "/", "/users", "/users/", "/users/1", "/users/1/", "/users/1/orders", "/users/1/orders/", "/users/1/orders/2",
+    "/users/1/orders/2/", "/users/1/orders/2/items/3", "/users//orders/2", "/users/a.b/orders/c+d", "/file.json",
+    "/file.", "/file./x", "/users/1/ordersX/2"
+  };
+
+  private static RouteState state(String path) {
+    return ((RouteImpl) new RouterImpl(null).route(path)).state();
+  }
+
+  private static void assertSameAsRegex(String template) {
+    RouteState state = state(template);
+    PathTemplate compiled = state.getTemplate();
+    assertNotNull(template, compiled);
+
+    for (String path : PATHS) {
+      Matcher m = state.getPattern().matcher(path);
+      int[] offsets = new int[2 * compiled.groupCount()];
+      boolean matches = compiled.matches(path, offsets);
+
+      assertEquals(template + " " + path, m.matches(), matches);
+      if (matches) {
+        assertEquals(m.groupCount(), compiled.groupCount());
+        for (int i = 0; i < compiled.groupCount(); i++) {
+          assertEquals(m.group(i + 1), path.substring(offsets[2 * i], offsets[2 * i + 1]));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameAsRegex() {
+    assertSameAsRegex("/users/:id");
+    assertSameAsRegex("/users/:id/");
+    assertSameAsRegex("/users/:id*");
+    assertSameAsRegex("/users/:id/*");
+    assertSameAsRegex("/users/:id/orders/:oid");
+    assertSameAsRegex("/users/:id/orders/:oid*");
+    assertSameAsRegex("/users/:id/orders*");
+    assertSameAsRegex("/:a/:b/:c");
+    assertSameAsRegex("/file.:ext");
+  }
+
+  @Test
+  public void testNotPlain() {
+    assertNull(state("/:from-:to").getTemplate());
+    assertNull(state("/users/:id.json").getTemplate());
+    assertNull(state("/users/a*b/:id").getTemplate());
+    assertNull(state("/users/all").getTemplate());
+  }
+
+  @Test
+  public void testRegexRouteHasNoTemplate() {
+    RouteImpl route = (RouteImpl) new RouterImpl(null).route("/users/:id");
+    assertNotNull(route.state().getTemplate());
+    route.pathRegex("/users/(\\d+)");
+    assertNull(route.state().getTemplate());
+  }
+}
@@ -0,0 +1,330 @@
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.WebTestBase;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RouteIndexTest extends WebTestBase {
+
+  @Test
+  public void testManyLiteralRoutes() throws Exception {
+    for (int i = 0; i < 500; i++) {
+      final int id = i;
+      router.route("/resource" + i).handler(rc -> rc.response().setStatusMessage("r" + id).end());
+    }
+    testRequest(HttpMethod.GET, "/resource0", 200, "r0");
+    testRequest(HttpMethod.GET, "/resource499", 200, "r499");
+    testRequest(HttpMethod.GET, "/resource499/", 200, "r499");
+    testRequest(HttpMethod.GET, "/resource500", 404, "Not Found");
+  }
+
+  @Test
+  public void testOrderAcrossBuckets() throws Exception {
+    router.route().handler(rc -> {
+      rc.put("order", "a");
+      rc.next();
+    });
+    router.routeWithRegex(".*/orders/.*").handler(rc -> {
+      rc.put("order", rc.get("order") + "b");
+      rc.next();
+    });
+    router.route("/users/:id/*").handler(rc -> {
+      rc.put("order", rc.get("order") + "c");
+      rc.next();
+    });
+    router.route("/users*").handler(rc -> {
+      rc.put("order", rc.get("order") + "d");
+      rc.next();
+    });
+    router.route("/other/orders/:oid").handler(rc -> rc.response().setStatusMessage("other").end());
+    router.route("/users/:id/orders/:oid").handler(rc -> {
+      rc.response().setStatusMessage(rc.get("order") + "e" + rc.pathParam("id") + rc.pathParam("oid")).end();
+    });
+
+    testRequest(HttpMethod.GET, "/users/1/orders/2", 200, "abcde12");
+    testRequest(HttpMethod.GET, "/users1/orders/2", 404, "Not Found");
+  }
+
+  @Test
+  public void testPrefixWithoutSlash() throws Exception {
+    router.route("/foo*").handler(rc -> rc.response().setStatusMessage(rc.pathParam("*")).end());
+
+    testRequest(HttpMethod.GET, "/foobar", 200, "bar");
+    testRequest(HttpMethod.GET, "/foo/bar", 200, "/bar");
+    testRequest(HttpMethod.GET, "/fo", 404, "Not Found");
+  }
+
+  @Test
+  public void testRouteModifiedAfterAdded() throws Exception {
+    Route route = router.route("/before").handler(rc -> rc.response().setStatusMessage("ok").end());
+
+    testRequest(HttpMethod.GET, "/before", 200, "ok");
+
+    route.path("/after");
+
+    testRequest(HttpMethod.GET, "/before", 404, "Not Found");
+    testRequest(HttpMethod.GET, "/after", 200, "ok");
+  }
+
+  @Test
+  public void testFailureHandlerOutsideOfPath() throws Exception {
+    router.route("/fail").handler(rc -> rc.fail(503));
+    router.route("/other").failureHandler(rc -> rc.response().setStatusMessage("wrong").end());
+    router.route().failureHandler(rc -> rc.response().setStatusCode(rc.statusCode()).setStatusMessage("handled").end());
+
+    testRequest(HttpMethod.GET, "/fail", 503, "handled");
+  }
+
+  @Test
+  public void testSubRouterIndex() throws Exception {
+    Router subRouter = Router.router(vertx);
+    for (int i = 0; i < 100; i++) {
+      final int id = i;
+      subRouter.get("/item" + i + "/:name").handler(rc -> rc.response().setStatusMessage(id + rc.pathParam("name")).end());
+    }
+    subRouter.route("/").handler(rc -> rc.response().setStatusMessage("root").end());
+    router.mountSubRouter("/api", subRouter);
+
+    testRequest(HttpMethod.GET, "/api/item42/x", 200, "42x");
+    testRequest(HttpMethod.GET, "/api", 200, "root");
+    testRequest(HttpMethod.GET, "/api/", 200, "root");
+    testRequest(HttpMethod.GET, "/api/item100/x", 404, "Not Found");
+  }
+
+  @Test
+  public void testMethodNotAllowedFromOtherMethodBucket() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      router.get("/items/:id/v" + i).handler(rc -> rc.response().setStatusMessage("get").end());
+    }
+    router.post("/items/:id/v50").handler(rc -> rc.response().setStatusMessage("post").end());
+
+    testRequest(HttpMethod.POST, "/items/1/v50", 200, "post");
+    testRequest(HttpMethod.PUT, "/items/1/v50", 405, "Method Not Allowed");
+    testRequest(HttpMethod.PUT, "/items/1/v100", 404, "Not Found");
+  }
+
+  @Test
+  public void testMethodNotAllowedOnlyAfterLastMatch() throws Exception {
+    router.get("/path").handler(rc -> rc.response().setStatusMessage("get").end());
+    router.route("/path").handler(RoutingContext::next);
+
+    // the GET route is before the route that matched, so it doesn't turn the 404 into a 405
+    testRequest(HttpMethod.POST, "/path", 404, "Not Found");
+  }
+
+  @Test
+  public void testMethodAddedAfterRouteIsActive() throws Exception {
+    Route route = router.route("/path").handler(rc -> rc.response().setStatusMessage("ok").end());
+
+    testRequest(HttpMethod.POST, "/path", 200, "ok");
+
+    route.method(HttpMethod.GET);
+
+    testRequest(HttpMethod.POST, "/path", 405, "Method Not Allowed");
+    testRequest(HttpMethod.GET, "/path", 200, "ok");
+  }
+
+  @Test
+  public void testInlinedSubRouters() throws Exception {
+    router.inlineSubRouters(true);
+
+    Router level2 = Router.router(vertx);
+    Router level3 = Router.router(vertx);
+    level3.get("/users/:id").handler(rc -> rc.response().setStatusMessage(rc.mountPoint() + rc.pathParam("id")).end());
+    level3.route("/fail").handler(rc -> rc.fail(409));
+    level3.route().failureHandler(rc -> rc.response().setStatusCode(rc.statusCode()).setStatusMessage("l3").end());
+    level2.route("/v1/*").subRouter(level3);
+    level2.route("/other").handler(rc -> rc.response().setStatusMessage(rc.mountPoint()).end());
+
+    router.route("/api*").subRouter(level2);
+    router.route("/api/v1/users/:id").handler(rc -> rc.response().setStatusMessage("parent").end());
+
+    testRequest(HttpMethod.GET, "/api/v1/users/1", 200, "/api/v1/1");
+    testRequest(HttpMethod.GET, "/api/other", 200, "/api");
+    testRequest(HttpMethod.GET, "/api/v1/fail", 409, "l3");
+    testRequest(HttpMethod.POST, "/api/v1/users/1", 200, "parent");
+    testRequest(HttpMethod.GET, "/api/v2/users/1", 404, "Not Found");
+  }
+
+  @Test
+  public void testInlinedSubRouterMethodNotAllowed() throws Exception {
+    router.inlineSubRouters(true);
+
+    Router subRouter = Router.router(vertx);
+    subRouter.get("/path").handler(rc -> rc.response().setStatusMessage("get").end());
+    router.mountSubRouter("/api", subRouter);
+
+    testRequest(HttpMethod.GET, "/api/path", 200, "get");
+    testRequest(HttpMethod.POST, "/api/path", 405, "Method Not Allowed");
+  }
+
+  @Test
+  public void testInlinedSubRouterModified() throws Exception {
+    router.inlineSubRouters(true);
+
+    Router subRouter = Router.router(vertx);
+    Route route = subRouter.route("/before").handler(rc -> rc.response().setStatusMessage("ok").end());
+    Route mount = router.route("/api*").subRouter(subRouter);
+
+    testRequest(HttpMethod.GET, "/api/before", 200, "ok");
+
+    route.path("/after");
+    subRouter.route("/added").handler(rc -> rc.response().setStatusMessage("added").end());
+
+    testRequest(HttpMethod.GET, "/api/before", 404, "Not Found");
+    testRequest(HttpMethod.GET, "/api/after", 200, "ok");
+    testRequest(HttpMethod.GET, "/api/added", 200, "added");
+
+    mount.disable();
+
+    testRequest(HttpMethod.GET, "/api/after", 404, "Not Found");
+  }
+
+  @Test
+  public void testInlinedSubRouterModifiedHandler() throws Exception {
+    router.inlineSubRouters(true);
+
+    AtomicInteger modified = new AtomicInteger();
+    Router subRouter = Router.router(vertx);
+    subRouter.modifiedHandler(r -> modified.incrementAndGet());
+    Route route = subRouter.route("/before").handler(rc -> rc.response().setStatusMessage("ok").end());
+    router.route("/api*").subRouter(subRouter);
+    assertEquals(1, modified.get());
+
+    // the inlining router is refreshed, the modified handler is only notified of added or removed routes
+    route.path("/after");
+    route.disable();
+    route.enable();
+    assertEquals(1, modified.get());
+    testRequest(HttpMethod.GET, "/api/after", 200, "ok");
+
+    route.remove();
+    assertEquals(2, modified.get());
+    testRequest(HttpMethod.GET, "/api/after", 404, "Not Found");
+  }
+
+  @Test
+  public void testMountWithCriteriaIsNotInlined() throws Exception {
+    router.inlineSubRouters(true);
+
+    Router subRouter = Router.router(vertx);
+    subRouter.route("/path").handler(rc -> rc.response().setStatusMessage(rc.pathParam("tenant")).end());
+    router.mountSubRouter("/:tenant", subRouter);
+
+    testRequest(HttpMethod.GET, "/acme/path", 200, "acme");
+  }
+
+  @Test
+  public void testRouteCache() throws Exception {
+    router.routeCacheSize(16);
+    router.route("/users/:id").handler(rc -> {
+      rc.put("visited", rc.pathParam("id"));
+      rc.next();
+    });
+    router.route("/other/:id").handler(rc -> rc.response().setStatusMessage("other").end());
+    router.route("/users/:id").handler(rc -> rc.response().setStatusMessage(rc.get("visited") + rc.pathParam("id")).end());
+
+    testRequest(HttpMethod.GET, "/users/1", 200, "11");
+    testRequest(HttpMethod.GET, "/users/1", 200, "11");
+    testRequest(HttpMethod.GET, "/users/2", 200, "22");
+    testRequest(HttpMethod.GET, "/users//1", 200, "11");
+
+    assertEquals(2, router.routeCacheHits());
+    assertEquals(2, router.routeCacheMisses());
+  }
+
+  @Test
+  public void testRouteCacheReplaysPathParams() throws Exception {
+    router.routeCacheSize(16);
+    router.route("/static/*").handler(rc -> {
+      rc.put("rest", rc.pathParam("*"));
+      rc.next();
+    });
+    router.get("/static/:file").handler(rc -> rc.response()
+      .setStatusMessage(rc.get("rest") + " " + rc.pathParam("file") + " " + rc.request().getParam("file") + " " + rc.pathParam("*"))
+      .end());
+
+    testRequest(HttpMethod.GET, "/static/app.js", 200, "app.js app.js app.js null");
+    testRequest(HttpMethod.GET, "/static/app.js", 200, "app.js app.js app.js null");
+    assertEquals(1, router.routeCacheHits());
+  }
+
+  @Test
+  public void testRouteCacheLeavesTheRequestUntouched() throws Exception {
+    router.routeCacheSize(16);
+    router.get("/static/*").handler(rc -> rc.response().setStatusMessage(rc.pathParam("*")).end());
+    router.get("/files/:file").handler(rc -> rc.response()
+      .setStatusMessage(rc.pathParam("file") + " " + rc.request().getParam("file"))
+      .end());
+
+    // the query is never parsed, as without the cache
+    testRequest(HttpMethod.GET, "/static/app.js?q=%zz", 200, "app.js");
+    testRequest(HttpMethod.GET, "/static/app.js?q=%zz", 200, "app.js");
+    // the query param takes precedence over the path param
+    testRequest(HttpMethod.GET, "/files/app.js?file=other", 200, "app.js other");
+    testRequest(HttpMethod.GET, "/files/app.js", 200, "app.js app.js");
+    assertEquals(2, router.routeCacheHits());
+  }
+
+  @Test
+  public void testRouteCacheEvictsLeastRecentlyUsed() throws Exception {
+    router.routeCacheSize(2);
+    router.route("/:name").handler(rc -> rc.response().setStatusMessage(rc.pathParam("name")).end());
+
+    testRequest(HttpMethod.GET, "/a", 200, "a");
+    testRequest(HttpMethod.GET, "/b", 200, "b");
+    testRequest(HttpMethod.GET, "/a", 200, "a");
+    // evicts /b, the least recently used
+    testRequest(HttpMethod.GET, "/c", 200, "c");
+    testRequest(HttpMethod.GET, "/a", 200, "a");
+    assertEquals(2, router.routeCacheHits());
+    testRequest(HttpMethod.GET, "/b", 200, "b");
+    assertEquals(2, router.routeCacheHits());
+    assertEquals(4, router.routeCacheMisses());
+  }
+
+  @Test
+  public void testRouteCacheInvalidation() throws Exception {
+    router.routeCacheSize(16);
+    Route route = router.route("/path").handler(rc -> rc.response().setStatusMessage("first").end());
+    router.route("/path").handler(rc -> rc.response().setStatusMessage("second").end());
+
+    testRequest(HttpMethod.GET, "/path", 200, "first");
+
+    route.disable();
+    testRequest(HttpMethod.GET, "/path", 200, "second");
+
+    route.enable();
+    testRequest(HttpMethod.GET, "/path", 200, "first");
+
+    route.method(HttpMethod.POST);
+    testRequest(HttpMethod.GET, "/path", 200, "second");
+    testRequest(HttpMethod.POST, "/path", 200, "first");
+  }
+
+  @Test
+  public void testRouteCacheHeaderDependentRoutes() throws Exception {
+    router.routeCacheSize(16);
+    router.route("/path").consumes("text/plain").handler(rc -> rc.response().setStatusMessage("text").end());
+    router.route("/path").handler(rc -> rc.response().setStatusMessage("any").end());
+
+    testRequest(HttpMethod.POST, "/path", req -> req.putHeader("Content-Type", "text/plain"), 200, "text", null);
+    testRequest(HttpMethod.POST, "/path", req -> req.putHeader("Content-Type", "application/json"), 200, "any", null);
+    testRequest(HttpMethod.POST, "/path", req -> req.putHeader("Content-Type", "text/plain"), 200, "text", null);
+  }
+
+  @Test
+  public void testRouteCacheMethodNotAllowed() throws Exception {
+    router.routeCacheSize(16);
+    router.get("/path").handler(rc -> rc.response().setStatusMessage("get").end());
+
+    testRequest(HttpMethod.POST, "/path", 405, "Method Not Allowed");
+    testRequest(HttpMethod.POST, "/path", 405, "Method Not Allowed");
+    testRequest(HttpMethod.GET, "/path", 200, "get");
+  }
+}
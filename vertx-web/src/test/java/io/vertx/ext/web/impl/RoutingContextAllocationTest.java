@@ -0,0 +1,84 @@
+package io.vertx.ext.web.impl;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.impl.HttpServerRequestInternal;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class RoutingContextAllocationTest {
+
+  // object sizes depend on the JVM (compressed oops, object headers, alignment), so the limit is expressed in arrays
+  // of 8 references allocated in the same run, which scale the same way. With compressed oops such an array takes
+  // 48 bytes and a context with a couple of path params used to take around 500 bytes, the limit leaves room for
+  // JVM differences while eagerly allocated maps, counters or parsers still fail it
+  private static final long MAX_ARRAYS_PER_CONTEXT = 10;
+
+  private static volatile Object sink;
+
+  private static HttpServerRequest request() {
+    return (HttpServerRequest) Proxy.newProxyInstance(
+      RoutingContextAllocationTest.class.getClassLoader(),
+      new Class<?>[]{HttpServerRequestInternal.class},
+      (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "path":
+            return "/users/1";
+          case "method":
+            return HttpMethod.GET;
+          default:
+            throw new UnsupportedOperationException(method.getName());
+        }
+      });
+  }
+
+  private static void allocate(RouterImpl router, HttpServerRequest request) {
+    RoutingContextImpl context = new RoutingContextImpl(null, router, request, router.state());
+    context.pathParams().put("id", "1");
+    context.pathParams().put("name", "vert.x");
+    sink = context;
+  }
+
+  private static void allocateReference() {
+    sink = new Object[8];
+  }
+
+  private static long allocatedBytes(com.sun.management.ThreadMXBean threads, Runnable allocation) {
+    // warm up
+    for (int i = 0; i < 20_000; i++) {
+      allocation.run();
+    }
+
+    final int iterations = 100_000;
+    final long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; i++) {
+      allocation.run();
+    }
+    return (threads.getThreadAllocatedBytes(threadId) - before) / iterations;
+  }
+
+  @Test
+  public void testAllocatedBytesPerContext() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    RouterImpl router = new RouterImpl(null);
+    HttpServerRequest request = request();
+
+    long perReference = allocatedBytes(threads, RoutingContextAllocationTest::allocateReference);
+    long perContext = allocatedBytes(threads, () -> allocate(router, request));
+
+    assertTrue("Allocated " + perReference + " bytes per reference array", perReference > 0);
+    assertTrue(
+      "Allocated " + perContext + " bytes per routing context, " + perReference + " bytes per reference array",
+      perContext <= MAX_ARRAYS_PER_CONTEXT * perReference);
+  }
+}
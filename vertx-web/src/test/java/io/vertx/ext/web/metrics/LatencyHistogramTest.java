@@ -0,0 +1,43 @@
+package io.vertx.ext.web.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBuckets() {
+    for (long value : new long[] { 0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE }) {
+      int bucket = LatencyHistogram.bucket(value);
+      assertTrue(LatencyHistogram.highestValue(bucket) >= value);
+      if (bucket > 0) {
+        assertTrue(LatencyHistogram.highestValue(bucket - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.valueAtPercentile(99));
+
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    assertEquals(1000, histogram.count());
+    assertEquals(1_000_000, histogram.max());
+    assertEquals(500_500, histogram.mean(), 0.1);
+    assertEquals(1_000_000, histogram.valueAtPercentile(100));
+    // values are within the precision of the buckets
+    long p50 = histogram.valueAtPercentile(50);
+    assertTrue(p50 >= 500_000 && p50 < 500_000 * 1.125);
+    long p99 = histogram.valueAtPercentile(99);
+    assertTrue(p99 >= 990_000 && p99 <= 1_000_000);
+
+    histogram.reset();
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.max());
+  }
+}